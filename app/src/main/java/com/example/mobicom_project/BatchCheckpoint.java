@@ -0,0 +1,147 @@
+package com.example.mobicom_project;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only log of finished batch items, one key per line, so an import
+ * that was killed can resume where it stopped. Keys are held in memory until
+ * {@link #flush()}, which the caller runs once the results they stand for are
+ * on disk; keys not flushed by {@link #close()} are dropped, and their items
+ * run again on resume. Only newline-terminated lines count: a key cut off by
+ * a crash is treated as not done, and dropped from the file when it is next
+ * appended to. Failed recognition attempts are logged the same way, as the
+ * key after a tab, so a key that keeps failing can be given up on across
+ * runs. Not thread safe.
+ */
+public class BatchCheckpoint implements Closeable {
+    private final File file;
+    private final Set<String> done = new HashSet<>();
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private final List<String> unwritten = new ArrayList<>();
+    private Writer writer;
+    private static final char ATTEMPT = '\t';
+
+    /** Reads the keys already recorded in {@code file}, if it exists. */
+    public BatchCheckpoint(File file) throws IOException {
+        this.file = file;
+        if (!file.exists()) return;
+        String log = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end = log.indexOf('\n'); end >= 0; end = log.indexOf('\n', start)) {
+            if (end > start + 1 && log.charAt(start) == ATTEMPT) {
+                countAttempt(log.substring(start + 1, end));
+            } else if (end > start) {
+                done.add(log.substring(start, end));
+            }
+            start = end + 1;
+        }
+    }
+
+    public boolean isDone(String key) {
+        return done.contains(key);
+    }
+
+    /** Failed attempts recorded for {@code key}, flushed or not. */
+    public int getAttempts(String key) {
+        Integer count = attempts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    public int size() {
+        return done.size();
+    }
+
+    /** Records {@code key}; it reaches the file on the next {@link #flush()}. */
+    public void markDone(String key) {
+        checkKey(key);
+        if (done.add(key)) {
+            unwritten.add(key);
+        }
+    }
+
+    /** Records one failed attempt at {@code key}, also written on the next {@link #flush()}. */
+    public void markAttempt(String key) {
+        checkKey(key);
+        countAttempt(key);
+        unwritten.add(ATTEMPT + key);
+    }
+
+    private void countAttempt(String key) {
+        attempts.put(key, getAttempts(key) + 1);
+    }
+
+    private static void checkKey(String key) {
+        if (key.indexOf('\n') >= 0 || key.startsWith(String.valueOf(ATTEMPT))) {
+            throw new IllegalArgumentException("Key contains a newline or starts with a tab: " + key);
+        }
+    }
+
+    /** Writes the keys recorded since the last flush. */
+    public void flush() throws IOException {
+        if (unwritten.isEmpty()) return;
+        if (writer == null) {
+            writer = openForAppend(file);
+        }
+        for (int i = 0; i < unwritten.size(); i++) {
+            writer.write(unwritten.get(i));
+            writer.write('\n');
+        }
+        writer.flush();
+        unwritten.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Opens a line-oriented log for appending. A last line cut off mid-write
+     * is dropped first, so it can neither be read back as complete nor run
+     * into the next line.
+     */
+    static Writer openForAppend(File file) throws IOException {
+        if (file.exists()) {
+            try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                log.setLength(lineEnd(log));
+            }
+        }
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    /** Length of {@code log} up to and including its last newline. */
+    private static long lineEnd(RandomAccessFile log) throws IOException {
+        byte[] chunk = new byte[4096];
+        long end = log.length();
+        while (end > 0) {
+            int length = (int) Math.min(chunk.length, end);
+            log.seek(end - length);
+            log.readFully(chunk, 0, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk[i] == '\n') {
+                    return end - length + i + 1;
+                }
+            }
+            end -= length;
+        }
+        return 0;
+    }
+}
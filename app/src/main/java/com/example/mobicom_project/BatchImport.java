@@ -0,0 +1,282 @@
+package com.example.mobicom_project;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recognizes stored captures or picked gallery images in the background with
+ * a {@link BatchImporter}. Images are decoded subsampled to the
+ * {@link SizeSelector.Policy#ACCURATE} budget into pooled bitmaps. Each job
+ * keeps {@code <job>.jsonl} results and a {@code <job>.checkpoint} under the
+ * app's {@code batch} directory, so running the same job again resumes it.
+ * Every gallery pick is its own job, named after the picked documents.
+ * One import runs at a time; listener calls arrive on the main thread.
+ */
+public final class BatchImport {
+    public interface Listener {
+        void onProgress(int finished, int pending);
+
+        /** {@code report} is null if results could not be written. */
+        void onFinished(String job, BatchReport report, File results);
+    }
+
+    private static final String TAG = "BatchImport";
+    static final String JOB_CAPTURES = "captures";
+    static final String JOB_GALLERY_PREFIX = "gallery-";
+    /** Each worker holds one decoded image, up to 20 MB at the ACCURATE budget. */
+    static final int THREADS = 2;
+    static final int MAX_QUEUED = 4;
+    private static final SizeSelector.Policy DECODE_POLICY = SizeSelector.Policy.ACCURATE;
+
+    private static BatchImport running;
+
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorScheduler scheduler = new ExecutorScheduler("BatchImportThread");
+    private volatile BatchImporter<Decoded> importer;
+    private volatile Listener listener;
+    private volatile boolean cancelled;
+
+    private BatchImport() {
+    }
+
+    /** Starts {@code job} over {@code uris}, or returns null if an import is already running. */
+    public static synchronized BatchImport start(Context context, String job, List<Uri> uris, Listener listener) {
+        if (running != null) return null;
+        BatchImport batch = new BatchImport();
+        batch.listener = listener;
+        running = batch;
+        Context appContext = context.getApplicationContext();
+        List<String> keys = new ArrayList<>(uris.size());
+        for (Uri uri : uris) {
+            keys.add(uri.toString());
+        }
+        batch.scheduler.post(() -> batch.run(appContext, job, keys));
+        return batch;
+    }
+
+    public static synchronized BatchImport getRunning() {
+        return running;
+    }
+
+    /**
+     * Starts importing documents picked with {@code OpenMultipleDocuments}.
+     * Read access is persisted first, so an import interrupted by the process
+     * dying can still read them when it is resumed; picking the same documents
+     * again resumes it. The grants are given back once the job completes.
+     */
+    public static BatchImport startGallery(Context context, List<Uri> uris, Listener listener) {
+        ContentResolver resolver = context.getContentResolver();
+        for (Uri uri : uris) {
+            try {
+                resolver.takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            } catch (SecurityException e) {
+                // still readable for as long as this process lives
+                Log.w(TAG, "startGallery: " + uri + " " + e);
+            }
+        }
+        return start(context, galleryJob(uris), uris, listener);
+    }
+
+    /** Job name from a 64-bit FNV-1a hash of the picked URIs, in any order. */
+    static String galleryJob(List<Uri> uris) {
+        List<String> keys = new ArrayList<>(uris.size());
+        for (Uri uri : uris) {
+            keys.add(uri.toString());
+        }
+        Collections.sort(keys);
+        long hash = 0xcbf29ce484222325L;
+        for (String key : keys) {
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ '\n') * 0x100000001b3L;
+        }
+        return JOB_GALLERY_PREFIX + Long.toHexString(hash);
+    }
+
+    /** Stored captures: the JPEGs CameraActivity saves in the app's external files directory, by name. */
+    public static List<Uri> listCaptures(Context context) {
+        List<Uri> uris = new ArrayList<>();
+        File[] files = context.getExternalFilesDir(null).listFiles((dir, name) -> name.endsWith(".jpg"));
+        if (files == null) return uris;
+        Arrays.sort(files);
+        for (File file : files) {
+            uris.add(Uri.fromFile(file));
+        }
+        return uris;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Stops after the images being recognized; running the job again continues from there. */
+    public void cancel() {
+        cancelled = true;
+        BatchImporter<Decoded> current = importer;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void run(Context context, String job, List<String> keys) {
+        File dir = new File(context.getExternalFilesDir(null), "batch");
+        File results = new File(dir, job + ".jsonl");
+        BatchReport report = null;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "run: cannot create " + dir);
+        } else {
+            try (BatchCheckpoint checkpoint = new BatchCheckpoint(new File(dir, job + ".checkpoint"));
+                 BatchResultWriter writer = new BatchResultWriter(results)) {
+                BatchImporter<Decoded> batch = new BatchImporter<>(new UriLoader(context.getContentResolver()),
+                        BatchImport::recognize, writer, checkpoint, THREADS, MAX_QUEUED);
+                batch.setProgress((finished, pending) -> uiHandler.post(() -> {
+                    Listener current = listener;
+                    if (current != null) current.onProgress(finished, pending);
+                }));
+                importer = batch;
+                if (cancelled) {
+                    batch.cancel();
+                }
+                report = batch.run(keys);
+                Log.i(TAG, "run: " + job + " " + report);
+                if (report.isComplete() && job.startsWith(JOB_GALLERY_PREFIX)) {
+                    releaseGrants(context.getContentResolver(), keys);
+                }
+            } catch (IOException | InterruptedException e) {
+                Log.e(TAG, "run: " + job, e);
+            }
+        }
+        final BatchReport finalReport = report;
+        synchronized (BatchImport.class) {
+            running = null;
+        }
+        scheduler.shutdown();
+        uiHandler.post(() -> {
+            Listener current = listener;
+            if (current != null) current.onFinished(job, finalReport, results);
+        });
+    }
+
+    private static void releaseGrants(ContentResolver resolver, List<String> keys) {
+        for (String key : keys) {
+            try {
+                resolver.releasePersistableUriPermission(Uri.parse(key), Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            } catch (SecurityException e) {
+                // never persisted
+            }
+        }
+    }
+
+    private static List<OcrBlock> recognize(Decoded image) throws Exception {
+        // the Korean model reads Latin text as well, like the tiled stills
+        InputImage input = InputImage.fromBitmap(image.bitmap, image.rotation);
+        return MLKitTextRecognition.toBlocks(
+                Tasks.await(RecognizerRegistry.getInstance().process(Script.KOREAN, input)), 0, 0);
+    }
+
+    /** A decoded image and the rotation that makes it upright. */
+    static final class Decoded {
+        final Bitmap bitmap;
+        final int rotation;
+
+        Decoded(Bitmap bitmap, int rotation) {
+            this.bitmap = bitmap;
+            this.rotation = rotation;
+        }
+    }
+
+    /** Decodes file and content URIs in two passes: bounds first, then subsampled into a pooled bitmap. */
+    static final class UriLoader implements BatchImporter.Loader<Decoded> {
+        private final ContentResolver resolver;
+        private final BitmapPool pool = BitmapPool.get();
+
+        UriLoader(ContentResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public Decoded load(String key) throws IOException {
+            Uri uri = Uri.parse(key);
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            decode(uri, bounds);
+            if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+                throw new IOException("Not an image: " + key);
+            }
+            int sampleSize = SizeSelector.sampleSizeFor(bounds.outWidth, bounds.outHeight, DECODE_POLICY);
+            BitmapFactory.Options options = pool.options(
+                    (bounds.outWidth + sampleSize - 1) / sampleSize, (bounds.outHeight + sampleSize - 1) / sampleSize);
+            options.inSampleSize = sampleSize;
+            Bitmap bitmap;
+            try {
+                bitmap = decode(uri, options);
+            } catch (IllegalArgumentException e) {
+                // the pooled bitmap didn't fit after all
+                pool.release(options.inBitmap);
+                options.inBitmap = null;
+                bitmap = decode(uri, options);
+            }
+            if (bitmap == null) {
+                throw new IOException("Could not decode " + key);
+            }
+            return new Decoded(bitmap, rotationOf(uri));
+        }
+
+        @Override
+        public void release(Decoded item) {
+            pool.release(item.bitmap);
+        }
+
+        private Bitmap decode(Uri uri, BitmapFactory.Options options) throws IOException {
+            try (InputStream in = open(uri)) {
+                return BitmapFactory.decodeStream(in, null, options);
+            }
+        }
+
+        private int rotationOf(Uri uri) {
+            try (InputStream in = open(uri)) {
+                switch (new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                    case ExifInterface.ORIENTATION_ROTATE_90:
+                        return 90;
+                    case ExifInterface.ORIENTATION_ROTATE_180:
+                        return 180;
+                    case ExifInterface.ORIENTATION_ROTATE_270:
+                        return 270;
+                    default:
+                        return 0;
+                }
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        private InputStream open(Uri uri) throws IOException {
+            InputStream in = resolver.openInputStream(uri);
+            if (in == null) {
+                throw new FileNotFoundException(uri.toString());
+            }
+            return in;
+        }
+    }
+}
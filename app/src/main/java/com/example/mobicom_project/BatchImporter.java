@@ -0,0 +1,218 @@
+package com.example.mobicom_project;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recognizes a list of stored images with a fixed number of worker threads.
+ * Each worker loads (decodes) one image, recognizes it and releases it, so at
+ * most {@code threads} decoded images exist at a time; the feeding thread
+ * blocks once {@code maxQueued} items are waiting, so a list of thousands
+ * doesn't turn into thousands of queued tasks. Results go to the
+ * {@link Sink} as they complete, in completion order, and each finished key
+ * is recorded in the {@link BatchCheckpoint}. Sink and checkpoint are flushed
+ * together every {@code checkpointEvery} items, results first, so a resumed
+ * run may repeat a few items but never skips one. An image that can't be
+ * loaded is finished as failed; one whose recognition fails is left for the
+ * next run, since that can be a passing condition like a model download,
+ * until it has failed {@code maxAttempts} times over all runs.
+ */
+public class BatchImporter<T> {
+    public interface Loader<T> {
+        /** Throws IOException for an item that can never be read, which is then recorded as failed. */
+        T load(String key) throws IOException;
+
+        void release(T item);
+    }
+
+    /**
+     * Called on a worker thread; may block until recognition is done. Throwing
+     * leaves the item pending for the next run, or fails it once it has used
+     * up its attempts.
+     */
+    public interface Recognizer<T> {
+        List<OcrBlock> recognize(T item) throws Exception;
+    }
+
+    /** Receives results one at a time, never concurrently. */
+    public interface Sink {
+        void onResult(String key, List<OcrBlock> blocks) throws IOException;
+
+        /**
+         * The item couldn't be loaded, or recognizing it failed on every
+         * attempt, and is recorded as done anyway; retrying wouldn't help.
+         */
+        void onFailed(String key, Exception error) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    public interface Progress {
+        /** {@code pending} excludes the keys the checkpoint already listed. */
+        void onProgress(int finished, int pending);
+    }
+
+    static final int DEFAULT_CHECKPOINT_EVERY = 20;
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private final Loader<T> loader;
+    private final Recognizer<T> recognizer;
+    private final Sink sink;
+    private final BatchCheckpoint checkpoint;
+    private final int threads;
+    private final int maxQueued;
+    private int checkpointEvery = DEFAULT_CHECKPOINT_EVERY;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Progress progress;
+    private volatile boolean cancelled;
+
+    private final Object lock = new Object();
+    private int succeeded;
+    private int failed;
+    private int retry;
+    private IOException writeError;
+
+    public BatchImporter(Loader<T> loader, Recognizer<T> recognizer, Sink sink, BatchCheckpoint checkpoint,
+                         int threads, int maxQueued) {
+        this.loader = loader;
+        this.recognizer = recognizer;
+        this.sink = sink;
+        this.checkpoint = checkpoint;
+        this.threads = threads;
+        this.maxQueued = maxQueued;
+    }
+
+    public void setCheckpointEvery(int items) {
+        checkpointEvery = Math.max(1, items);
+    }
+
+    /** Recognition attempts, counted over all runs, before an item is recorded as failed. */
+    public void setMaxAttempts(int attempts) {
+        maxAttempts = Math.max(1, attempts);
+    }
+
+    /** Called after each item, from the thread that finished it. */
+    public void setProgress(Progress progress) {
+        this.progress = progress;
+    }
+
+    /** Stops feeding new items; items already being recognized still finish and are recorded. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Processes every key the checkpoint doesn't list yet and blocks until
+     * they are all done or the run is cancelled. Throws if results could not
+     * be written; everything recorded until then stays valid.
+     */
+    public BatchReport run(List<String> keys) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        int skipped = 0;
+        for (String key : keys) {
+            if (checkpoint.isDone(key)) skipped++;
+        }
+        final int pending = keys.size() - skipped;
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "BatchThread-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore slots = new Semaphore(threads + maxQueued);
+        try {
+            for (String key : keys) {
+                if (checkpoint.isDone(key)) continue;
+                slots.acquire();
+                if (cancelled) {
+                    slots.release();
+                    break;
+                }
+                workers.execute(() -> {
+                    try {
+                        process(key, pending);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        synchronized (lock) {
+            if (writeError == null) {
+                flush();
+            }
+            if (writeError != null) {
+                throw writeError;
+            }
+            return new BatchReport(keys.size(), skipped, succeeded, failed, retry, cancelled, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void process(String key, int pending) {
+        List<OcrBlock> blocks = null;
+        IOException loadError = null;
+        Exception error = null;
+        T item = null;
+        try {
+            item = loader.load(key);
+            blocks = recognizer.recognize(item);
+        } catch (IOException e) {
+            if (item == null) {
+                loadError = e;
+            } else {
+                error = e;
+            }
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            if (item != null) {
+                loader.release(item);
+            }
+        }
+        int finished;
+        synchronized (lock) {
+            if (writeError != null) return;
+            try {
+                if (error != null && checkpoint.getAttempts(key) + 1 < maxAttempts) {
+                    checkpoint.markAttempt(key);
+                    retry++;
+                } else if (error != null || loadError != null) {
+                    sink.onFailed(key, error != null ? error : loadError);
+                    failed++;
+                    checkpoint.markDone(key);
+                } else {
+                    sink.onResult(key, blocks);
+                    succeeded++;
+                    checkpoint.markDone(key);
+                }
+                finished = succeeded + failed + retry;
+                if (finished % checkpointEvery == 0) {
+                    flush();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                writeError = e;
+                cancelled = true;
+                return;
+            }
+        }
+        Progress listener = progress;
+        if (listener != null) {
+            listener.onProgress(finished, pending);
+        }
+    }
+
+    /** Results before the checkpoint, so a listed key always has its result on disk. */
+    private void flush() throws IOException {
+        sink.flush();
+        checkpoint.flush();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.mobicom_project;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Outcome and throughput of one {@link BatchImporter} run. */
+public final class BatchReport {
+    public final int total;
+    /** Already done according to the checkpoint of an earlier run. */
+    public final int skipped;
+    public final int succeeded;
+    public final int failed;
+    /** Not recognized this time and left for the next run. */
+    public final int retry;
+    public final boolean cancelled;
+    public final long elapsedNanos;
+
+    BatchReport(int total, int skipped, int succeeded, int failed, int retry, boolean cancelled, long elapsedNanos) {
+        this.total = total;
+        this.skipped = skipped;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.retry = retry;
+        this.cancelled = cancelled;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Images processed in this run per second of wall time, failures included. */
+    public double getImagesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : (succeeded + failed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public boolean isComplete() {
+        return skipped + succeeded + failed == total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "images=%d skipped=%d recognized=%d failed=%d retry=%d%s%n"
+                        + "throughput=%.2f images/s over %.1f s",
+                total, skipped, succeeded, failed, retry, cancelled ? " (cancelled)" : "",
+                getImagesPerSecond(), elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+}
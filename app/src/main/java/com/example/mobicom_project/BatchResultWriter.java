@@ -0,0 +1,109 @@
+package com.example.mobicom_project;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams batch results to a JSON Lines file, one object per image, so
+ * nothing is kept in memory:
+ * <pre>
+ * {"key":"...","text":"...","blocks":[{"box":[l,t,r,b],"text":"..."}]}
+ * {"key":"...","error":"..."}
+ * </pre>
+ * The file is appended to across resumed runs; an item repeated after a crash
+ * appears twice and the later line wins.
+ */
+public class BatchResultWriter implements BatchImporter.Sink, Closeable {
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder();
+
+    public BatchResultWriter(File file) throws IOException {
+        writer = BatchCheckpoint.openForAppend(file);
+    }
+
+    @Override
+    public void onResult(String key, List<OcrBlock> blocks) throws IOException {
+        line.setLength(0);
+        line.append("{\"key\":");
+        quote(key, line);
+        line.append(",\"text\":");
+        StringBuilder text = new StringBuilder();
+        for (OcrBlock block : blocks) {
+            if (text.length() > 0) text.append('\n');
+            text.append(block.getText());
+        }
+        quote(text, line);
+        line.append(",\"blocks\":[");
+        for (int i = 0; i < blocks.size(); i++) {
+            OcrBlock block = blocks.get(i);
+            if (i > 0) line.append(',');
+            line.append("{\"box\":[");
+            Box box = block.bounds;
+            if (box != null) {
+                line.append(box.left).append(',').append(box.top).append(',')
+                        .append(box.right).append(',').append(box.bottom);
+            }
+            line.append("],\"text\":");
+            quote(block.getText(), line);
+            line.append('}');
+        }
+        line.append("]}\n");
+        writer.append(line);
+    }
+
+    @Override
+    public void onFailed(String key, Exception error) throws IOException {
+        line.setLength(0);
+        line.append("{\"key\":");
+        quote(key, line);
+        line.append(",\"error\":");
+        quote(String.valueOf(error), line);
+        line.append("}\n");
+        writer.append(line);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static void quote(CharSequence value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
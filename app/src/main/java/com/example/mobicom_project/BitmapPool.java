@@ -0,0 +1,69 @@
+package com.example.mobicom_project;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+/**
+ * Process-wide pool of mutable ARGB bitmaps used as {@code inBitmap} for the
+ * JPEG decodes on the OCR path (region crops, hash thumbnails, tiles). Since
+ * API 19 any pooled bitmap with enough bytes can be reconfigured for a decode,
+ * so bitmaps are pooled by byte size alone.
+ */
+public final class BitmapPool {
+    static final long DEFAULT_MAX_BYTES = 24L * 1024 * 1024;
+
+    private static final BitmapPool INSTANCE = new BitmapPool(DEFAULT_MAX_BYTES);
+
+    private final SizeClassPool<Bitmap> pool;
+
+    BitmapPool(long maxBytes) {
+        pool = new SizeClassPool<>(maxBytes, Bitmap::getAllocationByteCount, Bitmap::recycle);
+    }
+
+    public static BitmapPool get() {
+        return INSTANCE;
+    }
+
+    /** Decode options that reuse a pooled bitmap for a {@code width} x {@code height} result if there is one. */
+    public BitmapFactory.Options options(int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = pool.acquire(width * height * 4);
+        return options;
+    }
+
+    /**
+     * Decodes a region into a pooled bitmap, falling back to a fresh one if the
+     * decoder refuses it. Unlike BitmapFactory, the region decoder keeps the
+     * reused bitmap's dimensions, so it is reconfigured to the region first.
+     */
+    public Bitmap decodeRegion(BitmapRegionDecoder decoder, Rect region, int sampleSize) {
+        int width = (region.width() + sampleSize - 1) / sampleSize;
+        int height = (region.height() + sampleSize - 1) / sampleSize;
+        BitmapFactory.Options options = options(width, height);
+        options.inSampleSize = sampleSize;
+        try {
+            if (options.inBitmap != null) {
+                options.inBitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+            }
+            return decoder.decodeRegion(region, options);
+        } catch (IllegalArgumentException e) {
+            release(options.inBitmap);
+            options.inBitmap = null;
+            return decoder.decodeRegion(region, options);
+        }
+    }
+
+    public void release(Bitmap bitmap) {
+        if (bitmap != null && bitmap.isMutable() && !bitmap.isRecycled()) {
+            pool.release(bitmap);
+        }
+    }
+
+    public SizeClassPool<Bitmap> getPool() {
+        return pool;
+    }
+}
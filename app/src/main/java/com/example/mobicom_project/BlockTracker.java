@@ -0,0 +1,116 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Gives text blocks stable ids across frames by matching each new block to
+ * the previous frame's block it overlaps most (intersection over union), and
+ * smooths flickering lines: a line read with less than {@code minConfidence}
+ * keeps the previous frame's reading of the same line if that one was more
+ * confident. Not thread safe; call from one thread.
+ */
+public class BlockTracker {
+    private final float minIou;
+    private final float minConfidence;
+    private List<OcrBlock> previous = new ArrayList<>();
+    private int nextId;
+    private long mergedLines;
+
+    public BlockTracker(float minIou, float minConfidence) {
+        this.minIou = minIou;
+        this.minConfidence = minConfidence;
+    }
+
+    /**
+     * Assigns ids to {@code frame} in place, replacing unreliable lines, and
+     * returns it. The blocks become the reference for the next call.
+     */
+    public List<OcrBlock> update(List<OcrBlock> frame) {
+        int n = frame.size();
+        int m = previous.size();
+        int[] match = new int[n];
+        Arrays.fill(match, -1);
+        // greedy matching, best overlap first. Candidates are packed as (iou
+        // bits, inverted new index, inverted old index), so one sort orders
+        // them by overlap and, on ties, by the lowest indices; block counts
+        // are far below the 16 bits each index gets.
+        long[] candidates = new long[n * m];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                float iou = iou(frame.get(i).bounds, previous.get(j).bounds);
+                if (iou >= minIou && iou > 0f) {
+                    candidates[count++] = ((long) Float.floatToIntBits(iou) << 32) | ((long) (0xFFFF - i) << 16) | (0xFFFF - j);
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+        boolean[] taken = new boolean[m];
+        for (int k = count - 1; k >= 0; k--) {
+            int i = 0xFFFF - ((int) (candidates[k] >>> 16) & 0xFFFF);
+            int j = 0xFFFF - ((int) candidates[k] & 0xFFFF);
+            if (match[i] < 0 && !taken[j]) {
+                match[i] = j;
+                taken[j] = true;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            OcrBlock block = frame.get(i);
+            if (match[i] < 0) {
+                block.id = nextId++;
+            } else {
+                OcrBlock old = previous.get(match[i]);
+                block.id = old.id;
+                mergeLines(block, old);
+            }
+        }
+        previous = frame;
+        return frame;
+    }
+
+    private void mergeLines(OcrBlock block, OcrBlock old) {
+        for (int i = 0; i < block.lines.size(); i++) {
+            OcrBlock.Line line = block.lines.get(i);
+            if (line.confidence >= minConfidence) continue;
+            OcrBlock.Line before = bestOverlap(line.bounds, old.lines);
+            if (before != null && before.confidence > line.confidence && !before.text.equals(line.text)) {
+                block.setLine(i, new OcrBlock.Line(before.text, before.confidence, line.bounds));
+                mergedLines++;
+            }
+        }
+    }
+
+    private OcrBlock.Line bestOverlap(Box bounds, List<OcrBlock.Line> lines) {
+        OcrBlock.Line best = null;
+        float bestIou = minIou;
+        for (OcrBlock.Line line : lines) {
+            float iou = iou(bounds, line.bounds);
+            if (iou >= bestIou) {
+                best = line;
+                bestIou = iou;
+            }
+        }
+        return best;
+    }
+
+    /** Number of lines replaced by an earlier, more confident reading. */
+    public long getMergedLines() {
+        return mergedLines;
+    }
+
+    public void reset() {
+        previous = new ArrayList<>();
+    }
+
+    static float iou(Box a, Box b) {
+        if (a == null || b == null) return 0f;
+        long w = Math.min(a.right, b.right) - Math.max(a.left, b.left);
+        long h = Math.min(a.bottom, b.bottom) - Math.max(a.top, b.top);
+        if (w <= 0 || h <= 0) return 0f;
+        long intersection = w * h;
+        long union = (long) a.width() * a.height() + (long) b.width() * b.height() - intersection;
+        return union <= 0 ? 0f : (float) intersection / union;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mobicom_project;
+
+/**
+ * Mutable integer rectangle, used instead of {@code android.graphics.Rect} in
+ * code that has to run on the JVM. Right and bottom are exclusive.
+ */
+public final class Box {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Box() {
+    }
+
+    public Box(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public Box set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        return this;
+    }
+
+    public Box set(Box other) {
+        return set(other.left, other.top, other.right, other.bottom);
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    /** Clips this box to the given bounds; the result may be empty. */
+    public Box clamp(int minLeft, int minTop, int maxRight, int maxBottom) {
+        left = Math.max(minLeft, Math.min(left, maxRight));
+        top = Math.max(minTop, Math.min(top, maxBottom));
+        right = Math.max(left, Math.min(right, maxRight));
+        bottom = Math.max(top, Math.min(bottom, maxBottom));
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Box)) return false;
+        Box box = (Box) o;
+        return left == box.left && top == box.top && right == box.right && bottom == box.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = left;
+        result = 31 * result + top;
+        result = 31 * result + right;
+        result = 31 * result + bottom;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Box(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+    }
+}
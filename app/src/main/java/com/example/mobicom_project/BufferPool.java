@@ -0,0 +1,43 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Process-wide pool of direct buffers for frame-sized copies (NV21 crops,
+ * replayed frames). Borrowed buffers come back cleared with the limit set to
+ * the requested size.
+ */
+public final class BufferPool {
+    static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final BufferPool INSTANCE = new BufferPool(DEFAULT_MAX_BYTES);
+
+    private final SizeClassPool<ByteBuffer> pool;
+
+    BufferPool(long maxBytes) {
+        pool = new SizeClassPool<>(maxBytes, ByteBuffer::capacity, null);
+    }
+
+    public static BufferPool get() {
+        return INSTANCE;
+    }
+
+    public ByteBuffer acquire(int size) {
+        ByteBuffer buffer = pool.acquire(size);
+        if (buffer == null) {
+            // allocate the whole size class so the buffer can serve any request in it
+            buffer = ByteBuffer.allocateDirect(1 << SizeClassPool.ceilClass(size));
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+
+    public SizeClassPool<ByteBuffer> getPool() {
+        return pool;
+    }
+}
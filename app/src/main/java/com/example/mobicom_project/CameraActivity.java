@@ -1,15 +1,21 @@
 package com.example.mobicom_project;
 
 import android.Manifest;
+import android.app.ActivityManager;
 import android.content.pm.PackageManager;
 import android.graphics.ImageFormat;
+import android.graphics.Matrix;
 import android.graphics.Rect;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.*;
 import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.Image;
 import android.media.ImageReader;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
 import android.text.method.ScrollingMovementMethod;
 import android.util.Log;
 import android.util.Size;
@@ -18,58 +24,136 @@ import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 import android.view.Surface;
 import android.view.TextureView;
+import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.google.mlkit.vision.common.InputImage;
+import com.google.android.gms.tasks.Task;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CameraActivity extends AppCompatActivity {
 
     private TextureView textureView;
     private Button captureButton;
+    private Button liveButton;
     private TextView textView3;
 
     private CameraManager cameraManager;
-    private CameraDevice cameraDevice;
+    private String cameraId;
+    private CameraLifecycle cameraLifecycle;
+    private volatile CameraDevice cameraDevice;
     private CaptureRequest.Builder captureRequestBuilder;
-    private CameraCaptureSession cameraCaptureSessions;
-    private Size imageDimension;
+    private volatile CameraCaptureSession cameraCaptureSessions;
+    private CameraThreads cameraThreads;
+    private CaptureStore captureStore;
+    private final PerfMetrics metrics = PerfMetrics.get();
+    private volatile long captureRequestedNanos;
+    private TextView perfHud;
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final StringBuilder hudText = new StringBuilder();
+    private volatile Size imageDimension;
+    private final float[] previewValues = new float[9];
+    private final Matrix previewMatrix = new Matrix();
     private ScaleGestureDetector scaleGestureDetector;
     private MLKitTextRecognition textRecognizer;
+    private FramePipeline livePipeline;
     private ImageView capturedView;
-    private float currentZoomLevel = 1f;
-    private float maximumZoomLevel;
-    private boolean isZooming = false;
-    private long lastZoomTime = 0;
-    private Rect currentZoomRect;
-    private boolean isInCaptured = false;
-    private static final long ZOOM_INTERVAL = 100;
+    private OverlayView canvasView;
+    private final int[] canvasLocation = new int[2];
+    private boolean isSelectingRoi = false;
+    private float roiStartX;
+    private float roiStartY;
+    private volatile ZoomController zoomController;
+    private volatile boolean isInCaptured = false;
+    private int sensorOrientation;
+    private ImageReader analysisReader;
+    private FrameSource analysisSource;
+    private ExecutorScheduler replayScheduler;
+    private ImageReader stillReader;
+    private Surface previewSurface;
+    private volatile SurfaceTexture previewTexture;
+    private long launchNanos;
+    private boolean warmStart;
+    private volatile boolean isLive = false;
+    private final FrameThrottler frameThrottler = new FrameThrottler(LIVE_ANALYSIS_FPS);
+    private final MotionEstimator motionEstimator = new MotionEstimator();
+    /**
+     * Set whenever live analysis starts or resumes, so the first frame isn't
+     * compared with one from before the gap. The estimator itself belongs to
+     * the analysis thread, which does the reset.
+     */
+    private volatile boolean motionStale = true;
+    private final InferencePolicy inferencePolicy = new InferencePolicy(MOTION_THRESHOLD, SETTLE_FRAMES, MAX_FOCUS_WAIT_FRAMES);
+    private PowerManager.OnThermalStatusChangedListener thermalListener;
+    private static final float MIN_ROI_DRAG = 48f;
+    private static final long HUD_REFRESH_MS = 500;
+    private static final float LIVE_ANALYSIS_FPS = 4f;
+    /** Mean luma change per grid cell (0-255) above which the camera counts as moving. */
+    private static final float MOTION_THRESHOLD = 10f;
+    private static final int SETTLE_FRAMES = 2;
+    private static final int MAX_FOCUS_WAIT_FRAMES = 15;
+    private static final SizeSelector.Policy ANALYSIS_POLICY = SizeSelector.Policy.FAST;
+    private static final SizeSelector.Policy STILL_POLICY = SizeSelector.Policy.ACCURATE;
+    private static final int MAX_PENDING_WRITES = 2;
     private final String TAG = "CameraActivity";
+    /** Directory of recorded frames to analyse instead of the camera stream; see {@link ReplayFrameSource}. */
+    static final String EXTRA_REPLAY_DIR = "replay_dir";
+    static final String EXTRA_REPLAY_FPS = "replay_fps";
+    private static final float DEFAULT_REPLAY_FPS = 15f;
+    /** {@link PerfMetrics#now()} when the camera screen was asked for, to time the first result from. */
+    static final String EXTRA_LAUNCH_NANOS = "launch_nanos";
+    /** Whether {@link WarmUp} had finished loading the recognizer by then. */
+    static final String EXTRA_WARM_START = "warm_start";
+    /** Runs camera and replayed frames through {@link LumaPreprocessor} with its default config. */
+    static final String EXTRA_PREPROCESS = "preprocess";
+    /** Name of the {@link Script} to recognize; detected per page when absent. */
+    static final String EXTRA_SCRIPT = "script";
+    /** False recognizes large stills in one pass instead of tile by tile. */
+    static final String EXTRA_TILED_STILLS = "tiled_stills";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        launchNanos = getIntent().getLongExtra(EXTRA_LAUNCH_NANOS, PerfMetrics.now());
+        warmStart = getIntent().getBooleanExtra(EXTRA_WARM_START, WarmUp.get().isRecognizerReady());
+        cameraThreads = new CameraThreads();
+        cameraLifecycle = new CameraLifecycle(cameraThreads.getCameraScheduler(), cameraDevicePort, metrics);
+        captureStore = new CaptureStore(cameraThreads.getIoScheduler(), MAX_PENDING_WRITES);
+        ActivityManager activityManager = (ActivityManager) getSystemService(ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.isLowRamDevice()) {
+            BufferPool.get().getPool().setMaxBytes(BufferPool.DEFAULT_MAX_BYTES / 2);
+            BitmapPool.get().getPool().setMaxBytes(BitmapPool.DEFAULT_MAX_BYTES / 2);
+        }
+        // open the camera while the layout inflates; the session follows once the preview surface exists
+        boolean hasCameraPermission = ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED;
+        if (hasCameraPermission) {
+            cameraLifecycle.resume();
+        }
         setContentView(R.layout.activity_camera);
 
         textureView = findViewById(R.id.textureView);
         captureButton = findViewById(R.id.captureButton);
+        liveButton = findViewById(R.id.liveButton);
         textView3 = findViewById(R.id.textView3);
         textView3.setMovementMethod(new ScrollingMovementMethod());
 
@@ -78,7 +162,7 @@ public class CameraActivity extends AppCompatActivity {
         captureButton.setOnClickListener(v -> {
             if (isInCaptured) {
                 textRecognizer.clearBoundingBox();
-                createCameraPreview();
+                resumePreview();
                 captureButton.setText(R.string.capture);
                 isInCaptured = false;
             } else {
@@ -87,109 +171,291 @@ public class CameraActivity extends AppCompatActivity {
                 isInCaptured = true;
             }
         });
+        perfHud = findViewById(R.id.perfHud);
+        Button hudButton = findViewById(R.id.hudButton);
+        hudButton.setOnClickListener(v -> setHudVisible(perfHud.getVisibility() != View.VISIBLE));
+        hudButton.setOnLongClickListener(v -> {
+            exportMetrics();
+            return true;
+        });
+        liveButton.setOnClickListener(v -> {
+            setLiveMode(!isLive);
+            liveButton.setText(isLive ? R.string.stop_live : R.string.live);
+        });
 
         scaleGestureDetector = new ScaleGestureDetector(this, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
             @Override
             public boolean onScale(@NonNull ScaleGestureDetector detector) {
-                float scale = detector.getScaleFactor();
-                currentZoomLevel = Math.max(1f, Math.min(currentZoomLevel * scale, maximumZoomLevel));
-                applyZoom();
+                ZoomController zoom = zoomController;
+                if (zoom != null && !isInCaptured) {
+                    zoom.scaleBy(detector.getScaleFactor());
+                }
                 return true;
             }
         });
 
-        ImageView canvasView = findViewById(R.id.canvasView);
+        canvasView = findViewById(R.id.canvasView);
         capturedView = findViewById(R.id.capturedView);
         textRecognizer = new MLKitTextRecognition(canvasView, capturedView, textView3);
+        String script = getIntent().getStringExtra(EXTRA_SCRIPT);
+        if (script != null) {
+            try {
+                textRecognizer.setScript(Script.valueOf(script.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "onCreate: unknown script " + script);
+            }
+        }
+        textRecognizer.setTiledStills(getIntent().getBooleanExtra(EXTRA_TILED_STILLS, true));
+        if (getIntent().getBooleanExtra(EXTRA_PREPROCESS, false)) {
+            textRecognizer.setPreprocessing(LumaPreprocessor.Config.DEFAULT);
+        }
+        livePipeline = textRecognizer.createLivePipeline(frameThrottler, this::recordFirstResult);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            registerThermalListener();
+        }
+        String replayDir = getIntent().getStringExtra(EXTRA_REPLAY_DIR);
+        if (replayDir != null) {
+            startReplay(new File(replayDir), getIntent().getFloatExtra(EXTRA_REPLAY_FPS, DEFAULT_REPLAY_FPS));
+        }
 
-        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+        if (!hasCameraPermission) {
             ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, 200);
-        } else {
-            openCamera();
+        }
+    }
+
+    private void setHudVisible(boolean visible) {
+        perfHud.setVisibility(visible ? View.VISIBLE : View.GONE);
+        uiHandler.removeCallbacks(hudUpdater);
+        if (visible) {
+            uiHandler.post(hudUpdater);
+        }
+    }
+
+    private final Runnable hudUpdater = new Runnable() {
+        @Override
+        public void run() {
+            hudText.setLength(0);
+            metrics.appendReport(hudText);
+            BufferPool.get().getPool().appendStats(hudText, "buffers");
+            BitmapPool.get().getPool().appendStats(hudText, "bitmaps");
+            perfHud.setText(hudText);
+            uiHandler.postDelayed(this, HUD_REFRESH_MS);
+        }
+    };
+
+    /** Writes the current metrics report next to the captures. */
+    private void exportMetrics() {
+        StringBuilder report = new StringBuilder();
+        metrics.appendReport(report);
+        final File file = new File(getExternalFilesDir(null), "perf-" + System.currentTimeMillis() + ".txt");
+        cameraThreads.getIoScheduler().post(() -> {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                writer.write(report.toString());
+                runOnUiThread(() -> Toast.makeText(this, getString(R.string.metrics_exported, file.getName()), Toast.LENGTH_SHORT).show());
+            } catch (IOException e) {
+                Log.e(TAG, "exportMetrics: ", e);
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // a no-op right after onCreate, which has started opening already
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED) {
+            cameraLifecycle.resume();
+        }
+        motionStale = true;
+    }
+
+    /**
+     * Hands the camera back while we are in the background. The device and
+     * session are closed on the camera thread; readers, zoom and the preview
+     * surface are kept, so resuming only reopens the device and the session.
+     */
+    @Override
+    protected void onPause() {
+        cameraLifecycle.pause();
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        uiHandler.removeCallbacks(hudUpdater);
+        if (analysisSource != null) {
+            analysisSource.stop();
+        }
+        if (thermalListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            ((PowerManager) getSystemService(POWER_SERVICE)).removeThermalStatusListener(thermalListener);
+        }
+        if (replayScheduler != null) {
+            replayScheduler.shutdown();
+        }
+        // a device still opening is closed from onOpened, so the readers and threads wait for it
+        cameraLifecycle.destroy(() -> {
+            if (analysisReader != null) {
+                analysisReader.close();
+                analysisReader = null;
+            }
+            if (stillReader != null) {
+                stillReader.close();
+                stillReader = null;
+            }
+            cameraThreads.quit();
+        });
+        textRecognizer.close();
+        super.onDestroy();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // recognizer models are large; drop them once we are hidden, never while live OCR is on screen
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            RecognizerRegistry.getInstance().closeAll();
+        }
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            BufferPool.get().getPool().clear();
+            BitmapPool.get().getPool().clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            SizeClassPool<?> buffers = BufferPool.get().getPool();
+            buffers.trimTo(buffers.getMaxBytes() / 2);
+            SizeClassPool<?> bitmaps = BitmapPool.get().getPool();
+            bitmaps.trimTo(bitmaps.getMaxBytes() / 2);
         }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         scaleGestureDetector.onTouchEvent(event);
+        if (event.getPointerCount() == 1 && !scaleGestureDetector.isInProgress()) {
+            trackRoiGesture(event);
+        } else {
+            isSelectingRoi = false;
+        }
         return true;
     }
 
+    /**
+     * A one-finger drag over the preview selects the region to recognize; a
+     * tap clears it so the whole frame is recognized again.
+     */
+    private void trackRoiGesture(MotionEvent event) {
+        canvasView.getLocationOnScreen(canvasLocation);
+        float x = event.getRawX() - canvasLocation[0];
+        float y = event.getRawY() - canvasLocation[1];
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                isSelectingRoi = true;
+                roiStartX = x;
+                roiStartY = y;
+                break;
+            case MotionEvent.ACTION_UP:
+                if (!isSelectingRoi) break;
+                isSelectingRoi = false;
+                if (Math.abs(x - roiStartX) < MIN_ROI_DRAG || Math.abs(y - roiStartY) < MIN_ROI_DRAG) {
+                    textRecognizer.setRegionOfInterest(null);
+                    break;
+                }
+                Box roi = new Box((int) Math.min(x, roiStartX), (int) Math.min(y, roiStartY),
+                        (int) Math.max(x, roiStartX), (int) Math.max(y, roiStartY))
+                        .clamp(0, 0, canvasView.getWidth(), canvasView.getHeight());
+                textRecognizer.setRegionOfInterest(roi.isEmpty() ? null : roi);
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                isSelectingRoi = false;
+                break;
+        }
+    }
+
     private final TextureView.SurfaceTextureListener textureListener = new TextureView.SurfaceTextureListener() {
         @Override
         public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surface, int width, int height) {
-            openCamera();
+            previewTexture = surface;
+            applyPreviewTransform(width, height);
+            cameraLifecycle.onSurfaceAvailable();
         }
 
         @Override
         public void onSurfaceTextureSizeChanged(@NonNull SurfaceTexture surface, int width, int height) {
-            // Transform you image captured size according to the surface width and height
+            applyPreviewTransform(width, height);
         }
 
+        /** The session is closed on the camera thread first; only then is the texture released. */
         @Override
         public boolean onSurfaceTextureDestroyed(@NonNull SurfaceTexture surface) {
+            previewTexture = null;
+            cameraLifecycle.onSurfaceDestroyed(surface::release);
             return false;
         }
 
         @Override
         public void onSurfaceTextureUpdated(@NonNull SurfaceTexture surface) {
+            cameraLifecycle.onPreviewFrame();
         }
     };
 
+    /** Keeps the preview upright and filling the view for the current display rotation. UI thread. */
+    private void applyPreviewTransform(int viewW, int viewH) {
+        if (viewW == 0 || viewH == 0) return;
+        int rotation = getWindowManager().getDefaultDisplay().getRotation() * 90;
+        previewMatrix.setValues(PreviewTransform.compute(viewW, viewH, rotation, previewValues));
+        textureView.setTransform(previewMatrix);
+    }
+
+    /**
+     * Camera thread: opens the device, reading the camera's characteristics
+     * and creating the readers and zoom controller the first time only.
+     */
     private void openCamera() {
-        cameraManager = (CameraManager) getSystemService(CAMERA_SERVICE);
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            cameraLifecycle.onClosed();
+            return;
+        }
         try {
-            Log.i(TAG, "openCamera: " + Arrays.toString(cameraManager.getCameraIdList()));
-            String cameraId = cameraManager.getCameraIdList()[0];
-            CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraId);
-            StreamConfigurationMap map = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
-            imageDimension = map.getOutputSizes(SurfaceTexture.class)[0];
-            maximumZoomLevel = characteristics.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM);
-            // Check camera permission
-            if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
-                ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, 200);
-                return;
+            if (cameraId == null) {
+                setUpCamera();
             }
-            cameraManager.openCamera(cameraId, stateCallback, null);
-        } catch (CameraAccessException e) {
+            cameraManager.openCamera(cameraId, stateCallback, cameraThreads.getCameraHandler());
+        } catch (CameraAccessException | SecurityException e) {
             e.printStackTrace();
+            cameraLifecycle.onClosed();
         }
     }
 
-    private void applyZoom() {
-        // relieve stalling
-        if (isZooming || isInCaptured) return;
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastZoomTime < ZOOM_INTERVAL) return;
-        isZooming = true;
-        lastZoomTime = currentTime;
-
-        CameraCharacteristics characteristics;
-        try {
-            characteristics = cameraManager.getCameraCharacteristics(cameraDevice.getId());
-            Rect m = Objects.requireNonNull(characteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE));
-            Log.i(TAG, "applyZoom: sensor Array = " + m);
-
-            int newWidth = (int) (m.width() / currentZoomLevel);
-            int newHeight = (int) (m.height() / currentZoomLevel);
-            int leftOffset = (m.width() - newWidth) / 2;
-            int topOffset = (m.height() - newHeight) / 2;
-            currentZoomRect = new Rect(leftOffset, topOffset, leftOffset + newWidth, topOffset + newHeight);
-            Log.i(TAG, "applyZoom: currentZoomLevel = " + currentZoomLevel);
-            Log.i(TAG, "applyZoom: currentZoomRect = " + currentZoomRect);
-            captureRequestBuilder.set(CaptureRequest.SCALER_CROP_REGION, currentZoomRect);
-            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(),
-                    new CameraCaptureSession.CaptureCallback() {
-                        @Override
-                        public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
-                            super.onCaptureCompleted(session, request, result);
-                            isZooming = false;
-                        }
-                    }, null);
-        } catch (CameraAccessException e) {
-            e.printStackTrace();
-            isZooming = false;
+    private void setUpCamera() throws CameraAccessException {
+        cameraManager = (CameraManager) getSystemService(CAMERA_SERVICE);
+        // MainActivity's warm-up has usually resolved the camera already
+        String cameraId = WarmUp.get().getCameraId();
+        CameraCharacteristics characteristics = WarmUp.get().getCharacteristics();
+        if (cameraId == null || characteristics == null) {
+            Log.i(TAG, "openCamera: " + Arrays.toString(cameraManager.getCameraIdList()));
+            cameraId = cameraManager.getCameraIdList()[0];
+            characteristics = cameraManager.getCameraCharacteristics(cameraId);
+        }
+        StreamConfigurationMap map = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+        float initialZoom = zoomController != null ? zoomController.getZoom() : 1f;
+        zoomController = new ZoomController(characteristics, cameraThreads.getCameraScheduler(), cameraThreads.getCameraHandler(), initialZoom);
+        zoomController.setFrameListener(result -> inferencePolicy.setFocus(toFocus(result.get(CaptureResult.CONTROL_AF_STATE))));
+        sensorOrientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+        Rect activeArray = Objects.requireNonNull(characteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE));
+        float aspect = (float) activeArray.width() / activeArray.height();
+        imageDimension = choosePreviewSize(map.getOutputSizes(SurfaceTexture.class), aspect);
+        if (analysisReader == null) {
+            Size analysisSize = chooseOcrSize(map.getOutputSizes(ImageFormat.YUV_420_888), aspect, ANALYSIS_POLICY);
+            analysisReader = ImageReader.newInstance(analysisSize.getWidth(), analysisSize.getHeight(), ImageFormat.YUV_420_888, 2);
+            if (analysisSource == null) {
+                analysisSource = new CameraFrameSource(analysisReader, cameraThreads.getImageHandler());
+                analysisSource.start(analysisListener);
+            }
+        }
+        if (stillReader == null) {
+            Size stillSize = chooseOcrSize(map.getOutputSizes(ImageFormat.JPEG), aspect, STILL_POLICY);
+            Log.d(TAG, "openCamera: preview = " + imageDimension + ", still = " + stillSize);
+            stillReader = ImageReader.newInstance(stillSize.getWidth(), stillSize.getHeight(), ImageFormat.JPEG, MAX_PENDING_WRITES + 1);
+            stillReader.setOnImageAvailableListener(stillListener, cameraThreads.getImageHandler());
         }
+        this.cameraId = cameraId;
     }
 
     private final CameraDevice.StateCallback stateCallback = new CameraDevice.StateCallback() {
@@ -197,52 +463,122 @@ public class CameraActivity extends AppCompatActivity {
         public void onOpened(@NonNull CameraDevice camera) {
             Log.i(TAG, "onOpened: ");
             cameraDevice = camera;
-            createCameraPreview();
+            cameraLifecycle.onOpened();
         }
 
         @Override
         public void onDisconnected(@NonNull CameraDevice camera) {
             Log.i(TAG, "onDisconnected: ");
-            cameraDevice.close();
+            releaseDevice(camera);
         }
 
         @Override
         public void onError(@NonNull CameraDevice camera, int error) {
-            Log.i(TAG, "onError: ");
-            cameraDevice.close();
+            Log.i(TAG, "onError: " + error);
+            releaseDevice(camera);
+        }
+    };
+
+    /** Camera thread: the device is gone; it is reopened on the next resume only. */
+    private void releaseDevice(CameraDevice camera) {
+        closeCameraSession();
+        camera.close();
+        if (cameraDevice == camera) {
             cameraDevice = null;
         }
+        cameraLifecycle.onClosed();
+    }
+
+    /** Drives the device for {@link CameraLifecycle}; every call arrives on the camera thread. */
+    private final CameraLifecycle.Device cameraDevicePort = new CameraLifecycle.Device() {
+        @Override
+        public void open() {
+            openCamera();
+        }
+
+        @Override
+        public void createSession() {
+            createCameraSession();
+        }
+
+        @Override
+        public void closeSession() {
+            closeCameraSession();
+        }
+
+        @Override
+        public void close() {
+            closeCameraSession();
+            if (cameraDevice != null) {
+                cameraDevice.close();
+                cameraDevice = null;
+            }
+            Log.i(TAG, "close: camera released after " + cameraLifecycle.getOpenCount() + " opens");
+        }
     };
 
-    private void createCameraPreview() {
+    /**
+     * Configures the one session used while the device and the preview surface
+     * are both up: preview, live analysis and stills all share it, so neither a
+     * capture nor a return to preview needs a reconfiguration. A pause or a new
+     * surface replaces it.
+     */
+    private void createCameraSession() {
+        SurfaceTexture texture = previewTexture;
+        if (texture == null || cameraDevice == null) {
+            cameraLifecycle.onSessionFailed();
+            return;
+        }
         try {
-            SurfaceTexture texture = textureView.getSurfaceTexture();
-            assert texture != null;
             texture.setDefaultBufferSize(imageDimension.getWidth(), imageDimension.getHeight());
-            Surface surface = new Surface(texture);
+            previewSurface = new Surface(texture);
             captureRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
-            captureRequestBuilder.addTarget(surface);
-            if (currentZoomRect != null) {
-                captureRequestBuilder.set(CaptureRequest.SCALER_CROP_REGION, currentZoomRect);
-            } else {
-                currentZoomRect = cameraManager.getCameraCharacteristics(cameraDevice.getId())
-                        .get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
+            captureRequestBuilder.addTarget(previewSurface);
+            if (isLive && !isReplaying()) {
+                captureRequestBuilder.addTarget(analysisReader.getSurface());
             }
+            zoomController.applyTo(captureRequestBuilder);
 
-            cameraDevice.createCaptureSession(Collections.singletonList(surface), new CameraCaptureSession.StateCallback() {
+            List<Surface> outputSurfaces = Arrays.asList(previewSurface, analysisReader.getSurface(), stillReader.getSurface());
+            cameraDevice.createCaptureSession(outputSurfaces, new CameraCaptureSession.StateCallback() {
                 @Override
                 public void onConfigured(@NonNull CameraCaptureSession cameraCaptureSession) {
-                    if (cameraDevice == null) return;
+                    if (!cameraLifecycle.onSessionConfigured()) {
+                        // paused or the surface went away while configuring
+                        cameraCaptureSession.close();
+                        return;
+                    }
                     cameraCaptureSessions = cameraCaptureSession;
-                    updatePreview();
+                    if (!isInCaptured) {
+                        zoomController.attach(cameraCaptureSession, captureRequestBuilder);
+                        updatePreview();
+                    }
                 }
 
                 @Override
                 public void onConfigureFailed(@NonNull CameraCaptureSession cameraCaptureSession) {
+                    Log.i(TAG, "onConfigureFailed: ");
+                    cameraLifecycle.onSessionFailed();
                 }
-            }, null);
-        } catch (CameraAccessException e) {
+            }, cameraThreads.getCameraHandler());
+        } catch (CameraAccessException | IllegalStateException e) {
             e.printStackTrace();
+            cameraLifecycle.onSessionFailed();
+        }
+    }
+
+    /** Camera thread: closes the session and its preview surface, keeping the device. */
+    private void closeCameraSession() {
+        if (zoomController != null) {
+            zoomController.detach();
+        }
+        if (cameraCaptureSessions != null) {
+            cameraCaptureSessions.close();
+            cameraCaptureSessions = null;
+        }
+        if (previewSurface != null) {
+            previewSurface.release();
+            previewSurface = null;
         }
     }
 
@@ -250,107 +586,303 @@ public class CameraActivity extends AppCompatActivity {
         if (cameraDevice == null) return;
         captureRequestBuilder.set(CaptureRequest.CONTROL_MODE, CameraMetadata.CONTROL_MODE_AUTO);
         try {
-            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), null, null);
+            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), zoomController.getCaptureCallback(), cameraThreads.getCameraHandler());
         } catch (CameraAccessException e) {
             e.printStackTrace();
         }
     }
 
-    private void takePicture() {
-        if (cameraDevice == null) return;
-        try {
-            String cameraId = cameraManager.getCameraIdList()[0];
-            CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraId);
-            Size[] jpegSizes = Objects.requireNonNull(characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP)).getOutputSizes(ImageFormat.JPEG);
-            int width = 640;
-            int height = 480;
-            if (jpegSizes != null && jpegSizes.length > 0) {
-                width = jpegSizes[0].getWidth();
-                height = jpegSizes[0].getHeight();
+    private void resumePreview() {
+        motionStale = true;
+        cameraThreads.getCameraScheduler().post(() -> {
+            if (cameraCaptureSessions == null) return;
+            zoomController.attach(cameraCaptureSessions, captureRequestBuilder);
+            updatePreview();
+        });
+    }
+
+    /**
+     * Starts or stops feeding preview frames to the recognizer. The analysis
+     * reader is always part of the preview session, so toggling only swaps the
+     * targets of the repeating request.
+     */
+    private void setLiveMode(boolean live) {
+        isLive = live;
+        if (live) {
+            motionStale = true;
+        }
+        if (isReplaying()) return;
+        cameraThreads.getCameraScheduler().post(() -> {
+            if (cameraDevice == null || cameraCaptureSessions == null || isInCaptured) return;
+            if (live) {
+                captureRequestBuilder.addTarget(analysisReader.getSurface());
+            } else {
+                captureRequestBuilder.removeTarget(analysisReader.getSurface());
+            }
+            updatePreview();
+        });
+    }
+
+    private final FrameSource.Listener analysisListener = new FrameSource.Listener() {
+        @Override
+        public void onFrame(Frame frame) {
+            if (!isLive || isInCaptured) {
+                frame.close();
+                return;
+            }
+            if (!shouldAnalyze(frame)) {
+                frame.close();
+                return;
             }
+            // recorded frames are stored upright
+            int rotation = frame.getSource() instanceof Image ? getRotationCompensation() : 0;
+            textRecognizer.analyze(frame, rotation);
+        }
+
+        @Override
+        public void onEnd() {
+            livePipeline.onEnd();
+            StringBuilder report = new StringBuilder("replay: ").append(livePipeline.getReport()).append('\n');
+            metrics.appendReport(report);
+            Log.i(TAG, report.toString());
+            runOnUiThread(() -> Toast.makeText(CameraActivity.this, R.string.replay_finished, Toast.LENGTH_SHORT).show());
+        }
+    };
+
+    /** Plain text of a still's blocks, one block per paragraph. */
+    private static String textOf(List<OcrBlock> blocks) {
+        StringBuilder text = new StringBuilder();
+        for (OcrBlock block : blocks) {
+            if (text.length() > 0) text.append('\n');
+            text.append(block.getText());
+        }
+        return text.toString();
+    }
+
+    /** Records launch to first recognized text once, as a cold or warm start. Main thread. */
+    private void recordFirstResult() {
+        if (launchNanos == 0) return;
+        PerfMetrics.Span span = warmStart ? PerfMetrics.Span.FIRST_OCR_WARM : PerfMetrics.Span.FIRST_OCR_COLD;
+        metrics.recordSince(span, launchNanos);
+        Log.i(TAG, "recordFirstResult: " + span + " " + (PerfMetrics.now() - launchNanos) / 1_000_000 + " ms");
+        launchNanos = 0;
+    }
+
+    /** Runs the motion estimate on every live frame and asks the policy whether to recognize it. */
+    private boolean shouldAnalyze(Frame frame) {
+        if (motionStale) {
+            motionStale = false;
+            motionEstimator.reset();
+        }
+        float motion = frame.getFormat() == Frame.Format.YUV_420_888
+                ? motionEstimator.update(frame.getPlane(0), frame.getRowStride(0), frame.getPixelStride(0), frame.getWidth(), frame.getHeight())
+                : 0f;
+        switch (inferencePolicy.decide(motion)) {
+            case SKIP_MOTION:
+                metrics.increment(PerfMetrics.Counter.SKIPPED_MOTION);
+                return false;
+            case SKIP_FOCUS:
+                metrics.increment(PerfMetrics.Counter.SKIPPED_FOCUS);
+                return false;
+            case SKIP_THERMAL:
+                metrics.increment(PerfMetrics.Counter.SKIPPED_THERMAL);
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static InferencePolicy.Focus toFocus(Integer afState) {
+        if (afState == null) return InferencePolicy.Focus.UNKNOWN;
+        switch (afState) {
+            case CaptureResult.CONTROL_AF_STATE_PASSIVE_SCAN:
+            case CaptureResult.CONTROL_AF_STATE_ACTIVE_SCAN:
+                return InferencePolicy.Focus.SCANNING;
+            case CaptureResult.CONTROL_AF_STATE_PASSIVE_FOCUSED:
+            case CaptureResult.CONTROL_AF_STATE_FOCUSED_LOCKED:
+                return InferencePolicy.Focus.FOCUSED;
+            case CaptureResult.CONTROL_AF_STATE_PASSIVE_UNFOCUSED:
+            case CaptureResult.CONTROL_AF_STATE_NOT_FOCUSED_LOCKED:
+                return InferencePolicy.Focus.UNFOCUSED;
+            default:
+                return InferencePolicy.Focus.UNKNOWN;
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private void registerThermalListener() {
+        PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
+        thermalListener = status -> {
+            inferencePolicy.setThermalStatus(status);
+            frameThrottler.setAnalysisRate(inferencePolicy.rateFor(LIVE_ANALYSIS_FPS));
+        };
+        thermalListener.onThermalStatusChanged(powerManager.getCurrentThermalStatus());
+        powerManager.addThermalStatusListener(thermalListener);
+    }
+
+    /**
+     * Replays recorded frames from {@link #EXTRA_REPLAY_DIR} through the live
+     * analysis path instead of the camera's analysis stream.
+     */
+    private void startReplay(File directory, float framesPerSecond) {
+        replayScheduler = new ExecutorScheduler("replay");
+        analysisSource = new ReplayFrameSource(directory, framesPerSecond, replayScheduler);
+        metrics.reset();
+        isLive = true;
+        liveButton.setText(R.string.stop_live);
+        analysisSource.start(analysisListener);
+    }
 
-            Log.d(TAG, "takePicture: width = " + width + ", height = " + height);
-            final ImageReader reader = ImageReader.newInstance(width, height, ImageFormat.JPEG, 1);
-            List<Surface> outputSurfaces = Arrays.asList(reader.getSurface());
-            final CaptureRequest.Builder captureBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
-            captureBuilder.addTarget(reader.getSurface());
-            captureBuilder.set(CaptureRequest.CONTROL_MODE, CameraMetadata.CONTROL_MODE_AUTO);
-            captureBuilder.set(CaptureRequest.SCALER_CROP_REGION, currentZoomRect);
-//            captureRequestBuilder.addTarget(reader.getSurface());
-            Log.d(TAG, "takePicture: " + currentZoomRect);
+    /** Rotation ML Kit needs to turn a sensor frame upright for the current display rotation. */
+    private int getRotationCompensation() {
+        int rotation = getWindowManager().getDefaultDisplay().getRotation();
+        return (ORIENTATIONS.get(rotation) + sensorOrientation + 270) % 360;
+    }
+
+    /** Preview size covering the view, with the view measured in sensor orientation. */
+    private Size choosePreviewSize(Size[] sizes, float aspect) {
+        // the camera may open before the layout is inflated; the preview fills the screen anyway
+        boolean laidOut = textureView != null && textureView.getWidth() > 0;
+        int viewW = laidOut ? textureView.getWidth() : getResources().getDisplayMetrics().widthPixels;
+        int viewH = laidOut ? textureView.getHeight() : getResources().getDisplayMetrics().heightPixels;
+        if (sensorOrientation == 90 || sensorOrientation == 270) {
+            int swap = viewW;
+            viewW = viewH;
+            viewH = swap;
+        }
+        return sizes[SizeSelector.selectPreview(widthsOf(sizes), heightsOf(sizes), viewW, viewH, aspect)];
+    }
+
+    private Size chooseOcrSize(Size[] sizes, float aspect, SizeSelector.Policy policy) {
+        return sizes[SizeSelector.selectForOcr(widthsOf(sizes), heightsOf(sizes), aspect, policy)];
+    }
 
+    private static int[] widthsOf(Size[] sizes) {
+        int[] widths = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++) widths[i] = sizes[i].getWidth();
+        return widths;
+    }
 
-            // Orientation
-            int rotation = getWindowManager().getDefaultDisplay().getRotation();
+    private static int[] heightsOf(Size[] sizes) {
+        int[] heights = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++) heights[i] = sizes[i].getHeight();
+        return heights;
+    }
 
+    /**
+     * Issues a single still on the running session. The preview surface is a
+     * target too, and the repeating request is stopped right after, so the
+     * preview freezes on the captured frame.
+     */
+    private void takePicture() {
+        captureRequestedNanos = PerfMetrics.now();
+        metrics.increment(PerfMetrics.Counter.CAPTURES);
+        cameraThreads.getCameraScheduler().post(() -> {
+            if (cameraDevice == null || cameraCaptureSessions == null) return;
+            try {
+                final CaptureRequest.Builder captureBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+                captureBuilder.addTarget(stillReader.getSurface());
+                captureBuilder.addTarget(previewSurface);
+                captureBuilder.set(CaptureRequest.CONTROL_MODE, CameraMetadata.CONTROL_MODE_AUTO);
+                zoomController.applyTo(captureBuilder);
+
+                cameraCaptureSessions.capture(captureBuilder.build(), null, cameraThreads.getCameraHandler());
+                // a queued pinch target would restart the repeating request and unfreeze the still
+                zoomController.pause();
+                cameraCaptureSessions.stopRepeating();
+            } catch (CameraAccessException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private boolean isReplaying() {
+        return analysisSource instanceof ReplayFrameSource;
+    }
+
+    private final ImageReader.OnImageAvailableListener stillListener = new ImageReader.OnImageAvailableListener() {
+        @Override
+        public void onImageAvailable(ImageReader reader) {
+            final Image image = reader.acquireLatestImage();
+            if (image == null) return;
+            final long tapNanos = captureRequestedNanos;
+            metrics.recordSince(PerfMetrics.Span.TAP_TO_FRAME, tapNanos);
             final File file = new File(getExternalFilesDir(null), UUID.randomUUID().toString() + ".jpg");
-            ImageReader.OnImageAvailableListener readerListener = new ImageReader.OnImageAvailableListener() {
-                @Override
-                public void onImageAvailable(ImageReader reader) {
-                    Image image = null;
-                    try {
-//                        currentZoomLevel = 1f;
-                        image = reader.acquireLatestImage();
-//                        capturedView.setImageBitmap(textureView.getBitmap());
-                        InputImage inputImage = InputImage.fromBitmap(textureView.getBitmap(), 0);
-                        textRecognizer.recognizeTextFromImage(inputImage)
-                                .addOnSuccessListener(visionText -> {
-                                    Log.i(TAG, "onSuccess: " +  visionText.getText());
-                                    runOnUiThread(() -> textView3.setText(visionText.getText()));
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.i(TAG, "onFailure: " +  e);
-                                })
-                                .addOnCompleteListener(task -> {
-                                    Log.i(TAG, "onComplete: " +  task);
-                                });
-                        ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-                        byte[] bytes = new byte[buffer.capacity()];
-                        save(bytes);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    } finally {
-                        if (image != null) {
-                            image.close();
-                        }
-                    }
-                }
+            // the image is shared by the file write and ML Kit and closed when both are done
+            Runnable release = releaseAfter(2, image::close);
+            final CaptureIndexer indexer = new CaptureIndexer();
+            if (!captureStore.store(image.getPlanes()[0].getBuffer(), file, release, indexer)) {
+                Log.w(TAG, "onImageAvailable: write queue full, capture not saved");
+                release.run();
+            }
+            final Frame frame = CameraFrameSource.wrap(image, release);
+            int rotation = getRotationCompensation();
+            Task<List<OcrBlock>> recognition = textRecognizer.shouldTile(frame)
+                    ? textRecognizer.recognizeTiled(frame, rotation)
+                    : textRecognizer.recognizeStill(frame, rotation);
+            recognition
+                    .addOnSuccessListener(result -> {
+                        metrics.recordSince(PerfMetrics.Span.TAP_TO_RESULT, tapNanos);
+                        recordFirstResult();
+                        indexer.onRecognized(textOf(result));
+                    })
+                    .addOnCompleteListener(task -> frame.close());
+        }
+    };
 
-                private void save(byte[] bytes) throws IOException {
-                    try (OutputStream output = Files.newOutputStream(file.toPath())) {
-                        output.write(bytes);
-                    }
-                }
-            };
+    /**
+     * Adds one capture to the {@link CaptureIndex} once its file is written
+     * and its text recognized, whichever finishes last, so the index only
+     * points at files that exist. Called on the IO and main threads.
+     */
+    private final class CaptureIndexer implements CaptureStore.Callback {
+        private File stored;
+        private String text;
 
-            reader.setOnImageAvailableListener(readerListener, null);
+        @Override
+        public void onStored(File file, long bytes, long latencyNanos) {
+            Log.d(TAG, "onStored: " + file.getName() + " " + bytes + "B in " + latencyNanos / 1000 + "us");
+            synchronized (this) {
+                stored = file;
+            }
+            indexIfReady();
+        }
 
-            final CameraCaptureSession.CaptureCallback captureListener = new CameraCaptureSession.CaptureCallback() {
-                @Override
-                public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
-                    super.onCaptureCompleted(session, request, result);
-                }
-            };
+        @Override
+        public void onFailed(File file, IOException e) {
+            Log.e(TAG, "onFailed: " + file.getName(), e);
+        }
 
-            cameraDevice.createCaptureSession(outputSurfaces, new CameraCaptureSession.StateCallback() {
-                @Override
-                public void onConfigured(@NonNull CameraCaptureSession session) {
-                    try {
-                        session.capture(captureBuilder.build(), captureListener, null);
-                    } catch (CameraAccessException e) {
-                        e.printStackTrace();
-                    }
-                }
+        void onRecognized(String text) {
+            synchronized (this) {
+                this.text = text;
+            }
+            indexIfReady();
+        }
 
-                @Override
-                public void onConfigureFailed(@NonNull CameraCaptureSession session) {
-                }
-            }, null);
-        } catch (CameraAccessException e) {
-            e.printStackTrace();
+        private void indexIfReady() {
+            File file;
+            String text;
+            synchronized (this) {
+                if (stored == null || this.text == null) return;
+                file = stored;
+                text = this.text;
+                // only the second of the two calls gets here
+                stored = null;
+            }
+            CaptureIndex.get(CameraActivity.this).add(file.getName(), text);
         }
     }
 
+    private static Runnable releaseAfter(int parties, Runnable release) {
+        AtomicInteger remaining = new AtomicInteger(parties);
+        return () -> {
+            if (remaining.decrementAndGet() == 0) {
+                release.run();
+            }
+        };
+    }
+
     private static final SparseIntArray ORIENTATIONS = new SparseIntArray();
     static {
         ORIENTATIONS.append(Surface.ROTATION_0, 90);
@@ -364,7 +896,7 @@ public class CameraActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == 200) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                openCamera();
+                cameraLifecycle.resume();
             }
         }
     }
@@ -0,0 +1,47 @@
+package com.example.mobicom_project;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+
+/**
+ * {@link FrameSource} over an {@link ImageReader}: hands out the latest image
+ * of each callback as a {@link Frame} that closes the image when closed.
+ */
+public class CameraFrameSource implements FrameSource {
+    private final ImageReader reader;
+    private final Handler handler;
+
+    public CameraFrameSource(ImageReader reader, Handler handler) {
+        this.reader = reader;
+        this.handler = handler;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        reader.setOnImageAvailableListener(r -> {
+            Image image = r.acquireLatestImage();
+            if (image != null) {
+                listener.onFrame(wrap(image, image::close));
+            }
+        }, handler);
+    }
+
+    @Override
+    public void stop() {
+        reader.setOnImageAvailableListener(null, null);
+    }
+
+    /** {@code release} runs when the frame is closed, usually {@code image::close}. */
+    public static Frame wrap(Image image, Runnable release) {
+        Image.Plane[] planes = image.getPlanes();
+        if (image.getFormat() == ImageFormat.JPEG) {
+            return Frame.jpeg(image.getWidth(), image.getHeight(), image.getTimestamp(), planes[0].getBuffer(), image, release);
+        }
+        return Frame.yuv(image.getWidth(), image.getHeight(), image.getTimestamp(),
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                image, release);
+    }
+}
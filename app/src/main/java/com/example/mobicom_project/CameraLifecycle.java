@@ -0,0 +1,220 @@
+package com.example.mobicom_project;
+
+/**
+ * Keeps the camera device and its session in step with the activity and the
+ * preview surface. The device is held only while the activity is resumed, so
+ * other apps can have the camera while we are in the background; the session
+ * exists only while the preview surface does as well. Opening does not wait
+ * for the surface, so on resume the device opens while the view is laid out,
+ * and the session is created by whichever of the two arrives last.
+ * <p>
+ * Event methods may be called from any thread and are posted to the camera
+ * scheduler; {@link Device} methods and the {@code on*} callbacks run on it.
+ * A device lost to an error or another client is not reopened until the next
+ * resume, so a failing camera doesn't spin.
+ */
+public class CameraLifecycle {
+    public interface Device {
+        /** Starts opening the device; answer with {@link #onOpened()} or {@link #onClosed()}. */
+        void open();
+
+        /** Configures a session on the open device; answer with {@link #onSessionConfigured()} or {@link #onSessionFailed()}. */
+        void createSession();
+
+        /** Closes the session, keeping the device open. */
+        void closeSession();
+
+        /** Closes the session, if any, and the device. */
+        void close();
+    }
+
+    enum State {
+        CLOSED,
+        OPENING,
+        OPEN,
+        CONFIGURING,
+        STREAMING
+    }
+
+    private final Scheduler cameraScheduler;
+    private final Device device;
+    private final PerfMetrics metrics;
+    private State state = State.CLOSED;
+    private boolean resumed;
+    private boolean surfaceReady;
+    /** The device was lost while resumed; cleared by the next resume. */
+    private boolean lost;
+    /** The last session failed to configure; cleared by the next resume or new surface. */
+    private boolean sessionFailed;
+    private int opens;
+    private boolean destroyed;
+    /** Runs once the device is closed after {@link #destroy}; null when done or not asked for. */
+    private Runnable onDestroyed;
+    private volatile boolean streaming;
+    /** {@link PerfMetrics#now()} of the last resume, until its first preview frame; 0 when none is pending. */
+    private volatile long resumeNanos;
+
+    public CameraLifecycle(Scheduler cameraScheduler, Device device, PerfMetrics metrics) {
+        this.cameraScheduler = cameraScheduler;
+        this.device = device;
+        this.metrics = metrics;
+    }
+
+    /** The activity is (about to be) in the foreground. Repeated calls are harmless. */
+    public void resume() {
+        final long now = PerfMetrics.now();
+        cameraScheduler.post(() -> {
+            if (resumed || destroyed) return;
+            resumed = true;
+            lost = false;
+            sessionFailed = false;
+            resumeNanos = now;
+            update();
+        });
+    }
+
+    /** The activity left the foreground; the device is closed on the camera thread. */
+    public void pause() {
+        cameraScheduler.post(() -> {
+            resumed = false;
+            resumeNanos = 0;
+            update();
+        });
+    }
+
+    /**
+     * The activity is going away. Closes like {@link #pause()}, then runs
+     * {@code onClosed} on the camera thread once the device is closed; a
+     * device still opening can only be closed from {@link #onOpened()}, so
+     * the camera thread has to keep running until then.
+     */
+    public void destroy(Runnable onClosed) {
+        cameraScheduler.post(() -> {
+            destroyed = true;
+            resumed = false;
+            resumeNanos = 0;
+            onDestroyed = onClosed;
+            update();
+            finishDestroy();
+        });
+    }
+
+    public void onSurfaceAvailable() {
+        cameraScheduler.post(() -> {
+            surfaceReady = true;
+            sessionFailed = false;
+            update();
+        });
+    }
+
+    /**
+     * The preview surface is going away. {@code release} runs on the camera
+     * thread once the session that drew into it is closed.
+     */
+    public void onSurfaceDestroyed(Runnable release) {
+        cameraScheduler.post(() -> {
+            surfaceReady = false;
+            update();
+            release.run();
+        });
+    }
+
+    /** Camera thread: the device finished opening. */
+    public void onOpened() {
+        if (state != State.OPENING) return;
+        state = State.OPEN;
+        opens++;
+        update();
+        finishDestroy();
+    }
+
+    /** Camera thread: the device failed to open, was disconnected or hit an error. */
+    public void onClosed() {
+        if (state == State.CLOSED) return;
+        state = State.CLOSED;
+        streaming = false;
+        lost = resumed;
+        finishDestroy();
+    }
+
+    /**
+     * Camera thread: a session finished configuring. Returns false if it is no
+     * longer wanted (paused or surface gone meanwhile); the caller closes it.
+     */
+    public boolean onSessionConfigured() {
+        if (state != State.CONFIGURING) return false;
+        state = State.STREAMING;
+        streaming = true;
+        return true;
+    }
+
+    /** Camera thread. */
+    public void onSessionFailed() {
+        if (state != State.CONFIGURING) return;
+        state = State.OPEN;
+        sessionFailed = true;
+    }
+
+    /**
+     * A preview frame reached the screen; any thread. The first one after a
+     * resume closes the {@link PerfMetrics.Span#RESUME_TO_PREVIEW} span.
+     */
+    public void onPreviewFrame() {
+        long start = resumeNanos;
+        if (start == 0 || !streaming) return;
+        resumeNanos = 0;
+        metrics.recordSince(PerfMetrics.Span.RESUME_TO_PREVIEW, start);
+    }
+
+    private void update() {
+        if (!resumed) {
+            // an opening device can't be closed yet; onOpened comes back here
+            if (state != State.CLOSED && state != State.OPENING) {
+                device.close();
+                state = State.CLOSED;
+                streaming = false;
+            }
+            return;
+        }
+        switch (state) {
+            case CLOSED:
+                if (!lost) {
+                    state = State.OPENING;
+                    device.open();
+                }
+                break;
+            case OPEN:
+                if (surfaceReady && !sessionFailed) {
+                    state = State.CONFIGURING;
+                    device.createSession();
+                }
+                break;
+            case CONFIGURING:
+            case STREAMING:
+                if (!surfaceReady) {
+                    device.closeSession();
+                    state = State.OPEN;
+                    streaming = false;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void finishDestroy() {
+        if (onDestroyed == null || state != State.CLOSED) return;
+        Runnable done = onDestroyed;
+        onDestroyed = null;
+        done.run();
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /** How often the device has been opened, for tests and the log. */
+    public int getOpenCount() {
+        return opens;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.mobicom_project;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Owns the background threads used by the camera pipeline.
+ * <ul>
+ *     <li>camera: camera2 device, session and capture callbacks</li>
+ *     <li>image: ImageReader callbacks and frame handling</li>
+ *     <li>io: file writes</li>
+ * </ul>
+ * Nothing in the pipeline should run on the main looper except view updates.
+ */
+public class CameraThreads {
+    private final HandlerThread cameraThread;
+    private final HandlerThread imageThread;
+    private final HandlerScheduler cameraScheduler;
+    private final HandlerScheduler imageScheduler;
+    private final ExecutorScheduler ioScheduler;
+
+    public CameraThreads() {
+        cameraThread = new HandlerThread("CameraThread", Process.THREAD_PRIORITY_DISPLAY);
+        cameraThread.start();
+        imageThread = new HandlerThread("ImageThread", Process.THREAD_PRIORITY_DEFAULT);
+        imageThread.start();
+        cameraScheduler = new HandlerScheduler(new Handler(cameraThread.getLooper()));
+        imageScheduler = new HandlerScheduler(new Handler(imageThread.getLooper()));
+        ioScheduler = new ExecutorScheduler("IoThread");
+    }
+
+    public Handler getCameraHandler() {
+        return cameraScheduler.getHandler();
+    }
+
+    public Handler getImageHandler() {
+        return imageScheduler.getHandler();
+    }
+
+    public Scheduler getCameraScheduler() {
+        return cameraScheduler;
+    }
+
+    public Scheduler getImageScheduler() {
+        return imageScheduler;
+    }
+
+    public Scheduler getIoScheduler() {
+        return ioScheduler;
+    }
+
+    public void quit() {
+        cameraThread.quitSafely();
+        imageThread.quitSafely();
+        ioScheduler.shutdown();
+    }
+}
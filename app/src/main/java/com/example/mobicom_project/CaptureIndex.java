@@ -0,0 +1,77 @@
+package com.example.mobicom_project;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Process-wide {@link TextIndex} of recognized captures, kept in the app's
+ * private files directory. Adds and searches run on the index thread and
+ * segment merges on their own thread, so neither touches the UI thread.
+ */
+public final class CaptureIndex {
+    public interface SearchCallback {
+        /** Called on the index thread. */
+        void onHits(List<TextIndex.Hit> hits);
+    }
+
+    private static final String TAG = "CaptureIndex";
+    private static CaptureIndex instance;
+
+    private final ExecutorScheduler indexScheduler = new ExecutorScheduler("IndexThread");
+    private final ExecutorScheduler compactionScheduler = new ExecutorScheduler("IndexCompactionThread");
+    private final File directory;
+    private TextIndex index;
+
+    private CaptureIndex(File directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized CaptureIndex get(Context context) {
+        if (instance == null) {
+            instance = new CaptureIndex(new File(context.getApplicationContext().getFilesDir(), "index"));
+        }
+        return instance;
+    }
+
+    /** Stores one recognized page; empty results are skipped. */
+    public void add(String source, String text) {
+        if (text == null || text.trim().isEmpty()) return;
+        final long timeMillis = System.currentTimeMillis();
+        indexScheduler.post(() -> {
+            try {
+                TextIndex current = open();
+                int id = current.add(timeMillis, source, text);
+                Log.d(TAG, "add: #" + id + " " + source + ", " + current.getSegmentCount() + " segments");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public void search(String query, int limit, SearchCallback callback) {
+        indexScheduler.post(() -> {
+            List<TextIndex.Hit> hits = Collections.emptyList();
+            try {
+                long start = PerfMetrics.now();
+                hits = open().search(query, limit);
+                Log.d(TAG, "search: " + hits.size() + " hits in " + (PerfMetrics.now() - start) / 1000 + "us");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            callback.onHits(hits);
+        });
+    }
+
+    /** Index thread only; opening replays the pages that weren't flushed to a segment. */
+    private TextIndex open() throws IOException {
+        if (index == null) {
+            index = new TextIndex(directory, compactionScheduler);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.mobicom_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes encoded captures to disk on the I/O scheduler. The caller's buffer is
+ * written as is through a {@link FileChannel}, so the source (usually the JPEG
+ * plane of an {@code Image}) must stay valid until {@code release} runs. The
+ * number of pending writes is bounded; when the queue is full the capture is
+ * rejected and the caller keeps ownership of the buffer.
+ */
+public class CaptureStore {
+    public interface Callback {
+        void onStored(File file, long bytes, long latencyNanos);
+
+        void onFailed(File file, IOException e);
+    }
+
+    private final Scheduler ioScheduler;
+    private final int maxPendingWrites;
+    private final Semaphore pendingWrites;
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public CaptureStore(Scheduler ioScheduler, int maxPendingWrites) {
+        this.ioScheduler = ioScheduler;
+        this.maxPendingWrites = maxPendingWrites;
+        this.pendingWrites = new Semaphore(maxPendingWrites);
+    }
+
+    /**
+     * Queues {@code data} (position to limit) for writing to {@code target}.
+     * Returns false without touching the buffer if too many writes are pending.
+     * Otherwise {@code release} runs on the I/O thread once the buffer is no
+     * longer needed, before {@code callback} is notified.
+     */
+    public boolean store(ByteBuffer data, File target, Runnable release, Callback callback) {
+        if (!pendingWrites.tryAcquire()) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        final ByteBuffer source = data.duplicate();
+        final long enqueuedAt = System.nanoTime();
+        ioScheduler.post(() -> {
+            long written = 0;
+            IOException failure = null;
+            long writeStart = System.nanoTime();
+            try (FileChannel channel = FileChannel.open(target.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (source.hasRemaining()) {
+                    written += channel.write(source);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                release.run();
+                pendingWrites.release();
+            }
+            long done = System.nanoTime();
+            if (failure != null) {
+                failedCount.incrementAndGet();
+                if (callback != null) callback.onFailed(target, failure);
+                return;
+            }
+            long latency = done - enqueuedAt;
+            storedCount.incrementAndGet();
+            storedBytes.addAndGet(written);
+            totalLatencyNanos.addAndGet(latency);
+            totalWriteNanos.addAndGet(done - writeStart);
+            long max;
+            while (latency > (max = maxLatencyNanos.get()) && !maxLatencyNanos.compareAndSet(max, latency)) {
+                // retry
+            }
+            if (callback != null) callback.onStored(target, written, latency);
+        });
+        return true;
+    }
+
+    public int getPendingWrites() {
+        return maxPendingWrites - pendingWrites.availablePermits();
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /** Mean time from {@link #store} to the data being on disk. */
+    public long getAverageLatencyNanos() {
+        long count = storedCount.get();
+        return count == 0 ? 0 : totalLatencyNanos.get() / count;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /** Bytes per second while the I/O thread was actually writing. */
+    public double getThroughputBytesPerSecond() {
+        long nanos = totalWriteNanos.get();
+        return nanos == 0 ? 0 : storedBytes.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+}
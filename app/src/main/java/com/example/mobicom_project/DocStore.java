@@ -0,0 +1,128 @@
+package com.example.mobicom_project;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of the documents in a {@link TextIndex}; a document's id is
+ * its position in the file. Each record is {@code length, crc, time, source
+ * length, source, text} and is read back with positional reads, so only the
+ * record offsets (8 bytes per document) are kept in memory. On open, a last
+ * record cut short or corrupted by a crash is cut off. Not thread safe.
+ */
+final class DocStore implements Closeable {
+    private static final int RECORD_HEADER = 8;
+
+    private final FileChannel channel;
+    private long[] offsets = new long[64];
+    private int size;
+    private long end;
+
+    DocStore(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+    }
+
+    /** Walks the record lengths to rebuild the offsets; only the last record's checksum is checked. */
+    private void recover() throws IOException {
+        long length = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        long position = 0;
+        while (position + RECORD_HEADER <= length) {
+            header.clear();
+            readFully(header, position);
+            int recordLength = header.getInt(0);
+            if (recordLength < 10 || position + RECORD_HEADER + recordLength > length) break;
+            addOffset(position);
+            position += RECORD_HEADER + recordLength;
+        }
+        if (size > 0 && read(size - 1) == null) {
+            size--;
+            position = offsets[size];
+        }
+        end = position;
+        if (end < length) {
+            channel.truncate(end);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int append(long timeMillis, String source, String text) throws IOException {
+        byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 8 + 2 + sourceBytes.length + textBytes.length;
+        if (sourceBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Source too long: " + source);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payloadLength);
+        record.putInt(payloadLength).putInt(0).putLong(timeMillis)
+                .putShort((short) sourceBytes.length).put(sourceBytes).put(textBytes);
+        record.putInt(4, checksum(record.array(), RECORD_HEADER, payloadLength));
+        record.flip();
+        long position = end;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        addOffset(end);
+        end = position;
+        return size - 1;
+    }
+
+    /** The document, or null if its record doesn't match its checksum. */
+    TextIndex.Hit read(int id) throws IOException {
+        long position = offsets[id];
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        readFully(header, position);
+        int payloadLength = header.getInt(0);
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        readFully(payload, position + RECORD_HEADER);
+        byte[] bytes = payload.array();
+        if (checksum(bytes, 0, payloadLength) != header.getInt(4)) return null;
+        long timeMillis = payload.getLong(0);
+        int sourceLength = payload.getShort(8) & 0xFFFF;
+        if (10 + sourceLength > payloadLength) return null;
+        String source = new String(bytes, 10, sourceLength, StandardCharsets.UTF_8);
+        String text = new String(bytes, 10 + sourceLength, payloadLength - 10 - sourceLength, StandardCharsets.UTF_8);
+        return new TextIndex.Hit(id, timeMillis, source, text);
+    }
+
+    /** Makes appended documents durable; segments must never reference documents that could be lost. */
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void addOffset(long offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = offset;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of document store");
+        }
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
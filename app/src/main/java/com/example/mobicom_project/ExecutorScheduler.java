@@ -0,0 +1,41 @@
+package com.example.mobicom_project;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Scheduler} backed by a single named worker thread. Tasks run in the
+ * order they were posted.
+ */
+public class ExecutorScheduler implements Scheduler {
+    private final ExecutorService executor;
+    private volatile Thread workerThread;
+
+    public ExecutorScheduler(String name) {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            workerThread = thread;
+            return thread;
+        });
+    }
+
+    @Override
+    public void post(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return Thread.currentThread() == workerThread;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
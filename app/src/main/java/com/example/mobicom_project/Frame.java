@@ -0,0 +1,118 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A camera-independent view of one frame: YUV_420_888-style planes or JPEG
+ * bytes, plus the object they came from (an {@code android.media.Image} for
+ * camera frames, null for replayed ones). Whoever receives a frame owns it and
+ * must {@link #close()} it; closing more than once is harmless.
+ */
+public final class Frame {
+    public enum Format {
+        YUV_420_888,
+        JPEG
+    }
+
+    private final Format format;
+    private final int width;
+    private final int height;
+    private final long timestampNanos;
+    private final ByteBuffer[] planes;
+    private final int[] rowStrides;
+    private final int[] pixelStrides;
+    private final Object source;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Frame(Format format, int width, int height, long timestampNanos, ByteBuffer[] planes,
+                  int[] rowStrides, int[] pixelStrides, Object source, Runnable release) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.timestampNanos = timestampNanos;
+        this.planes = planes;
+        this.rowStrides = rowStrides;
+        this.pixelStrides = pixelStrides;
+        this.source = source;
+        this.release = release;
+    }
+
+    public static Frame yuv(int width, int height, long timestampNanos,
+                            ByteBuffer y, int yRowStride, int yPixelStride,
+                            ByteBuffer u, ByteBuffer v, int uvRowStride, int uvPixelStride,
+                            Object source, Runnable release) {
+        return new Frame(Format.YUV_420_888, width, height, timestampNanos, new ByteBuffer[]{y, u, v},
+                new int[]{yRowStride, uvRowStride, uvRowStride}, new int[]{yPixelStride, uvPixelStride, uvPixelStride},
+                source, release);
+    }
+
+    public static Frame jpeg(int width, int height, long timestampNanos, ByteBuffer data, Object source, Runnable release) {
+        return new Frame(Format.JPEG, width, height, timestampNanos, new ByteBuffer[]{data},
+                new int[]{0}, new int[]{0}, source, release);
+    }
+
+    /** Wraps an NV21 array (Y plane, then interleaved V/U) as YUV_420_888 planes without copying. */
+    public static Frame nv21(byte[] data, int width, int height, long timestampNanos, Runnable release) {
+        return nv21(ByteBuffer.wrap(data), width, height, timestampNanos, release);
+    }
+
+    /** Same as the array version; NV21 data starts at index 0 of {@code data}. */
+    public static Frame nv21(ByteBuffer data, int width, int height, long timestampNanos, Runnable release) {
+        int lumaSize = width * height;
+        int chromaSize = YuvCropper.nv21Size(width, height) - lumaSize;
+        return yuv(width, height, timestampNanos, slice(data, 0, lumaSize), width, 1,
+                slice(data, lumaSize + 1, chromaSize - 1), slice(data, lumaSize, chromaSize), width, 2, null, release);
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        ByteBuffer view = data.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+        return view.slice();
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /** Plane 0 is Y (or the JPEG data), 1 is U and 2 is V. Read with absolute gets only. */
+    public ByteBuffer getPlane(int index) {
+        return planes[index];
+    }
+
+    public int getRowStride(int index) {
+        return rowStrides[index];
+    }
+
+    public int getPixelStride(int index) {
+        return pixelStrides[index];
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public void close() {
+        if (closed.compareAndSet(false, true) && release != null) {
+            release.run();
+        }
+    }
+}
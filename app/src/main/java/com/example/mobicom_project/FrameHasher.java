@@ -0,0 +1,94 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Perceptual difference hash (dHash) of a frame region. The region is reduced
+ * to a 9x8 grid of mean luma values by sampling at most 4x4 pixels per cell,
+ * and each of the 64 bits records whether a cell is brighter than its right
+ * neighbour. Small exposure changes and sensor noise leave most bits alone, so
+ * similar scenes end up a few bits apart.
+ * <p>
+ * Instances reuse their grid and are not thread-safe.
+ */
+public class FrameHasher {
+    static final int GRID_W = 9;
+    static final int GRID_H = 8;
+    private static final int SAMPLES_PER_CELL_AXIS = 4;
+
+    private final int[] cells = new int[GRID_W * GRID_H];
+
+    /** Hashes {@code crop} of a luma plane such as the Y plane of a YUV_420_888 image. */
+    public long hashLuma(ByteBuffer plane, int rowStride, int pixelStride, Box crop) {
+        int w = crop.width();
+        int h = crop.height();
+        for (int gy = 0; gy < GRID_H; gy++) {
+            int y0 = crop.top + gy * h / GRID_H;
+            int y1 = Math.max(y0 + 1, crop.top + (gy + 1) * h / GRID_H);
+            int stepY = Math.max(1, (y1 - y0) / SAMPLES_PER_CELL_AXIS);
+            for (int gx = 0; gx < GRID_W; gx++) {
+                int x0 = crop.left + gx * w / GRID_W;
+                int x1 = Math.max(x0 + 1, crop.left + (gx + 1) * w / GRID_W);
+                int stepX = Math.max(1, (x1 - x0) / SAMPLES_PER_CELL_AXIS);
+                int sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += stepY) {
+                    int rowStart = y * rowStride;
+                    for (int x = x0; x < x1; x += stepX) {
+                        sum += plane.get(rowStart + x * pixelStride) & 0xFF;
+                        count++;
+                    }
+                }
+                cells[gy * GRID_W + gx] = sum / count;
+            }
+        }
+        return packBits();
+    }
+
+    /** Hashes {@code crop} of packed ARGB pixels, e.g. a downsampled decode of a JPEG. */
+    public long hashArgb(int[] pixels, int stride, Box crop) {
+        int w = crop.width();
+        int h = crop.height();
+        for (int gy = 0; gy < GRID_H; gy++) {
+            int y0 = crop.top + gy * h / GRID_H;
+            int y1 = Math.max(y0 + 1, crop.top + (gy + 1) * h / GRID_H);
+            int stepY = Math.max(1, (y1 - y0) / SAMPLES_PER_CELL_AXIS);
+            for (int gx = 0; gx < GRID_W; gx++) {
+                int x0 = crop.left + gx * w / GRID_W;
+                int x1 = Math.max(x0 + 1, crop.left + (gx + 1) * w / GRID_W);
+                int stepX = Math.max(1, (x1 - x0) / SAMPLES_PER_CELL_AXIS);
+                int sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += stepY) {
+                    int rowStart = y * stride;
+                    for (int x = x0; x < x1; x += stepX) {
+                        int argb = pixels[rowStart + x];
+                        sum += (((argb >> 16) & 0xFF) * 77 + ((argb >> 8) & 0xFF) * 150 + (argb & 0xFF) * 29) >> 8;
+                        count++;
+                    }
+                }
+                cells[gy * GRID_W + gx] = sum / count;
+            }
+        }
+        return packBits();
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private long packBits() {
+        long hash = 0;
+        int bit = 0;
+        for (int gy = 0; gy < GRID_H; gy++) {
+            int row = gy * GRID_W;
+            for (int gx = 0; gx < GRID_W - 1; gx++) {
+                if (cells[row + gx] > cells[row + gx + 1]) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+}
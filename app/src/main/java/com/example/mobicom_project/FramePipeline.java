@@ -0,0 +1,190 @@
+package com.example.mobicom_project;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The live-analysis stages: backpressure through a {@link FrameThrottler},
+ * the perceptual-hash {@link RecognitionCache}, a {@link FrameRecognizer} and
+ * an {@link Output}, which runs on {@code resultScheduler} the way drawing
+ * runs on the UI thread. The camera screen runs it with ML Kit; fed by a
+ * {@link ReplayFrameSource} with a stub recognizer and a manual clock it gives
+ * repeatable throughput and latency numbers in a plain JVM test.
+ */
+public class FramePipeline implements FrameSource.Listener {
+    /** Receives each frame's blocks, in the upright {@code width} x {@code height} frame. */
+    public interface Output {
+        void onResult(int width, int height, List<OcrBlock> blocks);
+    }
+
+    private final FrameThrottler throttler;
+    private final FrameRecognizer recognizer;
+    private final RecognitionCache<List<OcrBlock>> cache;
+    private final Output output;
+    private final Scheduler resultScheduler;
+    private final LongSupplier clock;
+    private final FrameHasher hasher = new FrameHasher();
+    private final LatencyHistogram frameToOverlay = new LatencyHistogram();
+    private final LatencyHistogram recognition = new LatencyHistogram();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong recognized = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long firstFrameNanos;
+    private volatile long lastDoneNanos;
+    private volatile boolean ended;
+    private volatile Box region;
+    private volatile int rotation;
+    private volatile PerfMetrics metrics;
+
+    /** {@code cache} may be null to recognize every admitted frame. */
+    public FramePipeline(FrameThrottler throttler, FrameRecognizer recognizer, RecognitionCache<List<OcrBlock>> cache,
+                         OverlayLayout overlay, Scheduler resultScheduler) {
+        this(throttler, recognizer, cache, drawInto(overlay), resultScheduler, System::nanoTime);
+    }
+
+    public FramePipeline(FrameThrottler throttler, FrameRecognizer recognizer, RecognitionCache<List<OcrBlock>> cache,
+                         Output output, Scheduler resultScheduler, LongSupplier clock) {
+        this.throttler = throttler;
+        this.recognizer = recognizer;
+        this.cache = cache;
+        this.output = output;
+        this.resultScheduler = resultScheduler;
+        this.clock = clock;
+    }
+
+    /** An output that lays each result out in {@code overlay}, colored by block id. */
+    public static Output drawInto(OverlayLayout overlay) {
+        return (width, height, blocks) -> {
+            overlay.beginFrame(width, height, 0, 0);
+            for (int i = 0; i < blocks.size(); i++) {
+                Box bounds = blocks.get(i).bounds;
+                overlay.add(bounds.left, bounds.top, bounds.right, bounds.bottom, Math.max(0, blocks.get(i).id));
+            }
+        };
+    }
+
+    /** Restricts recognition to {@code region}, in upright frame pixels; null uses the whole frame. */
+    public void setRegion(Box region) {
+        this.region = region;
+    }
+
+    /** Clockwise degrees that turn the next frames upright; see {@link RoiMapper}. */
+    public void setRotation(int rotation) {
+        if (this.rotation != rotation && cache != null) {
+            // cached blocks are in the old rotation's upright frame
+            cache.clear();
+        }
+        this.rotation = rotation;
+    }
+
+    /** Also counts frames and cache use and records draw latency into {@code metrics}; null stops that. */
+    public void setMetrics(PerfMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onFrame(Frame frame) {
+        final long start = clock.getAsLong();
+        if (received.getAndIncrement() == 0) {
+            firstFrameNanos = start;
+        }
+        final PerfMetrics metrics = this.metrics;
+        if (!throttler.tryAcquire()) {
+            dropped.incrementAndGet();
+            if (metrics != null) metrics.increment(PerfMetrics.Counter.FRAMES_DROPPED);
+            frame.close();
+            return;
+        }
+        if (metrics != null) metrics.increment(PerfMetrics.Counter.FRAMES_ANALYZED);
+        pending.incrementAndGet();
+        final int rotation = this.rotation;
+        final int width = frame.getWidth();
+        final int height = frame.getHeight();
+        boolean swap = rotation == 90 || rotation == 270;
+        final int uprightW = swap ? height : width;
+        final int uprightH = swap ? width : height;
+        final Box crop = RoiMapper.cropFor(region, rotation, width, height, new Box());
+
+        // JPEG frames would have to be decoded to hash, so they skip the cache
+        final boolean cacheable = cache != null && frame.getFormat() == Frame.Format.YUV_420_888;
+        final long hash = cacheable ? hasher.hashLuma(frame.getPlane(0), frame.getRowStride(0), frame.getPixelStride(0), crop) : 0;
+        if (cacheable) {
+            List<OcrBlock> cached = cache.get(hash, crop);
+            if (metrics != null) {
+                metrics.increment(cached != null ? PerfMetrics.Counter.CACHE_HITS : PerfMetrics.Counter.CACHE_MISSES);
+            }
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                deliver(frame, uprightW, uprightH, cached, start, true, 0);
+                return;
+            }
+        }
+        recognized.incrementAndGet();
+        final long recognitionStart = clock.getAsLong();
+        recognizer.recognize(frame, crop, rotation, new FrameRecognizer.Callback() {
+            @Override
+            public void onRecognized(List<OcrBlock> blocks) {
+                long resultAt = clock.getAsLong();
+                recognition.record(resultAt - recognitionStart);
+                if (cacheable) {
+                    cache.put(hash, crop, blocks);
+                }
+                deliver(frame, uprightW, uprightH, blocks, start, false, resultAt);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                failed.incrementAndGet();
+                frame.close();
+                throttler.release();
+                finish();
+            }
+        });
+    }
+
+    /** {@code resultAt} is when the recognizer answered; unused for a cached result. */
+    private void deliver(Frame frame, int width, int height, List<OcrBlock> blocks, long start,
+                         boolean cached, long resultAt) {
+        frame.close();
+        throttler.release();
+        resultScheduler.post(() -> {
+            output.onResult(width, height, blocks);
+            long drawnAt = clock.getAsLong();
+            frameToOverlay.record(drawnAt - start);
+            PerfMetrics metrics = this.metrics;
+            if (metrics != null) {
+                if (!cached) metrics.record(PerfMetrics.Span.OCR_TO_DRAW, drawnAt - resultAt);
+                metrics.record(PerfMetrics.Span.FRAME_TO_DRAW, drawnAt - start);
+            }
+            completed.incrementAndGet();
+            finish();
+        });
+    }
+
+    private void finish() {
+        lastDoneNanos = clock.getAsLong();
+        pending.decrementAndGet();
+    }
+
+    @Override
+    public void onEnd() {
+        ended = true;
+    }
+
+    /** True once the source has ended and every admitted frame has been drawn or failed. */
+    public boolean isIdle() {
+        return ended && pending.get() == 0;
+    }
+
+    public ReplayReport getReport() {
+        long elapsed = received.get() == 0 ? 0 : Math.max(0, lastDoneNanos - firstFrameNanos);
+        return new ReplayReport(received.get(), dropped.get(), cacheHits.get(), recognized.get(), failed.get(),
+                completed.get(), elapsed, frameToOverlay, recognition);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.mobicom_project;
+
+import java.util.List;
+
+/**
+ * Recognition step of {@link FramePipeline}. {@code crop} is in raw frame
+ * pixels and {@code rotation} turns it upright; blocks are reported in the
+ * upright full frame. Implementations may finish on any thread and must not
+ * close the frame.
+ */
+public interface FrameRecognizer {
+    interface Callback {
+        void onRecognized(List<OcrBlock> blocks);
+
+        void onFailed(Exception e);
+    }
+
+    void recognize(Frame frame, Box crop, int rotation, Callback callback);
+}
@@ -0,0 +1,20 @@
+package com.example.mobicom_project;
+
+/**
+ * Where analysis frames come from: the camera, or a recorded sequence replayed
+ * by {@link ReplayFrameSource}. The rest of the pipeline only sees
+ * {@link Frame}s, so it can be load-tested without a camera.
+ */
+public interface FrameSource {
+    interface Listener {
+        /** Called on the source's thread; the listener owns {@code frame} and must close it. */
+        void onFrame(Frame frame);
+
+        /** The source has no more frames. Live sources never call this. */
+        void onEnd();
+    }
+
+    void start(Listener listener);
+
+    void stop();
+}
@@ -0,0 +1,67 @@
+package com.example.mobicom_project;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Backpressure gate for live analysis. At most one frame is in flight, and a
+ * new frame is only admitted once the configured analysis interval has
+ * elapsed. Frames that are not admitted are counted as dropped; the caller is
+ * expected to close them straight away so the reader always hands out the
+ * latest frame.
+ */
+public class FrameThrottler {
+    private final LongSupplier clock;
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicLong lastAdmitNanos = new AtomicLong(Long.MIN_VALUE / 2);
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong admittedFrames = new AtomicLong();
+    private volatile long minIntervalNanos;
+
+    public FrameThrottler(float framesPerSecond) {
+        this(framesPerSecond, System::nanoTime);
+    }
+
+    public FrameThrottler(float framesPerSecond, LongSupplier clock) {
+        this.clock = clock;
+        setAnalysisRate(framesPerSecond);
+    }
+
+    /** A rate of zero or less removes the interval limit. */
+    public void setAnalysisRate(float framesPerSecond) {
+        minIntervalNanos = framesPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond) : 0;
+    }
+
+    /**
+     * Returns true if the caller may analyse the current frame. Every true
+     * result must be paired with a {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        long now = clock.getAsLong();
+        if (now - lastAdmitNanos.get() < minIntervalNanos || !inFlight.compareAndSet(false, true)) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+        lastAdmitNanos.set(now);
+        admittedFrames.incrementAndGet();
+        return true;
+    }
+
+    public void release() {
+        inFlight.set(false);
+    }
+
+    public boolean isInFlight() {
+        return inFlight.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public long getAdmittedFrames() {
+        return admittedFrames.get();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.mobicom_project;
+
+import android.os.Handler;
+
+/**
+ * {@link Scheduler} that posts onto the looper of a {@link Handler}.
+ */
+public class HandlerScheduler implements Scheduler {
+    private final Handler handler;
+
+    public HandlerScheduler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        handler.post(task);
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return handler.getLooper().isCurrentThread();
+    }
+
+    public Handler getHandler() {
+        return handler;
+    }
+}
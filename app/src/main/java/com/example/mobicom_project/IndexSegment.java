@@ -0,0 +1,228 @@
+package com.example.mobicom_project;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, memory-mapped postings for the documents {@code [firstDoc, endDoc)}
+ * of a {@link TextIndex}. Only the pages a lookup touches are read, so a
+ * segment costs no heap however large it is.
+ * <pre>
+ * header    magic, version, firstDoc, endDoc, gramCount, gramsOffset (ints)
+ * postings  per gram, ascending doc ids as varint deltas
+ * grams     gramCount ints, ascending
+ * offsets   gramCount + 1 ints, where each gram's postings start and the last one ends
+ * </pre>
+ * Reads use absolute positions only and are safe from any thread.
+ */
+public final class IndexSegment {
+    private static final int MAGIC = 0x4E475231; // "NGR1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final Pattern NAME = Pattern.compile("seg-(\\d+)-(\\d+)\\.ngr");
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int firstDoc;
+    private final int endDoc;
+    private final int gramCount;
+    private final int gramsOffset;
+    private final int offsetsOffset;
+
+    private IndexSegment(File file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an index segment: " + file);
+        }
+        firstDoc = buffer.getInt(8);
+        endDoc = buffer.getInt(12);
+        gramCount = buffer.getInt(16);
+        gramsOffset = buffer.getInt(20);
+        offsetsOffset = gramsOffset + 4 * gramCount;
+        if (gramCount < 0 || gramsOffset < HEADER_SIZE || offsetsOffset + 4L * (gramCount + 1) > buffer.capacity()) {
+            throw new IOException("Truncated index segment: " + file);
+        }
+    }
+
+    public static IndexSegment open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return new IndexSegment(file, raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        }
+    }
+
+    static String fileName(int firstDoc, int endDoc) {
+        return "seg-" + firstDoc + "-" + endDoc + ".ngr";
+    }
+
+    /** {@code {firstDoc, endDoc}} from a segment file name, or null if it isn't one. */
+    static int[] parseName(String name) {
+        Matcher matcher = NAME.matcher(name);
+        if (!matcher.matches()) return null;
+        return new int[]{Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))};
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getFirstDoc() {
+        return firstDoc;
+    }
+
+    public int getEndDoc() {
+        return endDoc;
+    }
+
+    public int getGramCount() {
+        return gramCount;
+    }
+
+    int gramAt(int index) {
+        return buffer.getInt(gramsOffset + 4 * index);
+    }
+
+    /** Appends the documents containing {@code gram}, ascending. */
+    public void postings(int gram, IntList out) {
+        int index = find(gram);
+        if (index >= 0) {
+            decode(index, out);
+        }
+    }
+
+    /** Appends the documents containing any gram in {@code [lo, hi]}; not sorted or unique across grams. */
+    public void postingsInRange(int lo, int hi, IntList out) {
+        int index = find(lo);
+        if (index < 0) index = -index - 1;
+        for (; index < gramCount && gramAt(index) <= hi; index++) {
+            decode(index, out);
+        }
+    }
+
+    /** Binary search; like {@link java.util.Arrays#binarySearch}, {@code -(insertion point) - 1} if absent. */
+    private int find(int gram) {
+        int lo = 0;
+        int hi = gramCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = gramAt(mid);
+            if (value < gram) {
+                lo = mid + 1;
+            } else if (value > gram) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -lo - 1;
+    }
+
+    void decode(int index, IntList out) {
+        int position = buffer.getInt(offsetsOffset + 4 * index);
+        int end = buffer.getInt(offsetsOffset + 4 * (index + 1));
+        int doc = firstDoc;
+        while (position < end) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            out.add(doc);
+        }
+    }
+
+    /**
+     * Writes a segment to a temporary file and renames it into place on
+     * {@link #finish()}, so a crash never leaves a partial segment under a
+     * real segment name. Grams must be added in ascending order.
+     */
+    public static final class Writer {
+        private final File target;
+        private final File temp;
+        private final int firstDoc;
+        private final int endDoc;
+        private final DataOutputStream out;
+        private final IntList grams = new IntList();
+        private final IntList offsets = new IntList();
+        private int position = HEADER_SIZE;
+
+        public Writer(File directory, int firstDoc, int endDoc) throws IOException {
+            this.target = new File(directory, fileName(firstDoc, endDoc));
+            this.temp = new File(directory, target.getName() + ".tmp");
+            this.firstDoc = firstDoc;
+            this.endDoc = endDoc;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        /** {@code docs} must be ascending, without repeats, within {@code [firstDoc, endDoc)}. */
+        public void add(int gram, IntList docs) throws IOException {
+            if (docs.isEmpty()) return;
+            if (!grams.isEmpty() && gram <= grams.last()) {
+                throw new IllegalArgumentException("Grams out of order: " + gram + " after " + grams.last());
+            }
+            grams.add(gram);
+            offsets.add(position);
+            int previous = firstDoc;
+            for (int i = 0; i < docs.size(); i++) {
+                int delta = docs.get(i) - previous;
+                previous = docs.get(i);
+                while ((delta & ~0x7F) != 0) {
+                    out.write((delta & 0x7F) | 0x80);
+                    delta >>>= 7;
+                    position++;
+                }
+                out.write(delta);
+                position++;
+            }
+        }
+
+        public IndexSegment finish() throws IOException {
+            offsets.add(position);
+            int gramsOffset = position;
+            for (int i = 0; i < grams.size(); i++) {
+                out.writeInt(grams.get(i));
+            }
+            for (int i = 0; i < offsets.size(); i++) {
+                out.writeInt(offsets.get(i));
+            }
+            out.close();
+            try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(firstDoc).putInt(endDoc)
+                        .putInt(grams.size()).putInt(gramsOffset);
+                raf.write(header.array());
+                raf.getFD().sync();
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Could not rename " + temp + " to " + target);
+            }
+            return open(target);
+        }
+
+        /** Drops the temporary file after a failed write. */
+        public void abort() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.mobicom_project;
+
+/**
+ * Decides per live frame whether running the recognizer is worth it. Frames
+ * are skipped while the camera moves (motion score above the threshold, and
+ * for {@code settleFrames} frames after), while autofocus is scanning or has
+ * given up, and entirely at critical thermal status. Under lighter thermal
+ * throttling {@link #rateFor} lowers the analysis rate instead.
+ *
+ * <p>Inputs arrive from different threads (capture results, the thermal
+ * listener, the image thread); {@link #decide} must be called from one
+ * thread only.
+ */
+public class InferencePolicy {
+    public enum Decision {
+        RUN,
+        SKIP_MOTION,
+        SKIP_FOCUS,
+        SKIP_THERMAL
+    }
+
+    public enum Focus {
+        /** Fixed focus, autofocus off, or no result yet. */
+        UNKNOWN,
+        SCANNING,
+        FOCUSED,
+        UNFOCUSED
+    }
+
+    // same values as PowerManager.THERMAL_STATUS_*
+    static final int THERMAL_NONE = 0;
+    static final int THERMAL_LIGHT = 1;
+    static final int THERMAL_MODERATE = 2;
+    static final int THERMAL_SEVERE = 3;
+    static final int THERMAL_CRITICAL = 4;
+    /** Never slow analysis below this, whatever the thermal status. */
+    static final float MIN_RATE_FPS = 0.5f;
+
+    private final float motionThreshold;
+    private final int settleFrames;
+    private final int maxFocusWaitFrames;
+    private volatile Focus focus = Focus.UNKNOWN;
+    private volatile int thermalStatus = THERMAL_NONE;
+    private int calmFrames;
+    private int focusWaitFrames;
+    private final long[] decisions = new long[Decision.values().length];
+
+    /**
+     * Focus can stay unfocused for good (text too close for the lens), so after
+     * {@code maxFocusWaitFrames} skipped frames in a row one is run anyway.
+     */
+    public InferencePolicy(float motionThreshold, int settleFrames, int maxFocusWaitFrames) {
+        this.motionThreshold = motionThreshold;
+        this.settleFrames = settleFrames;
+        this.maxFocusWaitFrames = maxFocusWaitFrames;
+        this.calmFrames = settleFrames;
+    }
+
+    public Decision decide(float motionScore) {
+        Decision decision = evaluate(motionScore);
+        decisions[decision.ordinal()]++;
+        return decision;
+    }
+
+    private Decision evaluate(float motionScore) {
+        if (thermalStatus >= THERMAL_CRITICAL) {
+            return Decision.SKIP_THERMAL;
+        }
+        if (motionScore > motionThreshold) {
+            calmFrames = 0;
+            return Decision.SKIP_MOTION;
+        }
+        if (calmFrames < settleFrames) {
+            calmFrames++;
+            return Decision.SKIP_MOTION;
+        }
+        Focus current = focus;
+        if ((current == Focus.SCANNING || current == Focus.UNFOCUSED) && focusWaitFrames < maxFocusWaitFrames) {
+            focusWaitFrames++;
+            return Decision.SKIP_FOCUS;
+        }
+        focusWaitFrames = 0;
+        return Decision.RUN;
+    }
+
+    /** Analysis rate to use at the current thermal status, given the rate for a cool device. */
+    public float rateFor(float baseFps) {
+        int status = thermalStatus;
+        float rate;
+        if (status <= THERMAL_LIGHT) {
+            rate = baseFps;
+        } else if (status == THERMAL_MODERATE) {
+            rate = baseFps / 2;
+        } else {
+            rate = baseFps / 4;
+        }
+        return Math.max(MIN_RATE_FPS, rate);
+    }
+
+    public void setFocus(Focus focus) {
+        this.focus = focus;
+    }
+
+    public Focus getFocus() {
+        return focus;
+    }
+
+    public void setThermalStatus(int thermalStatus) {
+        this.thermalStatus = thermalStatus;
+    }
+
+    public int getThermalStatus() {
+        return thermalStatus;
+    }
+
+    public long getCount(Decision decision) {
+        return decisions[decision.ordinal()];
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mobicom_project;
+
+import java.util.Arrays;
+
+/** Growable int array, to keep postings and grams unboxed. */
+public final class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int last() {
+        return values[size - 1];
+    }
+
+    /** Sorts ascending and drops repeated values. */
+    public void sortUnique() {
+        Arrays.sort(values, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        size = unique;
+    }
+
+    /** Keeps only the values also in {@code other}; both must be sorted ascending without repeats. */
+    public void retainSorted(IntList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            while (j < other.size && other.values[j] < values[i]) j++;
+            if (j < other.size && other.values[j] == values[i]) {
+                values[kept++] = values[i];
+            }
+        }
+        size = kept;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.mobicom_project;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram. Bucket bounds grow by 20% from 50us to about
+ * a minute, so any percentile is reported within 20% of the true value.
+ * Recording is a binary search over a shared bounds table plus atomic
+ * increments: lock-free and allocation-free.
+ */
+public class LatencyHistogram {
+    static final long[] BOUNDS = buildBounds();
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private static long[] buildBounds() {
+        long first = TimeUnit.MICROSECONDS.toNanos(50);
+        long last = TimeUnit.SECONDS.toNanos(60);
+        int n = 0;
+        for (double b = first; b < last; b *= 1.2) n++;
+        long[] bounds = new long[n];
+        double b = first;
+        for (int i = 0; i < n; i++, b *= 1.2) bounds[i] = (long) b;
+        return bounds;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        int low = 0;
+        int high = BOUNDS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), capped
+     * at the largest recorded value. Returns 0 when nothing was recorded.
+     */
+    public long percentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], maxNanos.get()) : maxNanos.get();
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMeanNanos() {
+        long total = count.get();
+        return total == 0 ? 0 : totalNanos.get() / total;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Cleans up the Y plane of a YUV frame before recognition: area-average
+ * downscaling, deskew (projection profile search, then a shear) and adaptive
+ * (local mean) thresholding, each optional. The result is written as NV21 with neutral
+ * chroma, so it goes to ML Kit like any cropped frame.
+ * <p>
+ * Kernels run over primitive arrays that are kept and grown between frames,
+ * so steady-state frames allocate nothing. Instances are not thread-safe,
+ * and a plane must not be read by another thread while it is processed.
+ */
+public final class LumaPreprocessor {
+    public static final class Config {
+        /** Longest output side; larger crops are averaged down. 0 keeps the size. */
+        public final int maxSide;
+        /** Side of the local mean window, in output pixels. 0 keeps gray levels. */
+        public final int thresholdWindow;
+        /** A pixel turns black when it is this many percent darker than its window's mean. */
+        public final int thresholdPercent;
+        /** Skew searched either way, in degrees. 0 disables deskew. */
+        public final float maxSkewDegrees;
+
+        public static final Config DEFAULT = new Config(1280, 31, 12, 8f);
+
+        public Config(int maxSide, int thresholdWindow, int thresholdPercent, float maxSkewDegrees) {
+            this.maxSide = maxSide;
+            this.thresholdWindow = thresholdWindow;
+            this.thresholdPercent = thresholdPercent;
+            this.maxSkewDegrees = maxSkewDegrees;
+        }
+    }
+
+    /** Skews smaller than this aren't worth resampling the page for. */
+    static final float MIN_SKEW_DEGREES = 0.2f;
+    static final float COARSE_STEP_DEGREES = 1f;
+    static final float FINE_STEP_DEGREES = 0.2f;
+    /** Columns (or rows, for vertical lines) sampled for the skew profile, at most every fourth. */
+    static final int SKEW_SAMPLES = 160;
+    /** Below this many ink samples there is no text to line up. */
+    static final int MIN_INK_SAMPLES = 64;
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private byte[] gray = new byte[0];
+    private byte[] work = new byte[0];
+    private byte[] row = new byte[0];
+    private byte[] chroma = new byte[0];
+    private int[] columnSums = new int[0];
+    private int[] xBounds = new int[0];
+    private int[] integral = new int[0];
+    private int[] ink = new int[0];
+    private int[] profile = new int[0];
+    private float lastSkewDegrees;
+
+    /** Output width for a {@code width} x {@code height} crop; even, so the NV21 chroma lines up. */
+    public static int outputWidth(Config config, int width, int height) {
+        return scale(width, width, height, config.maxSide);
+    }
+
+    public static int outputHeight(Config config, int width, int height) {
+        return scale(height, width, height, config.maxSide);
+    }
+
+    private static int scale(int length, int width, int height, int maxSide) {
+        int longSide = Math.max(width, height);
+        int scaled = maxSide <= 0 || longSide <= maxSide ? length : (int) ((long) length * maxSide / longSide);
+        return Math.max(2, scaled & ~1);
+    }
+
+    /** Skew corrected on the last frame, in degrees; 0 if it was left alone. */
+    public float getLastSkewDegrees() {
+        return lastSkewDegrees;
+    }
+
+    /**
+     * Preprocesses {@code crop} of a luma plane into {@code out} as NV21 of
+     * {@link #outputWidth} x {@link #outputHeight}. {@code linesVertical} is
+     * true when text lines run top to bottom in the plane, i.e. the sensor is
+     * rotated 90 or 270 degrees from the page. {@code out} is filled from
+     * index 0 and left with position 0 and the limit at the end of the data.
+     */
+    public void process(Config config, ByteBuffer plane, int rowStride, int pixelStride, Box crop,
+                        boolean linesVertical, ByteBuffer out) {
+        int width = outputWidth(config, crop.width(), crop.height());
+        int height = outputHeight(config, crop.width(), crop.height());
+        int pixels = width * height;
+        gray = ensure(gray, pixels);
+        work = ensure(work, pixels);
+        downscale(plane, rowStride, pixelStride, crop, gray, width, height);
+
+        lastSkewDegrees = 0;
+        byte[] result = gray;
+        if (config.thresholdWindow > 0) {
+            threshold(gray, work, width, height, config.thresholdWindow, config.thresholdPercent);
+            result = work;
+        }
+        if (config.maxSkewDegrees > 0) {
+            byte[] mask = result;
+            if (mask == gray) {
+                threshold(gray, work, width, height, Config.DEFAULT.thresholdWindow, Config.DEFAULT.thresholdPercent);
+                mask = work;
+            }
+            float skew = estimateSkew(mask, width, height, linesVertical, config.maxSkewDegrees);
+            if (Math.abs(skew) >= MIN_SKEW_DEGREES) {
+                // shearing the thresholded page is as good as thresholding the sheared one, and saves a pass
+                byte[] level = result == gray ? work : gray;
+                shear(result, level, width, height, skew, linesVertical);
+                result = level;
+                lastSkewDegrees = skew;
+            }
+        }
+
+        int chromaSize = YuvCropper.nv21Size(width, height) - pixels;
+        if (chroma.length < chromaSize) {
+            chroma = new byte[chromaSize];
+            Arrays.fill(chroma, NEUTRAL_CHROMA);
+        }
+        out.clear();
+        out.put(result, 0, pixels).put(chroma, 0, chromaSize);
+        out.flip();
+    }
+
+    /**
+     * Area-average downscale of {@code crop} into {@code out}: each output
+     * pixel is the mean of the source pixels it covers. Rows of a block are
+     * summed per column first, so every source pixel is read once.
+     */
+    void downscale(ByteBuffer plane, int rowStride, int pixelStride, Box crop, byte[] out, int outW, int outH) {
+        int w = crop.width();
+        int h = crop.height();
+        // bulk row reads move the plane's position; it is put back before returning
+        int position = plane.position();
+        row = ensure(row, w);
+        if (outW == w && outH == h && pixelStride == 1) {
+            for (int y = 0; y < h; y++) {
+                plane.position((crop.top + y) * rowStride + crop.left);
+                plane.get(out, y * w, w);
+            }
+            plane.position(position);
+            return;
+        }
+        columnSums = ensure(columnSums, w);
+        xBounds = ensure(xBounds, outW + 1);
+        for (int x = 0; x <= outW; x++) {
+            xBounds[x] = (int) ((long) x * w / outW);
+        }
+        int[] sums = columnSums;
+        byte[] line = row;
+        for (int oy = 0; oy < outH; oy++) {
+            int y0 = (int) ((long) oy * h / outH);
+            int y1 = (int) ((long) (oy + 1) * h / outH);
+            Arrays.fill(sums, 0, w, 0);
+            for (int y = y0; y < y1; y++) {
+                int rowStart = (crop.top + y) * rowStride + crop.left * pixelStride;
+                if (pixelStride == 1) {
+                    plane.position(rowStart);
+                    plane.get(line, 0, w);
+                    for (int x = 0; x < w; x++) {
+                        sums[x] += line[x] & 0xFF;
+                    }
+                } else {
+                    for (int x = 0; x < w; x++) {
+                        sums[x] += plane.get(rowStart + x * pixelStride) & 0xFF;
+                    }
+                }
+            }
+            int rows = y1 - y0;
+            int outRow = oy * outW;
+            for (int ox = 0; ox < outW; ox++) {
+                int x0 = xBounds[ox];
+                int x1 = xBounds[ox + 1];
+                int sum = 0;
+                for (int x = x0; x < x1; x++) {
+                    sum += sums[x];
+                }
+                int count = rows * (x1 - x0);
+                out[outRow + ox] = (byte) ((sum + count / 2) / count);
+            }
+        }
+        plane.position(position);
+    }
+
+    /**
+     * Local mean thresholding (Bradley): black where a pixel is
+     * {@code percent} darker than the mean of the {@code window}-wide square
+     * around it, white elsewhere. Window sums come from an integral image, so
+     * the cost doesn't depend on the window. {@code src} and {@code dst} may
+     * be the same array.
+     */
+    void threshold(byte[] src, byte[] dst, int w, int h, int window, int percent) {
+        int stride = w + 1;
+        integral = ensure(integral, stride * (h + 1));
+        int[] sums = integral;
+        Arrays.fill(sums, 0, stride, 0);
+        for (int y = 0; y < h; y++) {
+            int rowSum = 0;
+            int above = y * stride;
+            int current = above + stride;
+            sums[current] = 0;
+            for (int x = 0; x < w; x++) {
+                rowSum += src[y * w + x] & 0xFF;
+                // may wrap past 2^31 on large frames; window sums are differences, so they still come out exact
+                sums[current + x + 1] = sums[above + x + 1] + rowSum;
+            }
+        }
+        int radius = window / 2;
+        long keep = 100 - percent;
+        // columns whose window lies fully inside the row; no clamping needed there
+        int innerFrom = Math.min(w, radius);
+        int innerTo = Math.max(innerFrom, w - radius);
+        for (int y = 0; y < h; y++) {
+            int top = Math.max(0, y - radius) * stride;
+            int bottom = Math.min(h, y + radius + 1) * stride;
+            int rows = Math.min(h, y + radius + 1) - Math.max(0, y - radius);
+            int row = y * w;
+            for (int x = 0; x < innerFrom; x++) {
+                thresholdPixel(src, dst, row + x, sums, top, bottom, rows, x - radius, x + radius + 1, w, keep);
+            }
+            long innerCount = (long) rows * (2 * radius + 1) * 100;
+            for (int x = innerFrom; x < innerTo; x++) {
+                int left = x - radius;
+                int right = x + radius + 1;
+                int sum = sums[bottom + right] - sums[top + right] - sums[bottom + left] + sums[top + left];
+                dst[row + x] = (src[row + x] & 0xFF) * innerCount <= sum * keep ? 0 : (byte) 255;
+            }
+            for (int x = innerTo; x < w; x++) {
+                thresholdPixel(src, dst, row + x, sums, top, bottom, rows, x - radius, x + radius + 1, w, keep);
+            }
+        }
+    }
+
+    private static void thresholdPixel(byte[] src, byte[] dst, int index, int[] sums, int top, int bottom, int rows,
+                                       int left, int right, int w, long keep) {
+        left = Math.max(0, left);
+        right = Math.min(w, right);
+        int sum = sums[bottom + right] - sums[top + right] - sums[bottom + left] + sums[top + left];
+        long count = (long) rows * (right - left) * 100;
+        dst[index] = (src[index] & 0xFF) * count <= sum * keep ? 0 : (byte) 255;
+    }
+
+    /**
+     * Skew of the text lines in a thresholded image, in degrees, positive
+     * when horizontal lines fall to the right (or vertical lines drift right
+     * going down). Ink samples are projected along each candidate angle; the
+     * angle whose profile has the sharpest line/gap transitions wins. A
+     * coarse search is refined around the best coarse angle.
+     */
+    float estimateSkew(byte[] binary, int w, int h, boolean linesVertical, float maxDegrees) {
+        // along: the axis lines run along; across: the axis that is projected
+        int along = linesVertical ? h : w;
+        int across = linesVertical ? w : h;
+        int count = 0;
+        int step = Math.max(4, along / SKEW_SAMPLES);
+        for (int a = step / 2; a < along; a += step) {
+            for (int c = 0; c < across; c++) {
+                int index = linesVertical ? a * w + c : c * w + a;
+                if (binary[index] == 0) {
+                    if (count == ink.length) {
+                        ink = Arrays.copyOf(ink, Math.max(1024, count * 2));
+                    }
+                    ink[count++] = (a - along / 2) << 16 | c;
+                }
+            }
+        }
+        if (count < MIN_INK_SAMPLES) return 0;
+
+        int margin = (int) Math.ceil(along / 2.0 * Math.tan(Math.toRadians(maxDegrees))) + 1;
+        profile = ensure(profile, across + 2 * margin);
+        float best = 0;
+        long bestScore = -1;
+        for (float degrees = -maxDegrees; degrees <= maxDegrees + 1e-3f; degrees += COARSE_STEP_DEGREES) {
+            long score = profileScore(count, degrees, across, margin);
+            if (score > bestScore) {
+                bestScore = score;
+                best = degrees;
+            }
+        }
+        float coarse = best;
+        for (float degrees = coarse - COARSE_STEP_DEGREES; degrees <= coarse + COARSE_STEP_DEGREES + 1e-3f; degrees += FINE_STEP_DEGREES) {
+            if (Math.abs(degrees) > maxDegrees + 1e-3f) continue;
+            long score = profileScore(count, degrees, across, margin);
+            if (score > bestScore) {
+                bestScore = score;
+                best = degrees;
+            }
+        }
+        return best;
+    }
+
+    /** Sum of squared differences between neighbouring bins of the projection at {@code degrees}. */
+    private long profileScore(int count, float degrees, int across, int margin) {
+        int bins = across + 2 * margin;
+        int[] histogram = profile;
+        Arrays.fill(histogram, 0, bins, 0);
+        int slope = (int) Math.round(Math.tan(Math.toRadians(degrees)) * 65536);
+        for (int i = 0; i < count; i++) {
+            int sample = ink[i];
+            int a = sample >> 16;
+            int c = sample & 0xFFFF;
+            int bin = c - (int) ((long) a * slope >> 16) + margin;
+            if (bin >= 0 && bin < bins) histogram[bin]++;
+        }
+        long score = 0;
+        for (int i = 1; i < bins; i++) {
+            long step = histogram[i] - histogram[i - 1];
+            score += step * step;
+        }
+        return score;
+    }
+
+    /**
+     * Undoes a skew of {@code degrees} (as {@link #estimateSkew} reports it)
+     * with a shear: each column (or row, for vertical lines) is shifted by
+     * whole pixels so the lines come out level. Within the few degrees
+     * searched a shear matches a rotation to about 1%, and it moves bytes
+     * instead of interpolating them. Pixels from outside the image are white.
+     */
+    void shear(byte[] src, byte[] dst, int w, int h, float degrees, boolean linesVertical) {
+        double slope = Math.tan(Math.toRadians(degrees));
+        if (linesVertical) {
+            // one shift per row: row copies
+            for (int y = 0; y < h; y++) {
+                int shift = (int) Math.round((y - h / 2.0) * slope);
+                int row = y * w;
+                int from = Math.max(0, -shift);
+                int to = Math.min(w, w - shift);
+                if (from >= to) {
+                    Arrays.fill(dst, row, row + w, (byte) 255);
+                    continue;
+                }
+                Arrays.fill(dst, row, row + from, (byte) 255);
+                System.arraycopy(src, row + from + shift, dst, row + from, to - from);
+                Arrays.fill(dst, row + to, row + w, (byte) 255);
+            }
+            return;
+        }
+        // one shift per column, kept as an index offset
+        xBounds = ensure(xBounds, w);
+        int[] offsets = xBounds;
+        int maxShift = 0;
+        for (int x = 0; x < w; x++) {
+            int shift = (int) Math.round((x - w / 2.0) * slope);
+            offsets[x] = shift * w;
+            maxShift = Math.max(maxShift, Math.abs(shift));
+        }
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            if (y >= maxShift && y < h - maxShift) {
+                for (int x = 0; x < w; x++) {
+                    dst[row + x] = src[row + x + offsets[x]];
+                }
+            } else {
+                for (int x = 0; x < w; x++) {
+                    int index = row + x + offsets[x];
+                    dst[row + x] = index >= 0 && index < w * h ? src[index] : (byte) 255;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps {@code box}, found in an output that {@link #shear} leveled by
+     * {@code degrees}, back to the image before the shear: its corners are
+     * moved the other way and bounded again. {@code box} is in the output's
+     * {@code w} x {@code h} pixels and orientation; {@code out} may be {@code box}.
+     */
+    public static Box unshear(Box box, int w, int h, float degrees, boolean linesVertical, Box out) {
+        double slope = Math.tan(Math.toRadians(degrees));
+        if (linesVertical) {
+            double first = (box.top - h / 2.0) * slope;
+            double last = (box.bottom - h / 2.0) * slope;
+            return out.set((int) Math.floor(box.left + Math.min(first, last)), box.top,
+                    (int) Math.ceil(box.right + Math.max(first, last)), box.bottom);
+        }
+        double first = (box.left - w / 2.0) * slope;
+        double last = (box.right - w / 2.0) * slope;
+        return out.set(box.left, (int) Math.floor(box.top + Math.min(first, last)),
+                box.right, (int) Math.ceil(box.bottom + Math.max(first, last)));
+    }
+
+    private static byte[] ensure(byte[] array, int size) {
+        return array.length >= size ? array : new byte[size];
+    }
+
+    private static int[] ensure(int[] array, int size) {
+        return array.length >= size ? array : new int[size];
+    }
+}
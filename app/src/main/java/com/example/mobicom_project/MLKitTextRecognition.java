@@ -1,18 +1,16 @@
 package com.example.mobicom_project;
 
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
 import android.graphics.Rect;
-import android.graphics.Typeface;
 import android.media.Image;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Spannable;
-import android.text.SpannableStringBuilder;
-import android.text.TextPaint;
 import android.text.style.ForegroundColorSpan;
 import android.util.Log;
-import android.view.ViewTreeObserver;
+import android.util.SparseArray;
 import android.widget.ImageView;
 import android.widget.TextView;
 
@@ -20,135 +18,634 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.collection.CircularArray;
 
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
-import com.google.mlkit.vision.text.TextRecognition;
-import com.google.mlkit.vision.text.TextRecognizer;
-import com.google.mlkit.vision.text.korean.KoreanTextRecognizerOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MLKitTextRecognition extends AppCompatActivity {
     final String TAG = "MLKitTextRecognition";
-    final private ImageView canvasView;
+    final private OverlayView canvasView;
     final private ImageView capturedView;
     private TextView textScrollView;
-    private Bitmap canvasBitmap;
-    private Canvas boundingBoxCanvas;
+    private volatile Box regionOfInterest;
+    private final BitmapPool bitmapPool = BitmapPool.get();
+    private final BufferPool bufferPool = BufferPool.get();
+    private final FrameHasher frameHasher = new FrameHasher();
+    private final LumaPreprocessor preprocessor = new LumaPreprocessor();
+    /** Off unless the camera screen is started with {@link CameraActivity#EXTRA_PREPROCESS}, so frames go to ML Kit without a copy. */
+    private volatile LumaPreprocessor.Config preprocessing;
+    private int[] hashPixels;
+    private final RecognitionCache<List<OcrBlock>> resultCache;
+    private final RecognitionCache<List<OcrBlock>> liveCache;
+    private FramePipeline livePipeline;
+    private final PerfMetrics metrics = PerfMetrics.get();
+    private final BlockTracker blockTracker = new BlockTracker(TRACK_MIN_IOU, MERGE_MIN_CONFIDENCE);
+    private final TextDiffer textDiffer = new TextDiffer();
+    private final SparseArray<ForegroundColorSpan> blockSpans = new SparseArray<>();
+    /** Spans of removed blocks, by color index, handed to the next block of that color. */
+    private final List<List<ForegroundColorSpan>> freeSpans = new ArrayList<>(OverlayView.COLORS.length);
+    static final float TRACK_MIN_IOU = 0.5f;
+    /** Lines read below this confidence may be replaced by the previous frame's reading. */
+    static final float MERGE_MIN_CONFIDENCE = 0.5f;
+    static final int DEFAULT_CACHE_SIZE = 8;
+    /** Hashes at most this many bits apart are treated as the same scene. */
+    static final int CACHE_MAX_DISTANCE = 6;
+    static final int HASH_SAMPLE_SIZE = 16;
+
+    private final RecognizerRegistry recognizers = RecognizerRegistry.getInstance();
+    private final ScriptDetector scriptDetector = new ScriptDetector(SCRIPT_RECHECK_FRAMES);
+    private volatile Script script = Script.AUTO;
+    static final int SCRIPT_RECHECK_FRAMES = 15;
 
-    private final TextRecognizer recognizerKor;
+    private final TileMerger tileMerger = new TileMerger(TILE_MIN_OVERLAP);
+    private ExecutorService tileExecutor;
+    private volatile boolean tiledStills = true;
+    static final int TILE_SIZE = 1024;
+    static final int TILE_OVERLAP = 128;
+    /**
+     * Lines from two tiles overlapping by this much of the smaller one are the
+     * same reading; less, with this much of their height shared, they are two
+     * fragments of a line crossing the seam.
+     */
+    static final float TILE_MIN_OVERLAP = 0.5f;
+    /** Each tile in flight holds a decoded bitmap, so keep this small. */
+    static final int TILE_THREADS = 2;
+    static final int TILED_MIN_PIXELS = 3_000_000;
+
+    MLKitTextRecognition(OverlayView canvas, ImageView capture, TextView textScroll) {
+        this(canvas, capture, textScroll, DEFAULT_CACHE_SIZE);
+    }
 
-    MLKitTextRecognition(ImageView canvas, ImageView capture, TextView textScroll) {
+    MLKitTextRecognition(OverlayView canvas, ImageView capture, TextView textScroll, int cacheSize) {
         Log.i(TAG, "MLKitTextRecognition: Constructor");
-        recognizerKor = TextRecognition.getClient(new KoreanTextRecognizerOptions.Builder().build());
+        resultCache = new RecognitionCache<>(cacheSize, CACHE_MAX_DISTANCE);
+        liveCache = new RecognitionCache<>(cacheSize, CACHE_MAX_DISTANCE);
         canvasView = canvas;
         capturedView = capture;
         textScrollView = textScroll;
+        // edited in place by textSink instead of being replaced per result
+        textScrollView.setText("", TextView.BufferType.EDITABLE);
+        for (int i = 0; i < OverlayView.COLORS.length; i++) {
+            freeSpans.add(new ArrayList<>());
+        }
+    }
 
-        this.canvasView.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
-            @Override
-            public void onGlobalLayout() {
-                Log.e(TAG, "MLKitTextRecognition: Constructor - W:" + canvasView.getWidth() + ", H:" + canvasView.getHeight());
-
-                canvasBitmap = Bitmap.createBitmap(canvasView.getWidth(), canvasView.getHeight(), Bitmap.Config.ARGB_8888);
-                boundingBoxCanvas = new Canvas(canvasBitmap);
-                boundingBoxCanvas.drawColor(Color.TRANSPARENT);
-                canvasView.setImageBitmap(canvasBitmap);
+    /**
+     * Builds the live-analysis pipeline: ML Kit behind {@code throttler} and
+     * the live result cache, drawing into the overlay on the UI thread, where
+     * {@code onDrawn} runs after each result. Feed it with {@link #analyze}.
+     */
+    public FramePipeline createLivePipeline(FrameThrottler throttler, Runnable onDrawn) {
+        FramePipeline pipeline = new FramePipeline(throttler, liveRecognizer, liveCache, (width, height, blocks) -> {
+            drawBlocks(width, height, copyOf(blocks), false);
+            onDrawn.run();
+        }, new HandlerScheduler(new Handler(Looper.getMainLooper())), PerfMetrics::now);
+        pipeline.setMetrics(metrics);
+        livePipeline = pipeline;
+        return pipeline;
+    }
 
-                canvasView.getViewTreeObserver().removeOnGlobalLayoutListener(this);
-            }
-        });
+    /**
+     * Hands a live frame to the pipeline, restricted to the region of
+     * interest. The pipeline closes the frame. Image thread only.
+     */
+    public void analyze(Frame frame, int rotation) {
+        livePipeline.setRotation(rotation);
+        livePipeline.setRegion(uprightRegion(frame.getWidth(), frame.getHeight(), rotation));
+        livePipeline.onFrame(frame);
     }
 
-    public Task<Text> recognizeTextFromImage(Image snapshot, int rotation) {
-        Log.i(TAG, "recognizeTextFromImage: rotation - " + rotation);
-        InputImage image = InputImage.fromMediaImage(snapshot, rotation);
-        capturedView.setImageBitmap(image.getBitmapInternal());
-        return recognizerKor.process(image)
-                .addOnSuccessListener(visionText -> {
-                    Log.i(TAG, "onSuccess: " +  visionText.getText());
-                    runOnUiThread(() -> drawBoundingBox(image.getWidth(), image.getHeight(), visionText));
+    private final FrameRecognizer liveRecognizer = (frame, rawCrop, rotation, callback) ->
+            recognizeCrop(frame, rawCrop, rotation, PerfMetrics.now()).addOnCompleteListener(task -> {
+                if (task.isSuccessful()) {
+                    callback.onRecognized(task.getResult());
+                } else {
+                    Log.i(TAG, "onFailure: " + task.getException());
+                    callback.onFailed(task.getException());
+                }
+            });
+
+    /**
+     * Recognizes a still and draws it as a new picture, so block tracking
+     * starts afresh instead of inheriting ids and colors from the live
+     * preview. The caller keeps ownership of {@code snapshot} and must not
+     * close it before the returned task completes.
+     */
+    public Task<List<OcrBlock>> recognizeStill(Frame snapshot, int rotation) {
+        final long frameStart = PerfMetrics.now();
+        int rawW = snapshot.getWidth();
+        int rawH = snapshot.getHeight();
+        // bounding boxes are reported in the rotated (upright) frame
+        boolean swap = rotation == 90 || rotation == 270;
+        final int uprightW = swap ? rawH : rawW;
+        final int uprightH = swap ? rawW : rawH;
+        final Box rawCrop = RoiMapper.cropFor(uprightRegion(rawW, rawH, rotation), rotation, rawW, rawH, new Box());
+
+        long frameHash;
+        boolean cacheable = true;
+        try {
+            frameHash = hashFrame(snapshot, rawCrop);
+        } catch (IOException e) {
+            // an unhashable frame must not share an entry with other failures
+            Log.i(TAG, "hashFrame: " + e);
+            frameHash = 0;
+            cacheable = false;
+        }
+        final long hash = frameHash;
+        final boolean useCache = cacheable;
+        List<OcrBlock> cached = useCache ? resultCache.get(hash, rawCrop) : null;
+        if (cached != null) {
+            metrics.increment(PerfMetrics.Counter.CACHE_HITS);
+            runOnUiThread(() -> {
+                drawBlocks(uprightW, uprightH, copyOf(cached), true);
+                metrics.recordSince(PerfMetrics.Span.FRAME_TO_DRAW, frameStart);
+            });
+            return Tasks.forResult(cached);
+        }
+        metrics.increment(PerfMetrics.Counter.CACHE_MISSES);
+        return recognizeCrop(snapshot, rawCrop, rotation, frameStart)
+                .addOnSuccessListener(blocks -> {
+                    final long resultAt = PerfMetrics.now();
+                    if (useCache) {
+                        resultCache.put(hash, rawCrop, blocks);
+                    }
+                    runOnUiThread(() -> {
+                        drawBlocks(uprightW, uprightH, copyOf(blocks), true);
+                        metrics.recordSince(PerfMetrics.Span.OCR_TO_DRAW, resultAt);
+                        metrics.recordSince(PerfMetrics.Span.FRAME_TO_DRAW, frameStart);
+                    });
                 })
                 .addOnFailureListener(e -> {
                     Log.i(TAG, "onFailure: " +  e);
-                })
-                .addOnCompleteListener(task -> {
-                    Log.i(TAG, "onComplete: " +  task);
                 });
     }
 
-    public Task<Text> recognizeTextFromImage(InputImage image) {
-        capturedView.setImageBitmap(image.getBitmapInternal());
-        return recognizerKor.process(image)
-                .addOnSuccessListener(visionText -> {
-                    Log.i(TAG, "onSuccess: " +  visionText.getText());
-                    runOnUiThread(() -> drawBoundingBox(image.getWidth(), image.getHeight(), visionText));
-                })
-                .addOnFailureListener(e -> {
-                    Log.i(TAG, "onFailure: " +  e);
-                })
-                .addOnCompleteListener(task -> {
-                    Log.i(TAG, "onComplete: " +  task);
-                });
+    /**
+     * Runs ML Kit on {@code rawCrop} of the frame and reports blocks in the
+     * upright full frame. JPEG stills are region-decoded and YUV frames are
+     * copied out as NV21, unless the crop is a whole camera frame, which is
+     * wrapped as is. With preprocessing on, YUV frames go through
+     * {@link LumaPreprocessor} instead and the result is scaled back to frame
+     * coordinates. Image thread only.
+     */
+    private Task<List<OcrBlock>> recognizeCrop(Frame snapshot, Box rawCrop, int rotation, long frameStart) {
+        int rawW = snapshot.getWidth();
+        int rawH = snapshot.getHeight();
+        final Box uprightCrop = RoiMapper.rawToUpright(rawCrop, rotation, rawW, rawH, new Box());
+        final LumaPreprocessor.Config config = snapshot.getFormat() == Frame.Format.YUV_420_888 ? preprocessing : null;
+        final int inputW = config == null ? rawCrop.width() : LumaPreprocessor.outputWidth(config, rawCrop.width(), rawCrop.height());
+        final int inputH = config == null ? rawCrop.height() : LumaPreprocessor.outputHeight(config, rawCrop.width(), rawCrop.height());
+        // blocks come back in the recognized image's pixels
+        final float scale = (float) rawCrop.width() / inputW;
+
+        boolean isFullFrame = rawCrop.width() == rawW && rawCrop.height() == rawH;
+        final PooledInput input;
+        Unshear unshear = null;
+        if (config != null) {
+            input = preprocessImage(snapshot, rawCrop, config, inputW, inputH, rotation);
+            float skew = preprocessor.getLastSkewDegrees();
+            unshear = skew == 0 ? null : new Unshear(skew, rotation, inputW, inputH);
+        } else if (isFullFrame && snapshot.getSource() instanceof Image) {
+            input = new PooledInput(InputImage.fromMediaImage((Image) snapshot.getSource(), rotation), null, null);
+        } else {
+            input = cropImage(snapshot, rawCrop, rotation);
+        }
+        if (input == null) {
+            return Tasks.forException(new IOException("Could not crop frame to " + rawCrop));
+        }
+        metrics.recordSince(PerfMetrics.Span.FRAME_TO_OCR_START, frameStart);
+        final long ocrStart = PerfMetrics.now();
+        final Unshear deskewed = unshear;
+        return process(input.image).continueWith(task -> {
+            input.release();
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            metrics.recordSince(PerfMetrics.Span.OCR, ocrStart);
+            return toBlocks(task.getResult(), uprightCrop.left, uprightCrop.top, scale, deskewed);
+        });
+    }
+
+    /** The region of interest in the upright frame, or null to recognize all of it. */
+    private Box uprightRegion(int rawW, int rawH, int rotation) {
+        Box roi = regionOfInterest;
+        int viewW = canvasView.getWidth();
+        int viewH = canvasView.getHeight();
+        if (roi == null || viewW <= 0 || viewH <= 0) return null;
+        boolean swap = rotation == 90 || rotation == 270;
+        return RoiMapper.viewToUpright(roi, viewW, viewH, swap ? rawH : rawW, swap ? rawW : rawH, new Box());
+    }
+
+    /** Cached blocks are shared, and {@link BlockTracker} edits the ones it is given. */
+    private static List<OcrBlock> copyOf(List<OcrBlock> blocks) {
+        List<OcrBlock> copy = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            copy.add(blocks.get(i).copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the crop into pooled memory: a pooled bitmap for JPEG, a pooled
+     * direct buffer of NV21 for YUV. Each call gets its own, so a still and a
+     * live frame can be in ML Kit at the same time.
+     */
+    private PooledInput cropImage(Frame snapshot, Box rawCrop, int rotation) {
+        if (snapshot.getFormat() == Frame.Format.JPEG) {
+            ByteBuffer jpeg = snapshot.getPlane(0).duplicate();
+            try {
+                BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(new ByteBufferInputStream(jpeg), false);
+                Bitmap region = bitmapPool.decodeRegion(decoder, new Rect(rawCrop.left, rawCrop.top, rawCrop.right, rawCrop.bottom), 1);
+                decoder.recycle();
+                return region == null ? null : new PooledInput(InputImage.fromBitmap(region, rotation), region, null);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        ByteBuffer nv21 = bufferPool.acquire(YuvCropper.nv21Size(rawCrop.width(), rawCrop.height()));
+        YuvCropper.cropToNv21(snapshot.getPlane(0), snapshot.getRowStride(0), snapshot.getPixelStride(0),
+                snapshot.getPlane(1), snapshot.getPlane(2), snapshot.getRowStride(1), snapshot.getPixelStride(1),
+                rawCrop, nv21);
+        InputImage image = InputImage.fromByteBuffer(nv21, rawCrop.width(), rawCrop.height(), rotation, InputImage.IMAGE_FORMAT_NV21);
+        return new PooledInput(image, null, nv21);
     }
 
-    private void drawBoundingBox(int imageW, int imageH, Text output) {
-        Log.i(TAG, "drawBoundingBox: imageW = " + imageW + ", imageH = " + imageH);
+    /**
+     * Downscales, deskews and thresholds the crop's luma into a pooled NV21
+     * buffer of {@code width} x {@code height}, with neutral chroma. The skew
+     * it corrected is left in {@link LumaPreprocessor#getLastSkewDegrees()}.
+     * Image thread only, the preprocessor's buffers aren't shared.
+     */
+    private PooledInput preprocessImage(Frame snapshot, Box rawCrop, LumaPreprocessor.Config config,
+                                        int width, int height, int rotation) {
+        long start = PerfMetrics.now();
+        ByteBuffer nv21 = bufferPool.acquire(YuvCropper.nv21Size(width, height));
+        preprocessor.process(config, snapshot.getPlane(0), snapshot.getRowStride(0), snapshot.getPixelStride(0),
+                rawCrop, rotation == 90 || rotation == 270, nv21);
+        metrics.recordSince(PerfMetrics.Span.PREPROCESS, start);
+        InputImage image = InputImage.fromByteBuffer(nv21, width, height, rotation, InputImage.IMAGE_FORMAT_NV21);
+        return new PooledInput(image, null, nv21);
+    }
 
-        int[] colors = {Color.RED, Color.BLUE, Color.BLACK, Color.CYAN, Color.GREEN, Color.MAGENTA, Color.GRAY};
-        int colorIndex = 0;
-        int spannableIndex = 0;
+    /** An InputImage and the pooled memory behind it, handed back once ML Kit is done with it. */
+    private final class PooledInput {
+        final InputImage image;
+        final Bitmap bitmap;
+        final ByteBuffer buffer;
 
-        Paint bgPaint = new Paint();
-        bgPaint.setStyle(Paint.Style.FILL);
-        bgPaint.setColor(Color.argb(0.3f, 1.0f, 1.0f, 1.0f));
+        PooledInput(InputImage image, Bitmap bitmap, ByteBuffer buffer) {
+            this.image = image;
+            this.bitmap = bitmap;
+            this.buffer = buffer;
+        }
 
-        Paint strokePaint = new Paint();
-        strokePaint.setStyle(Paint.Style.STROKE);
-        strokePaint.setColor(Color.RED);
-        strokePaint.setStrokeWidth(10);
+        void release() {
+            if (bitmap != null) bitmapPool.release(bitmap);
+            if (buffer != null) bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Runs the recognizer for the selected script. In {@link Script#AUTO} mode
+     * a Latin pass runs first every {@value #SCRIPT_RECHECK_FRAMES} frames; if
+     * the page reads as Latin that result is used and the Korean model is
+     * skipped until the next check.
+     */
+    private Task<Text> process(InputImage image) {
+        Script selected = script;
+        if (selected != Script.AUTO) {
+            return recognizers.process(selected, image);
+        }
+        if (!scriptDetector.needsDetection()) {
+            return recognizers.process(scriptDetector.nextFrame(), image);
+        }
+        return recognizers.process(Script.LATIN, image).continueWithTask(latinTask -> {
+            if (latinTask.isSuccessful()) {
+                Text latin = latinTask.getResult();
+                if (scriptDetector.detect(latin.getText(), identifiedLanguageRatio(latin)) == Script.LATIN) {
+                    return latinTask;
+                }
+            }
+            return recognizers.process(Script.KOREAN, image);
+        });
+    }
 
-        TextPaint textPaint = new TextPaint();
-        textPaint.setColor(Color.BLACK);
-        textPaint.setTextSize(140);
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setTypeface(Typeface.defaultFromStyle(Typeface.BOLD));
-        SpannableStringBuilder builder = new SpannableStringBuilder(output.getText());
+    private static float identifiedLanguageRatio(Text text) {
+        int blocks = 0;
+        int identified = 0;
+        for (Text.TextBlock block : text.getTextBlocks()) {
+            blocks++;
+            String language = block.getRecognizedLanguage();
+            if (!language.isEmpty() && !"und".equals(language)) identified++;
+        }
+        return blocks == 0 ? 0f : (float) identified / blocks;
+    }
+
+    /** Selects the recognizer; {@link Script#AUTO} detects the script per page. */
+    public void setScript(Script script) {
+        this.script = script;
+        scriptDetector.reset();
+        resultCache.clear();
+        liveCache.clear();
+    }
+
+    public Script getScript() {
+        return script;
+    }
+
+    /** Preprocessing for YUV frames; null hands frames to ML Kit as captured. */
+    public void setPreprocessing(LumaPreprocessor.Config config) {
+        preprocessing = config;
+        // cached blocks are in the previous config's image size
+        resultCache.clear();
+        liveCache.clear();
+    }
+
+    public LumaPreprocessor.Config getPreprocessing() {
+        return preprocessing;
+    }
+
+    /**
+     * Perceptual hash of the part of the frame that is about to be recognized.
+     * YUV frames are hashed straight from the Y plane; JPEG stills are decoded
+     * at 1/{@value #HASH_SAMPLE_SIZE} scale first, and throw if that fails.
+     * Runs on the image thread.
+     */
+    private long hashFrame(Frame snapshot, Box rawCrop) throws IOException {
+        if (snapshot.getFormat() != Frame.Format.JPEG) {
+            return frameHasher.hashLuma(snapshot.getPlane(0), snapshot.getRowStride(0), snapshot.getPixelStride(0), rawCrop);
+        }
+        BitmapFactory.Options options = bitmapPool.options(
+                (snapshot.getWidth() + HASH_SAMPLE_SIZE - 1) / HASH_SAMPLE_SIZE, (snapshot.getHeight() + HASH_SAMPLE_SIZE - 1) / HASH_SAMPLE_SIZE);
+        options.inSampleSize = HASH_SAMPLE_SIZE;
+        Bitmap thumbnail;
+        try {
+            thumbnail = BitmapFactory.decodeStream(new ByteBufferInputStream(snapshot.getPlane(0).duplicate()), null, options);
+        } catch (IllegalArgumentException e) {
+            // the pooled bitmap didn't fit after all
+            bitmapPool.release(options.inBitmap);
+            options.inBitmap = null;
+            thumbnail = BitmapFactory.decodeStream(new ByteBufferInputStream(snapshot.getPlane(0).duplicate()), null, options);
+        }
+        if (thumbnail == null) {
+            throw new IOException("Could not decode a thumbnail to hash");
+        }
+        int width = thumbnail.getWidth();
+        int height = thumbnail.getHeight();
+        if (hashPixels == null || hashPixels.length < width * height) {
+            hashPixels = new int[width * height];
+        }
+        thumbnail.getPixels(hashPixels, 0, width, 0, 0, width, height);
+        bitmapPool.release(thumbnail);
+        float scale = (float) width / snapshot.getWidth();
+        Box crop = new Box((int) (rawCrop.left * scale), (int) (rawCrop.top * scale),
+                (int) Math.ceil(rawCrop.right * scale), (int) Math.ceil(rawCrop.bottom * scale))
+                .clamp(0, 0, width, height);
+        return frameHasher.hashArgb(hashPixels, width, crop);
+    }
+
+    /** Sets the region to recognize, in overlay view pixels; null recognizes the whole frame. */
+    public void setRegionOfInterest(Box viewRoi) {
+        regionOfInterest = viewRoi;
+        canvasView.clear();
+        canvasView.setRegionOfInterest(viewRoi);
+    }
+
+    /**
+     * {@code frameBlocks} are in the upright {@code imageW} x {@code imageH}
+     * frame. A {@code still} is a new picture, so blocks aren't carried over
+     * from the previous frame; the reset happens here, on the UI thread, so a
+     * live result drawn in between can't leak into it.
+     */
+    private void drawBlocks(int imageW, int imageH, List<OcrBlock> frameBlocks, boolean still) {
+        if (still) {
+            blockTracker.reset();
+        }
+        List<OcrBlock> blocks = blockTracker.update(frameBlocks);
+        canvasView.beginFrame(imageW, imageH, 0, 0);
+        for (OcrBlock block : blocks) {
+            canvasView.addBox(block.bounds.left, block.bounds.top, block.bounds.right, block.bounds.bottom, colorOf(block.id));
+        }
+        canvasView.commit();
+        textDiffer.apply(blocks, textSink);
+    }
+
+    /** Copies the blocks that have bounds, shifted into the upright frame. */
+    static List<OcrBlock> toBlocks(Text output, int offsetX, int offsetY) {
+        return toBlocks(output, offsetX, offsetY, 1f);
+    }
+
+    /** Same, scaling bounds by {@code scale} before shifting them. */
+    static List<OcrBlock> toBlocks(Text output, int offsetX, int offsetY, float scale) {
+        return toBlocks(output, offsetX, offsetY, scale, null);
+    }
+
+    /** Same, first undoing {@code unshear}'s deskew if it isn't null. */
+    private static List<OcrBlock> toBlocks(Text output, int offsetX, int offsetY, float scale, Unshear unshear) {
+        List<OcrBlock> blocks = new ArrayList<>();
         for (Text.TextBlock block : output.getTextBlocks()) {
             Rect boundingBox = block.getBoundingBox();
-            if (boundingBox != null) {
-                Log.d(TAG, "drawBoundingBox: " + boundingBox);
-                Rect fixedRect = rearrangePosition(imageW, imageH, boundingBox);
-                boundingBoxCanvas.drawRect(fixedRect, bgPaint);
-                strokePaint.setColor(colors[colorIndex]);
-                boundingBoxCanvas.drawRect(fixedRect, strokePaint);
-//                for (Text.Line line : block.getLines()) {
-//                    Rect fixedLineRect = rearrangePosition(imageW, imageH, line.getBoundingBox());
-//                    boundingBoxCanvas.drawText(line.getText(), fixedLineRect.centerX(), fixedLineRect.centerY() + 70, textPaint);
-//
-//                }
-                builder.setSpan(new ForegroundColorSpan(colors[colorIndex]), spannableIndex, spannableIndex + block.getText().length(), Spannable.SPAN_EXCLUSIVE_INCLUSIVE);
-                spannableIndex += block.getText().length() + 1;
-                colorIndex = (colorIndex + 1) % colors.length;
+            if (boundingBox == null) continue;
+            OcrBlock ocrBlock = new OcrBlock(toBox(boundingBox, offsetX, offsetY, scale, unshear));
+            for (Text.Line line : block.getLines()) {
+                Rect lineBox = line.getBoundingBox();
+                ocrBlock.addLine(line.getText(), line.getConfidence(), lineBox == null ? null : toBox(lineBox, offsetX, offsetY, scale, unshear));
             }
+            blocks.add(ocrBlock);
         }
-        textScrollView.setText(builder);
-        canvasView.invalidate();
+        return blocks;
     }
 
-    private Rect rearrangePosition(int imageW, int imageH, Rect boundingBox) {
-        Log.i(TAG, "rearrangePosition: canvas = " + canvasView);
-        float ratioW = (float) canvasView.getWidth() / imageW;
-        float ratioH = (float) canvasView.getHeight() / imageH;
-        final int padding = 20;
-        return new Rect(
-                (int) (boundingBox.left * ratioW) - padding,
-                (int) (boundingBox.top * ratioH) - padding,
-                (int) (boundingBox.right * ratioW) + padding,
-                (int) (boundingBox.bottom * ratioH) + padding);
+    private static Box toBox(Rect rect, int offsetX, int offsetY, float scale, Unshear unshear) {
+        Box box = new Box(rect.left, rect.top, rect.right, rect.bottom);
+        if (unshear != null) {
+            unshear.apply(box);
+        }
+        return box.set(Math.round(box.left * scale) + offsetX, Math.round(box.top * scale) + offsetY,
+                Math.round(box.right * scale) + offsetX, Math.round(box.bottom * scale) + offsetY);
+    }
+
+    /**
+     * The deskew {@link LumaPreprocessor} applied to a recognized image of
+     * {@code width} x {@code height} (unrotated), to be undone on the boxes
+     * ML Kit reports in the upright image before they are scaled to the frame.
+     */
+    private static final class Unshear {
+        final float degrees;
+        final int rotation;
+        final int width;
+        final int height;
+        private final Box raw = new Box();
+
+        Unshear(float degrees, int rotation, int width, int height) {
+            this.degrees = degrees;
+            this.rotation = rotation;
+            this.width = width;
+            this.height = height;
+        }
+
+        /** Moves {@code upright} back to where it was before the shear, in place. */
+        void apply(Box upright) {
+            RoiMapper.uprightToRaw(upright, rotation, width, height, raw);
+            LumaPreprocessor.unshear(raw, width, height, degrees, rotation == 90 || rotation == 270, raw);
+            RoiMapper.rawToUpright(raw, rotation, width, height, upright);
+        }
+    }
+
+    private static int colorOf(int blockId) {
+        return blockId % OverlayView.COLORS.length;
+    }
+
+    /**
+     * Applies block edits to the text view's Editable; each block keeps its own
+     * color span. Spans of removed blocks are reused, so a steady stream of
+     * blocks coming and going allocates none.
+     */
+    private final TextDiffer.Sink textSink = new TextDiffer.Sink() {
+        @Override
+        public void replace(int start, int end, CharSequence text) {
+            textScrollView.getEditableText().replace(start, end, text);
+        }
+
+        @Override
+        public void onBlockChanged(int blockId, int start, int end) {
+            ForegroundColorSpan span = blockSpans.get(blockId);
+            if (span == null) {
+                List<ForegroundColorSpan> free = freeSpans.get(colorOf(blockId));
+                span = free.isEmpty()
+                        ? new ForegroundColorSpan(OverlayView.COLORS[colorOf(blockId)])
+                        : free.remove(free.size() - 1);
+                blockSpans.put(blockId, span);
+            }
+            textScrollView.getEditableText().setSpan(span, start, end, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+
+        @Override
+        public void onBlockRemoved(int blockId) {
+            ForegroundColorSpan span = blockSpans.get(blockId);
+            if (span != null) {
+                textScrollView.getEditableText().removeSpan(span);
+                blockSpans.remove(blockId);
+                freeSpans.get(colorOf(blockId)).add(span);
+            }
+        }
+    };
+
+    /** True if {@code snapshot} is a still large enough to be worth {@link #recognizeTiled}. */
+    public boolean shouldTile(Frame snapshot) {
+        return tiledStills && snapshot.getFormat() == Frame.Format.JPEG && regionOfInterest == null
+                && (long) snapshot.getWidth() * snapshot.getHeight() >= TILED_MIN_PIXELS;
+    }
+
+    /** Off recognizes stills in one pass, downscaled by ML Kit. */
+    public void setTiledStills(boolean tiled) {
+        tiledStills = tiled;
+    }
+
+    /**
+     * Recognizes a JPEG still tile by tile at full resolution, so small text on
+     * dense pages isn't lost to downscaling. At most {@value #TILE_THREADS}
+     * tiles are decoded and recognized at once; the merged result is drawn in
+     * the upright full-image frame. The caller must keep {@code snapshot} open
+     * until the task completes. Tiled results are not cached.
+     */
+    public Task<List<OcrBlock>> recognizeTiled(Frame snapshot, int rotation) {
+        final int rawW = snapshot.getWidth();
+        final int rawH = snapshot.getHeight();
+        boolean swap = rotation == 90 || rotation == 270;
+        final int uprightW = swap ? rawH : rawW;
+        final int uprightH = swap ? rawW : rawH;
+        final List<Box> tiles = TilePlanner.plan(uprightW, uprightH, TILE_SIZE, TILE_OVERLAP);
+        // the Korean model reads Latin too, and per-tile script detection would race
+        final Script tileScript = script == Script.AUTO ? Script.KOREAN : script;
+        final ByteBuffer jpeg = snapshot.getPlane(0).duplicate();
+        final ExecutorService executor = getTileExecutor();
+        return Tasks.call(executor, () -> BitmapRegionDecoder.newInstance(new ByteBufferInputStream(jpeg), false))
+                .onSuccessTask(executor, decoder -> {
+                    List<Task<List<OcrBlock>>> tileTasks = new ArrayList<>(tiles.size());
+                    for (Box tile : tiles) {
+                        tileTasks.add(Tasks.call(executor, () -> recognizeTile(decoder, tileScript, tile, rotation, rawW, rawH)));
+                    }
+                    return Tasks.<List<OcrBlock>>whenAllSuccess(tileTasks).continueWith(executor, done -> {
+                        decoder.recycle();
+                        if (!done.isSuccessful()) {
+                            throw done.getException();
+                        }
+                        List<OcrBlock> merged = tileMerger.merge(tiles, done.getResult());
+                        runOnUiThread(() -> drawBlocks(uprightW, uprightH, merged, true));
+                        return merged;
+                    });
+                })
+                .addOnFailureListener(e -> Log.i(TAG, "recognizeTiled: " + e));
+    }
+
+    /** Runs on a tile thread; returns blocks in the tile's upright coordinates. */
+    private static List<OcrBlock> recognizeTile(BitmapRegionDecoder decoder, Script script, Box tile,
+                                                int rotation, int rawW, int rawH) throws Exception {
+        Box raw = RoiMapper.uprightToRaw(tile, rotation, rawW, rawH, new Box());
+        Bitmap bitmap = BitmapPool.get().decodeRegion(decoder, new Rect(raw.left, raw.top, raw.right, raw.bottom), 1);
+        if (bitmap == null) {
+            throw new IOException("Could not decode tile " + raw);
+        }
+        try {
+            return toBlocks(Tasks.await(RecognizerRegistry.getInstance().process(script, InputImage.fromBitmap(bitmap, rotation))), 0, 0);
+        } finally {
+            BitmapPool.get().release(bitmap);
+        }
+    }
+
+    private synchronized ExecutorService getTileExecutor() {
+        if (tileExecutor == null) {
+            tileExecutor = Executors.newFixedThreadPool(TILE_THREADS);
+        }
+        return tileExecutor;
+    }
+
+    /** Stops the tile threads; call when the owning activity is destroyed. */
+    public synchronized void close() {
+        if (tileExecutor != null) {
+            tileExecutor.shutdown();
+            tileExecutor = null;
+        }
     }
 
     public void clearBoundingBox() {
-        Log.i(TAG, "clearBoundingBox: ");
-        canvasBitmap.eraseColor(Color.TRANSPARENT);
-        capturedView.setImageBitmap(canvasBitmap);
+        canvasView.clear();
+        capturedView.setImageBitmap(null);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
     }
 }
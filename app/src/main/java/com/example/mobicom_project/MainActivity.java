@@ -1,8 +1,15 @@
 package com.example.mobicom_project;
 
+import android.net.Uri;
 import android.os.Bundle;
+import android.view.inputmethod.EditorInfo;
+import android.widget.EditText;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -10,7 +17,15 @@ import androidx.core.view.WindowInsetsCompat;
 import android.widget.Button;
 import android.content.Intent;
 
+import java.io.File;
+import java.util.List;
+
 public class MainActivity extends AppCompatActivity {
+    private Button importButton;
+    private static final int SEARCH_LIMIT = 20;
+    private static final int SNIPPET_LENGTH = 80;
+    private final ActivityResultLauncher<String[]> pickImages =
+            registerForActivityResult(new ActivityResultContracts.OpenMultipleDocuments(), this::importImages);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -25,7 +40,98 @@ public class MainActivity extends AppCompatActivity {
         Button enter_button = findViewById(R.id.enter_button);
         enter_button.setOnClickListener(view -> {
             Intent intent = new Intent(MainActivity.this, CameraActivity.class);
+            // the camera screen isn't exported, so its options (preprocess, replay_dir, ...) come in through here
+            intent.putExtras(getIntent());
+            intent.putExtra(CameraActivity.EXTRA_LAUNCH_NANOS, PerfMetrics.now());
+            intent.putExtra(CameraActivity.EXTRA_WARM_START, WarmUp.get().isRecognizerReady());
             startActivity(intent);
         });
+        importButton = findViewById(R.id.import_button);
+        // tap: pick gallery images, long press: the stored captures, tap while importing: stop
+        importButton.setOnClickListener(view -> {
+            BatchImport batch = BatchImport.getRunning();
+            if (batch != null) {
+                batch.cancel();
+            } else {
+                pickImages.launch(new String[]{"image/*"});
+            }
+        });
+        importButton.setOnLongClickListener(view -> {
+            startImport(BatchImport.JOB_CAPTURES, BatchImport.listCaptures(this));
+            return true;
+        });
+        EditText searchField = findViewById(R.id.search_field);
+        searchField.setOnEditorActionListener((view, actionId, event) -> {
+            if (actionId != EditorInfo.IME_ACTION_SEARCH) return false;
+            search(view.getText().toString().trim());
+            return true;
+        });
+        BatchImport running = BatchImport.getRunning();
+        if (running != null) {
+            running.setListener(importListener);
+        }
+        // after the first frame, so loading models doesn't delay drawing this screen
+        getWindow().getDecorView().post(() -> WarmUp.get().start(this));
+    }
+
+    @Override
+    protected void onDestroy() {
+        BatchImport running = BatchImport.getRunning();
+        if (running != null) {
+            running.setListener(null);
+        }
+        super.onDestroy();
+    }
+
+    private void importImages(List<Uri> uris) {
+        if (uris != null && !uris.isEmpty() && BatchImport.startGallery(this, uris, importListener) != null) {
+            importButton.setText(getString(R.string.importing, 0, uris.size()));
+        }
     }
-}
\ No newline at end of file
+
+    private void startImport(String job, List<Uri> uris) {
+        if (BatchImport.start(this, job, uris, importListener) != null) {
+            importButton.setText(getString(R.string.importing, 0, uris.size()));
+        }
+    }
+
+    /** Looks {@code query} up in the {@link CaptureIndex} and lists the matching captures. */
+    private void search(String query) {
+        if (query.isEmpty()) return;
+        CaptureIndex.get(this).search(query, SEARCH_LIMIT, hits -> runOnUiThread(() -> showHits(query, hits)));
+    }
+
+    private void showHits(String query, List<TextIndex.Hit> hits) {
+        if (isFinishing()) return;
+        if (hits.isEmpty()) {
+            Toast.makeText(this, getString(R.string.search_no_hits, query), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String[] items = new String[hits.size()];
+        for (int i = 0; i < hits.size(); i++) {
+            TextIndex.Hit hit = hits.get(i);
+            String text = hit.text.replace('\n', ' ');
+            items[i] = hit.source + "\n" + (text.length() > SNIPPET_LENGTH ? text.substring(0, SNIPPET_LENGTH) + "..." : text);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.search_results, hits.size(), query))
+                .setItems(items, null)
+                .show();
+    }
+
+    private final BatchImport.Listener importListener = new BatchImport.Listener() {
+        @Override
+        public void onProgress(int finished, int pending) {
+            importButton.setText(getString(R.string.importing, finished, pending));
+        }
+
+        @Override
+        public void onFinished(String job, BatchReport report, File results) {
+            importButton.setText(R.string.import_images);
+            String message = report == null
+                    ? getString(R.string.import_failed)
+                    : getString(R.string.import_finished, report.succeeded, report.getImagesPerSecond(), results.getName());
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+        }
+    };
+}
@@ -0,0 +1,56 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cheap global motion score: the luma plane is sampled on a coarse grid and
+ * compared with the previous frame's grid. Allocation-free; call from one
+ * thread.
+ */
+public class MotionEstimator {
+    static final int GRID_W = 32;
+    static final int GRID_H = 24;
+
+    private int[] previous = new int[GRID_W * GRID_H];
+    private int[] current = new int[GRID_W * GRID_H];
+    private boolean hasPrevious;
+
+    /**
+     * Returns the mean absolute luma difference to the previous frame, 0-255.
+     * The first frame after a {@link #reset()} scores 0.
+     */
+    public float update(ByteBuffer plane, int rowStride, int pixelStride, int width, int height) {
+        int cellW = Math.max(1, width / GRID_W);
+        int cellH = Math.max(1, height / GRID_H);
+        for (int gy = 0; gy < GRID_H; gy++) {
+            // two rows and two columns per cell, a quarter of the way in, to average out sensor noise
+            int y0 = Math.min(height - 1, gy * cellH + cellH / 4);
+            int y1 = Math.min(height - 1, gy * cellH + cellH * 3 / 4);
+            for (int gx = 0; gx < GRID_W; gx++) {
+                int x0 = Math.min(width - 1, gx * cellW + cellW / 4) * pixelStride;
+                int x1 = Math.min(width - 1, gx * cellW + cellW * 3 / 4) * pixelStride;
+                current[gy * GRID_W + gx] = ((plane.get(y0 * rowStride + x0) & 0xFF)
+                        + (plane.get(y0 * rowStride + x1) & 0xFF)
+                        + (plane.get(y1 * rowStride + x0) & 0xFF)
+                        + (plane.get(y1 * rowStride + x1) & 0xFF)) >> 2;
+            }
+        }
+        float score = 0f;
+        if (hasPrevious) {
+            long sum = 0;
+            for (int i = 0; i < current.length; i++) {
+                sum += Math.abs(current[i] - previous[i]);
+            }
+            score = (float) sum / current.length;
+        }
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        hasPrevious = true;
+        return score;
+    }
+
+    public void reset() {
+        hasPrevious = false;
+    }
+}
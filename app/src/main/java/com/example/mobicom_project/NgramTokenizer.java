@@ -0,0 +1,82 @@
+package com.example.mobicom_project;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Character bigrams for indexing text without word segmentation, which Korean
+ * needs: spacing in Hangul is inconsistent and OCR drops or adds spaces, so
+ * words can't be trusted as terms. Text is normalized (NFKC, lower case) and
+ * split into runs of letters and digits; each run yields its overlapping
+ * bigrams plus a unigram for its last character. A gram is packed into an int
+ * as {@code first << 16 | second}, with {@code second == 0} for the unigram,
+ * so every gram starting with a character falls in one key range and a
+ * one-character query is a range lookup.
+ */
+public final class NgramTokenizer {
+    private NgramTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /** Runs of letters and digits in already normalized text. */
+    public static List<String> runs(String normalized) {
+        List<String> runs = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean inRun = i < normalized.length() && isTermChar(normalized.charAt(i));
+            if (inRun && start < 0) {
+                start = i;
+            } else if (!inRun && start >= 0) {
+                runs.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return runs;
+    }
+
+    /** Appends the grams of one run to {@code out}; duplicates are left in. */
+    public static void grams(String run, IntList out) {
+        for (int i = 0; i + 1 < run.length(); i++) {
+            out.add(bigram(run.charAt(i), run.charAt(i + 1)));
+        }
+        if (!run.isEmpty()) {
+            out.add(unigram(run.charAt(run.length() - 1)));
+        }
+    }
+
+    /** All grams of a document, sorted and without duplicates. */
+    public static IntList documentGrams(String normalized) {
+        IntList grams = new IntList();
+        for (String run : runs(normalized)) {
+            grams(run, grams);
+        }
+        grams.sortUnique();
+        return grams;
+    }
+
+    static int bigram(char first, char second) {
+        return first << 16 | second;
+    }
+
+    static int unigram(char c) {
+        return c << 16;
+    }
+
+    /** Smallest and largest gram starting with {@code c}. */
+    static int rangeStart(char c) {
+        return c << 16;
+    }
+
+    static int rangeEnd(char c) {
+        return c << 16 | 0xFFFF;
+    }
+
+    private static boolean isTermChar(char c) {
+        return c != 0 && Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain-Java copy of an ML Kit {@code Text.TextBlock}: bounds and lines with
+ * their confidences. {@link BlockTracker} assigns {@link #id}, which stays the
+ * same while the block is seen in roughly the same place.
+ */
+public final class OcrBlock {
+    public static final int NO_ID = -1;
+
+    public static final class Line {
+        public final String text;
+        public final float confidence;
+        public final Box bounds;
+
+        public Line(String text, float confidence, Box bounds) {
+            this.text = text;
+            this.confidence = confidence;
+            this.bounds = bounds;
+        }
+
+        @Override
+        public String toString() {
+            return text + " (" + confidence + ")";
+        }
+    }
+
+    public final Box bounds;
+    public final List<Line> lines;
+    public int id = NO_ID;
+    private String text;
+
+    public OcrBlock(Box bounds) {
+        this(bounds, new ArrayList<>());
+    }
+
+    public OcrBlock(Box bounds, List<Line> lines) {
+        this.bounds = bounds;
+        this.lines = lines;
+    }
+
+    public OcrBlock addLine(String text, float confidence, Box bounds) {
+        lines.add(new Line(text, confidence, bounds));
+        this.text = null;
+        return this;
+    }
+
+    public void setLine(int index, Line line) {
+        lines.set(index, line);
+        text = null;
+    }
+
+    /**
+     * Same bounds and lines without an id, so a cached result can be handed to
+     * {@link BlockTracker}, which edits blocks in place, more than once.
+     */
+    public OcrBlock copy() {
+        return new OcrBlock(bounds, new ArrayList<>(lines));
+    }
+
+    /** Lines joined with newlines, like {@code TextBlock.getText()}. */
+    public String getText() {
+        if (text == null) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < lines.size(); i++) {
+                if (i > 0) builder.append('\n');
+                builder.append(lines.get(i).text);
+            }
+            text = builder.toString();
+        }
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return "OcrBlock#" + id + " " + bounds + " \"" + getText() + "\"";
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.mobicom_project;
+
+/**
+ * Geometry for the bounding-box overlay. Boxes arrive in upright image
+ * coordinates and are stored in view coordinates in flat, reused arrays. The
+ * image-to-view scale is only recomputed when the image or view size changes,
+ * so a steady stream of frames does not allocate.
+ */
+public class OverlayLayout {
+    private final int padding;
+    private int viewW;
+    private int viewH;
+    private int imageW;
+    private int imageH;
+    private int offsetX;
+    private int offsetY;
+    private float scaleX;
+    private float scaleY;
+
+    private int[] bounds = new int[4 * 16];
+    private int[] colorIndices = new int[16];
+    private int count;
+
+    public OverlayLayout(int padding) {
+        this.padding = padding;
+    }
+
+    public void setViewSize(int width, int height) {
+        if (width == viewW && height == viewH) return;
+        viewW = width;
+        viewH = height;
+        updateScale();
+    }
+
+    /**
+     * Starts a new set of boxes for a frame of {@code imageW} x {@code imageH}.
+     * The offsets locate the recognized crop inside that frame.
+     */
+    public void beginFrame(int imageW, int imageH, int offsetX, int offsetY) {
+        if (imageW != this.imageW || imageH != this.imageH) {
+            this.imageW = imageW;
+            this.imageH = imageH;
+            updateScale();
+        }
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        count = 0;
+    }
+
+    public void add(int left, int top, int right, int bottom, int colorIndex) {
+        if (count == colorIndices.length) {
+            grow();
+        }
+        int base = count * 4;
+        bounds[base] = (int) ((left + offsetX) * scaleX) - padding;
+        bounds[base + 1] = (int) ((top + offsetY) * scaleY) - padding;
+        bounds[base + 2] = (int) ((right + offsetX) * scaleX) + padding;
+        bounds[base + 3] = (int) ((bottom + offsetY) * scaleY) + padding;
+        colorIndices[count] = colorIndex;
+        count++;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int left(int index) {
+        return bounds[index * 4];
+    }
+
+    public int top(int index) {
+        return bounds[index * 4 + 1];
+    }
+
+    public int right(int index) {
+        return bounds[index * 4 + 2];
+    }
+
+    public int bottom(int index) {
+        return bounds[index * 4 + 3];
+    }
+
+    public int colorIndex(int index) {
+        return colorIndices[index];
+    }
+
+    private void updateScale() {
+        scaleX = imageW == 0 ? 0 : (float) viewW / imageW;
+        scaleY = imageH == 0 ? 0 : (float) viewH / imageH;
+    }
+
+    private void grow() {
+        int[] newBounds = new int[bounds.length * 2];
+        System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+        bounds = newBounds;
+        int[] newColors = new int[colorIndices.length * 2];
+        System.arraycopy(colorIndices, 0, newColors, 0, colorIndices.length);
+        colorIndices = newColors;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mobicom_project;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Draws recognition bounding boxes and the region of interest over the
+ * preview. Paints are created once and box geometry lives in an
+ * {@link OverlayLayout}, so {@link #onDraw} does not allocate.
+ */
+public class OverlayView extends View {
+    static final int[] COLORS = {Color.RED, Color.BLUE, Color.BLACK, Color.CYAN, Color.GREEN, Color.MAGENTA, Color.GRAY};
+    private static final int BOX_PADDING = 20;
+
+    private final OverlayLayout layout = new OverlayLayout(BOX_PADDING);
+    private final Paint fillPaint = new Paint();
+    private final Paint strokePaint = new Paint();
+    private final Paint roiPaint = new Paint();
+    private final Box regionOfInterest = new Box();
+    private boolean hasRegionOfInterest = false;
+
+    public OverlayView(Context context) {
+        this(context, null);
+    }
+
+    public OverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        fillPaint.setStyle(Paint.Style.FILL);
+        fillPaint.setColor(Color.argb(0.3f, 1.0f, 1.0f, 1.0f));
+        strokePaint.setStyle(Paint.Style.STROKE);
+        strokePaint.setStrokeWidth(10);
+        roiPaint.setStyle(Paint.Style.STROKE);
+        roiPaint.setColor(Color.WHITE);
+        roiPaint.setStrokeWidth(4);
+    }
+
+    /** Starts a new set of boxes; call {@link #addBox} for each and then {@link #commit}. */
+    public void beginFrame(int imageW, int imageH, int offsetX, int offsetY) {
+        layout.beginFrame(imageW, imageH, offsetX, offsetY);
+    }
+
+    public void addBox(int left, int top, int right, int bottom, int colorIndex) {
+        layout.add(left, top, right, bottom, colorIndex);
+    }
+
+    public void commit() {
+        invalidate();
+    }
+
+    public void clear() {
+        layout.clear();
+        invalidate();
+    }
+
+    public void setRegionOfInterest(@Nullable Box roi) {
+        hasRegionOfInterest = roi != null;
+        if (roi != null) {
+            regionOfInterest.set(roi);
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        layout.setViewSize(w, h);
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        for (int i = 0; i < layout.size(); i++) {
+            float left = layout.left(i);
+            float top = layout.top(i);
+            float right = layout.right(i);
+            float bottom = layout.bottom(i);
+            canvas.drawRect(left, top, right, bottom, fillPaint);
+            strokePaint.setColor(COLORS[layout.colorIndex(i) % COLORS.length]);
+            canvas.drawRect(left, top, right, bottom, strokePaint);
+        }
+        if (hasRegionOfInterest) {
+            canvas.drawRect(regionOfInterest.left, regionOfInterest.top, regionOfInterest.right, regionOfInterest.bottom, roiPaint);
+        }
+    }
+}
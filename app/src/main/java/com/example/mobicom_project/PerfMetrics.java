@@ -0,0 +1,126 @@
+package com.example.mobicom_project;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide latency spans and counters for the recognition hot path.
+ * Spans are measured with {@link System#nanoTime()}; callers keep the start
+ * timestamp and call {@link #recordSince}. Recording never locks or
+ * allocates, so it stays on in release builds.
+ */
+public final class PerfMetrics {
+    public enum Span {
+        /** Capture button press to the still arriving from the ImageReader. */
+        TAP_TO_FRAME,
+        /** Frame arrival to ML Kit being called: hashing, cache lookup, cropping and preprocessing. */
+        FRAME_TO_OCR_START,
+        /** {@link LumaPreprocessor} on a YUV frame, part of {@link #FRAME_TO_OCR_START}. */
+        PREPROCESS,
+        /** ML Kit inference. */
+        OCR,
+        /** Recognition result to the overlay being updated on the UI thread. */
+        OCR_TO_DRAW,
+        /** Frame arrival to the overlay being updated. */
+        FRAME_TO_DRAW,
+        /** Capture button press to the recognized text being shown. */
+        TAP_TO_RESULT,
+        /** Camera screen launch to the first recognized text, before {@link WarmUp} had loaded the recognizer. */
+        FIRST_OCR_COLD,
+        /** Camera screen launch to the first recognized text, with the recognizer already warm. */
+        FIRST_OCR_WARM,
+        /** Activity resume to the first preview frame of the reopened session. */
+        RESUME_TO_PREVIEW
+    }
+
+    public enum Counter {
+        FRAMES_ANALYZED,
+        FRAMES_DROPPED,
+        /** Live frames {@link InferencePolicy} skipped because the camera was moving. */
+        SKIPPED_MOTION,
+        SKIPPED_FOCUS,
+        SKIPPED_THERMAL,
+        CACHE_HITS,
+        CACHE_MISSES,
+        CAPTURES
+    }
+
+    private static final Span[] SPANS = Span.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final PerfMetrics INSTANCE = new PerfMetrics();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[SPANS.length];
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+    private volatile boolean enabled = true;
+
+    PerfMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public static PerfMetrics get() {
+        return INSTANCE;
+    }
+
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /** Records the time since {@code startNanos}; a start of 0 means the span never started. */
+    public void recordSince(Span span, long startNanos) {
+        if (!enabled || startNanos == 0) return;
+        histograms[span.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /** Records a span timed by the caller, e.g. on an injected clock. */
+    public void record(Span span, long nanos) {
+        if (!enabled) return;
+        histograms[span.ordinal()].record(nanos);
+    }
+
+    public void increment(Counter counter) {
+        if (!enabled) return;
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    public LatencyHistogram histogram(Span span) {
+        return histograms[span.ordinal()];
+    }
+
+    public long count(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /** Plain-text summary: one line per span with p50/p95/p99 in ms, then the counters. */
+    public void appendReport(StringBuilder out) {
+        for (Span span : SPANS) {
+            LatencyHistogram histogram = histograms[span.ordinal()];
+            out.append(String.format(Locale.US, "%-18s n=%-5d p50=%6.1f p95=%6.1f p99=%6.1f max=%6.1f%n",
+                    span, histogram.getCount(),
+                    millis(histogram.percentileNanos(50)), millis(histogram.percentileNanos(95)),
+                    millis(histogram.percentileNanos(99)), millis(histogram.getMaxNanos())));
+        }
+        for (Counter counter : COUNTERS) {
+            out.append(counter).append(' ').append(counters.get(counter.ordinal())).append('\n');
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mobicom_project;
+
+/**
+ * Transform for the preview TextureView. The camera's SurfaceTexture already
+ * turns frames upright for the device's natural orientation and TextureView
+ * stretches them over the view; this undoes the display rotation on top, so
+ * the frame fills the view upright at any rotation and size. Filling the view
+ * exactly keeps the preview in line with the overlay and region-of-interest
+ * mapping, which stretch the upright frame over the view too.
+ */
+public final class PreviewTransform {
+    private PreviewTransform() {
+    }
+
+    /**
+     * Writes the matrix for a {@code viewW} x {@code viewH} view at
+     * {@code displayRotation} degrees into {@code out}, in the order of
+     * {@code android.graphics.Matrix#setValues}. Returns {@code out}.
+     */
+    public static float[] compute(int viewW, int viewH, int displayRotation, float[] out) {
+        float cx = viewW / 2f;
+        float cy = viewH / 2f;
+        float a;
+        float b;
+        float c;
+        float d;
+        switch (displayRotation) {
+            case 90:
+                // content turned a quarter counterclockwise, stretched back over the view
+                a = 0;
+                b = (float) viewW / viewH;
+                c = -(float) viewH / viewW;
+                d = 0;
+                break;
+            case 180:
+                a = -1;
+                b = 0;
+                c = 0;
+                d = -1;
+                break;
+            case 270:
+                a = 0;
+                b = -(float) viewW / viewH;
+                c = (float) viewH / viewW;
+                d = 0;
+                break;
+            default:
+                a = 1;
+                b = 0;
+                c = 0;
+                d = 1;
+                break;
+        }
+        // about the view centre: p' = L (p - centre) + centre
+        out[0] = a;
+        out[1] = b;
+        out[2] = cx - a * cx - b * cy;
+        out[3] = c;
+        out[4] = d;
+        out[5] = cy - c * cx - d * cy;
+        out[6] = 0;
+        out[7] = 0;
+        out[8] = 1;
+        return out;
+    }
+
+    /** Maps a view point through {@code matrix} from {@link #compute}; writes {x, y} into {@code out}. */
+    static void map(float[] matrix, float x, float y, float[] out) {
+        out[0] = matrix[0] * x + matrix[1] * y + matrix[2];
+        out[1] = matrix[3] * x + matrix[4] * y + matrix[5];
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.mobicom_project;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of recognition results keyed by a {@link FrameHasher} hash
+ * and the crop that was recognized. A lookup matches any entry with the same
+ * crop whose hash is within {@code maxDistance} bits, so a camera held on the
+ * same page keeps hitting even though consecutive frames never hash equal.
+ */
+public class RecognitionCache<V> {
+    /** Exact (hash, crop) identity of an entry; near matches are found by {@link #get}. */
+    private static final class Key {
+        final long hash;
+        final Box crop;
+
+        Key(long hash, Box crop) {
+            this.hash = hash;
+            this.crop = crop;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && crop.equals(other.crop);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(hash) + crop.hashCode();
+        }
+    }
+
+    private static final class CachedResult<V> {
+        final Key key;
+        final V value;
+
+        CachedResult(Key key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxDistance;
+    private final LinkedHashMap<Key, CachedResult<V>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RecognitionCache(int maxEntries, int maxDistance) {
+        this.maxEntries = maxEntries;
+        this.maxDistance = maxDistance;
+        this.entries = new LinkedHashMap<Key, CachedResult<V>>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult<V>> eldest) {
+                if (size() > RecognitionCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the closest cached result for this scene, or null. */
+    public synchronized V get(long hash, Box crop) {
+        CachedResult<V> best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (CachedResult<V> entry : entries.values()) {
+            if (!entry.key.crop.equals(crop)) continue;
+            int distance = FrameHasher.distance(hash, entry.key.hash);
+            if (distance <= maxDistance && distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        if (best == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        // touch to keep it most recently used
+        entries.get(best.key);
+        return best.value;
+    }
+
+    public synchronized void put(long hash, Box crop, V value) {
+        Key key = new Key(hash, new Box().set(crop));
+        entries.put(key, new CachedResult<>(key, value));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
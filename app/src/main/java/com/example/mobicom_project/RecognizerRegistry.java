@@ -0,0 +1,96 @@
+package com.example.mobicom_project;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.korean.KoreanTextRecognizerOptions;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.EnumMap;
+
+/**
+ * Process-wide pool of ML Kit recognizer clients, one per script. Clients are
+ * created on first use and survive activity recreation; {@link #closeAll()}
+ * releases their models under memory pressure and the next
+ * {@link #process} recreates them. A client still running an inference is
+ * closed once that inference completes, so live, tiled and batch recognition
+ * never see a closed client.
+ */
+public final class RecognizerRegistry {
+    private static final String TAG = "RecognizerRegistry";
+    private static final RecognizerRegistry INSTANCE = new RecognizerRegistry();
+
+    private static final class Client {
+        final TextRecognizer recognizer;
+        /** Inferences in flight; guarded by the registry. */
+        int uses;
+        boolean closing;
+
+        Client(TextRecognizer recognizer) {
+            this.recognizer = recognizer;
+        }
+    }
+
+    private final EnumMap<Script, Client> clients = new EnumMap<>(Script.class);
+
+    private RecognizerRegistry() {
+    }
+
+    public static RecognizerRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /** Runs {@code script}'s recognizer on {@code image}, creating it first if needed. */
+    public Task<Text> process(Script script, InputImage image) {
+        Client client;
+        synchronized (this) {
+            client = clients.get(script);
+            if (client == null) {
+                Log.i(TAG, "process: creating " + script + " recognizer");
+                client = new Client(create(script));
+                clients.put(script, client);
+            }
+            client.uses++;
+        }
+        final Client used = client;
+        return client.recognizer.process(image).addOnCompleteListener(task -> release(used));
+    }
+
+    private synchronized void release(Client client) {
+        client.uses--;
+        if (client.closing && client.uses == 0) {
+            client.recognizer.close();
+        }
+    }
+
+    public synchronized boolean isLoaded(Script script) {
+        return clients.containsKey(script);
+    }
+
+    /** Drops every client; those with an inference in flight close when it completes. */
+    public synchronized void closeAll() {
+        for (Client client : clients.values()) {
+            if (client.uses == 0) {
+                client.recognizer.close();
+            } else {
+                client.closing = true;
+            }
+        }
+        clients.clear();
+    }
+
+    private static TextRecognizer create(Script script) {
+        switch (script) {
+            case LATIN:
+                return TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+            case KOREAN:
+                return TextRecognition.getClient(new KoreanTextRecognizerOptions.Builder().build());
+            default:
+                throw new IllegalArgumentException("No recognizer for " + script);
+        }
+    }
+}
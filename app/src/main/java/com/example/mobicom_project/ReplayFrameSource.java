@@ -0,0 +1,168 @@
+package com.example.mobicom_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a recorded sequence from a directory, in file name order, at a fixed
+ * rate. Supported files are {@code *.jpg}/{@code *.jpeg} and raw NV21 dumps
+ * whose name carries the size, e.g. {@code 0001_1280x960.nv21}. The whole
+ * replay runs as one task on the given scheduler; a rate of zero or less
+ * replays as fast as the listener takes frames.
+ */
+public class ReplayFrameSource implements FrameSource {
+    private static final Pattern SIZE = Pattern.compile("(\\d+)x(\\d+)");
+
+    private final List<File> files;
+    private final Scheduler scheduler;
+    private final long intervalNanos;
+    private volatile boolean running;
+    private volatile int emitted;
+    private volatile int skipped;
+
+    public ReplayFrameSource(File directory, float framesPerSecond, Scheduler scheduler) {
+        this.files = listFrames(directory);
+        this.scheduler = scheduler;
+        this.intervalNanos = framesPerSecond > 0 ? (long) (1_000_000_000L / framesPerSecond) : 0;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        running = true;
+        scheduler.post(() -> replay(listener));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    private void replay(Listener listener) {
+        long start = System.nanoTime();
+        for (int i = 0; i < files.size() && running; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            Frame frame = read(files.get(i), System.nanoTime());
+            if (frame == null) {
+                skipped++;
+                continue;
+            }
+            emitted++;
+            listener.onFrame(frame);
+        }
+        running = false;
+        listener.onEnd();
+    }
+
+    /**
+     * Reads one recorded file into a pooled buffer that goes back to the pool
+     * when the frame is closed, or returns null if the file can't be used.
+     */
+    static Frame read(File file, long timestampNanos) {
+        BufferPool pool = BufferPool.get();
+        ByteBuffer data = null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) return null;
+            data = pool.acquire((int) length);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading
+            }
+            data.flip();
+            Frame frame = toFrame(file.getName().toLowerCase(Locale.US), data, timestampNanos, pool);
+            if (frame != null) {
+                data = null;
+            }
+            return frame;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (data != null) {
+                pool.release(data);
+            }
+        }
+    }
+
+    private static Frame toFrame(String name, ByteBuffer data, long timestampNanos, BufferPool pool) {
+        Runnable release = () -> pool.release(data);
+        if (name.endsWith(".nv21")) {
+            Matcher size = SIZE.matcher(name);
+            if (!size.find()) return null;
+            int width = Integer.parseInt(size.group(1));
+            int height = Integer.parseInt(size.group(2));
+            if (data.remaining() < YuvCropper.nv21Size(width, height)) return null;
+            return Frame.nv21(data, width, height, timestampNanos, release);
+        }
+        int[] size = jpegSize(data);
+        if (size == null) return null;
+        return Frame.jpeg(size[0], size[1], timestampNanos, data, null, release);
+    }
+
+    static List<File> listFrames(File directory) {
+        File[] all = directory.listFiles((dir, name) -> {
+            String lower = name.toLowerCase(Locale.US);
+            return lower.endsWith(".nv21") || lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+        });
+        if (all == null) return new ArrayList<>();
+        Arrays.sort(all);
+        return new ArrayList<>(Arrays.asList(all));
+    }
+
+    /** Width and height from the first start-of-frame marker, or null if {@code data} isn't a JPEG. */
+    static int[] jpegSize(byte[] data) {
+        return jpegSize(ByteBuffer.wrap(data));
+    }
+
+    static int[] jpegSize(ByteBuffer data) {
+        int end = data.limit();
+        if (end < 4 || (data.get(0) & 0xFF) != 0xFF || (data.get(1) & 0xFF) != 0xD8) return null;
+        int i = 2;
+        while (i + 9 < end) {
+            if ((data.get(i) & 0xFF) != 0xFF) return null;
+            int marker = data.get(i + 1) & 0xFF;
+            int length = ((data.get(i + 2) & 0xFF) << 8) | (data.get(i + 3) & 0xFF);
+            // SOF0..SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                int height = ((data.get(i + 5) & 0xFF) << 8) | (data.get(i + 6) & 0xFF);
+                int width = ((data.get(i + 7) & 0xFF) << 8) | (data.get(i + 8) & 0xFF);
+                return new int[]{width, height};
+            }
+            i += 2 + length;
+        }
+        return null;
+    }
+
+    public int getFrameCount() {
+        return files.size();
+    }
+
+    public int getEmittedFrames() {
+        return emitted;
+    }
+
+    public int getSkippedFiles() {
+        return skipped;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
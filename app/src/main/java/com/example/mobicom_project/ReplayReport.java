@@ -0,0 +1,57 @@
+package com.example.mobicom_project;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput and latency of one run of a {@link FramePipeline}. */
+public final class ReplayReport {
+    public final long received;
+    public final long dropped;
+    public final long cacheHits;
+    public final long recognized;
+    public final long failed;
+    public final long completed;
+    public final long elapsedNanos;
+    public final long latencyP50Nanos;
+    public final long latencyP95Nanos;
+    public final long latencyP99Nanos;
+    public final long latencyMaxNanos;
+    public final long recognitionP50Nanos;
+
+    ReplayReport(long received, long dropped, long cacheHits, long recognized, long failed, long completed,
+                 long elapsedNanos, LatencyHistogram latency, LatencyHistogram recognition) {
+        this.received = received;
+        this.dropped = dropped;
+        this.cacheHits = cacheHits;
+        this.recognized = recognized;
+        this.failed = failed;
+        this.completed = completed;
+        this.elapsedNanos = elapsedNanos;
+        this.latencyP50Nanos = latency.percentileNanos(50);
+        this.latencyP95Nanos = latency.percentileNanos(95);
+        this.latencyP99Nanos = latency.percentileNanos(99);
+        this.latencyMaxNanos = latency.getMaxNanos();
+        this.recognitionP50Nanos = recognition.percentileNanos(50);
+    }
+
+    /** Frames drawn per second of wall time, from the first frame in to the last frame done. */
+    public double getThroughput() {
+        return elapsedNanos <= 0 ? 0 : completed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "frames=%d dropped=%d cacheHits=%d recognized=%d failed=%d drawn=%d%n"
+                        + "throughput=%.1f fps over %.0f ms%n"
+                        + "frame-to-overlay p50=%.1f p95=%.1f p99=%.1f max=%.1f ms, recognition p50=%.1f ms",
+                received, dropped, cacheHits, recognized, failed, completed,
+                getThroughput(), millis(elapsedNanos),
+                millis(latencyP50Nanos), millis(latencyP95Nanos), millis(latencyP99Nanos), millis(latencyMaxNanos),
+                millis(recognitionP50Nanos));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mobicom_project;
+
+/**
+ * Coordinate mapping between the three spaces a region of interest passes
+ * through:
+ * <ul>
+ *     <li>view: pixels of the overlay drawn over the preview</li>
+ *     <li>upright: the frame after ML Kit applies the rotation, which is the
+ *     space recognition results are reported in</li>
+ *     <li>raw: the frame as delivered by the sensor, which is what has to be
+ *     cropped</li>
+ * </ul>
+ * Rotations are the clockwise degrees that turn a raw frame upright.
+ */
+public final class RoiMapper {
+    private RoiMapper() {
+    }
+
+    public static Box viewToUpright(Box view, int viewW, int viewH, int uprightW, int uprightH, Box out) {
+        float scaleX = (float) uprightW / viewW;
+        float scaleY = (float) uprightH / viewH;
+        return out.set(
+                (int) (view.left * scaleX),
+                (int) (view.top * scaleY),
+                (int) Math.ceil(view.right * scaleX),
+                (int) Math.ceil(view.bottom * scaleY))
+                .clamp(0, 0, uprightW, uprightH);
+    }
+
+    /**
+     * Maps a box in the upright frame (offset by the upright crop origin) back
+     * to view pixels, growing it by {@code padding} on each side.
+     */
+    public static Box uprightToView(Box upright, int offsetX, int offsetY, int uprightW, int uprightH,
+                                    int viewW, int viewH, int padding, Box out) {
+        float scaleX = (float) viewW / uprightW;
+        float scaleY = (float) viewH / uprightH;
+        return out.set(
+                (int) ((upright.left + offsetX) * scaleX) - padding,
+                (int) ((upright.top + offsetY) * scaleY) - padding,
+                (int) ((upright.right + offsetX) * scaleX) + padding,
+                (int) ((upright.bottom + offsetY) * scaleY) + padding);
+    }
+
+    /** {@code rawW} and {@code rawH} are the dimensions of the unrotated frame. */
+    public static Box uprightToRaw(Box upright, int rotation, int rawW, int rawH, Box out) {
+        switch (rotation) {
+            case 90:
+                return out.set(upright.top, rawH - upright.right, upright.bottom, rawH - upright.left);
+            case 180:
+                return out.set(rawW - upright.right, rawH - upright.bottom, rawW - upright.left, rawH - upright.top);
+            case 270:
+                return out.set(rawW - upright.bottom, upright.left, rawW - upright.top, upright.right);
+            default:
+                return out.set(upright);
+        }
+    }
+
+    public static Box rawToUpright(Box raw, int rotation, int rawW, int rawH, Box out) {
+        switch (rotation) {
+            case 90:
+                return out.set(rawH - raw.bottom, raw.left, rawH - raw.top, raw.right);
+            case 180:
+                return out.set(rawW - raw.right, rawH - raw.bottom, rawW - raw.left, rawH - raw.top);
+            case 270:
+                return out.set(raw.top, rawW - raw.right, raw.bottom, rawW - raw.left);
+            default:
+                return out.set(raw);
+        }
+    }
+
+    /**
+     * The raw crop to recognize for the upright region {@code upright}, grown
+     * to even coordinates; the whole frame if {@code upright} is null or maps
+     * to nothing inside it.
+     */
+    public static Box cropFor(Box upright, int rotation, int rawW, int rawH, Box out) {
+        out.set(0, 0, rawW, rawH);
+        if (upright == null) return out;
+        alignToEven(uprightToRaw(upright, rotation, rawW, rawH, out).clamp(0, 0, rawW, rawH), rawW, rawH);
+        return out.isEmpty() ? out.set(0, 0, rawW, rawH) : out;
+    }
+
+    /** Grows a raw crop to even coordinates, as required by 4:2:0 chroma subsampling. */
+    public static Box alignToEven(Box raw, int rawW, int rawH) {
+        raw.left &= ~1;
+        raw.top &= ~1;
+        raw.right = Math.min((raw.right + 1) & ~1, rawW & ~1);
+        raw.bottom = Math.min((raw.bottom + 1) & ~1, rawH & ~1);
+        return raw;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.mobicom_project;
+
+/**
+ * Minimal hand-off point between pipeline stages. Camera code posts work to a
+ * Scheduler instead of a concrete Handler or Executor so that the thread
+ * hand-offs can be exercised on the JVM.
+ */
+public interface Scheduler {
+    void post(Runnable task);
+
+    boolean isCurrentThread();
+}
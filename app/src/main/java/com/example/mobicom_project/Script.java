@@ -0,0 +1,8 @@
+package com.example.mobicom_project;
+
+/** Writing system to recognize. AUTO runs a quick detection pass first. */
+public enum Script {
+    AUTO,
+    KOREAN,
+    LATIN
+}
@@ -0,0 +1,91 @@
+package com.example.mobicom_project;
+
+/**
+ * Decides from a Latin recognizer pass whether a document is Latin-only, in
+ * which case the heavier Korean model can be skipped. The Latin model turns
+ * Hangul into short runs of stray letters, digits and symbols, so the share of
+ * word-like tokens separates the two cases well.
+ * <p>
+ * The last decision is reused for {@code recheckInterval} frames so a live
+ * stream does not pay for detection on every frame.
+ */
+public class ScriptDetector {
+    static final float MIN_WORD_RATIO = 0.6f;
+    static final float MIN_LANGUAGE_RATIO = 0.5f;
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private final int recheckInterval;
+    private Script lastDetected;
+    private int framesSinceDetection;
+
+    public ScriptDetector(int recheckInterval) {
+        this.recheckInterval = recheckInterval;
+    }
+
+    /** True if the next frame should go through a detection pass. */
+    public synchronized boolean needsDetection() {
+        return lastDetected == null || framesSinceDetection >= recheckInterval;
+    }
+
+    /** Script decided by the last detection pass; counts the frame towards the next recheck. */
+    public synchronized Script nextFrame() {
+        framesSinceDetection++;
+        return lastDetected == null ? Script.KOREAN : lastDetected;
+    }
+
+    /**
+     * @param latinText        text returned by the Latin recognizer
+     * @param languageRatio    share of blocks the recognizer assigned a language to
+     */
+    public synchronized Script detect(String latinText, float languageRatio) {
+        lastDetected = classify(latinText, languageRatio);
+        framesSinceDetection = 0;
+        return lastDetected;
+    }
+
+    public synchronized void reset() {
+        lastDetected = null;
+        framesSinceDetection = 0;
+    }
+
+    static Script classify(String latinText, float languageRatio) {
+        int tokens = 0;
+        int words = 0;
+        int length = latinText.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(latinText.charAt(i))) i++;
+            if (i >= length) break;
+            int start = i;
+            while (i < length && !Character.isWhitespace(latinText.charAt(i))) i++;
+            tokens++;
+            if (isWordLike(latinText, start, i)) words++;
+        }
+        if (tokens == 0) {
+            // nothing Latin could read; the Korean model covers Latin as well
+            return Script.KOREAN;
+        }
+        float wordRatio = (float) words / tokens;
+        return wordRatio >= MIN_WORD_RATIO && languageRatio >= MIN_LANGUAGE_RATIO ? Script.LATIN : Script.KOREAN;
+    }
+
+    /**
+     * A token counts as a word if, after stripping surrounding punctuation, it
+     * is at least two characters long and is a number or contains a vowel.
+     */
+    static boolean isWordLike(String text, int start, int end) {
+        while (start < end && !Character.isLetterOrDigit(text.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(text.charAt(end - 1))) end--;
+        if (start == end) return false;
+        boolean allDigits = true;
+        boolean hasVowel = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F) return false;
+            if (!Character.isDigit(c) && c != '.' && c != ',') allDigits = false;
+            if (!Character.isLetterOrDigit(c) && c != '\'' && c != '-' && c != '.' && c != ',') return false;
+            if ("aeiouyAEIOUY".indexOf(c) >= 0) hasVowel = true;
+        }
+        return end - start >= MIN_WORD_LENGTH && (allDigits || hasVowel);
+    }
+}
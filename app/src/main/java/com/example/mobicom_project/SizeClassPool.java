@@ -0,0 +1,149 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Keeps released buffers or bitmaps for reuse, bucketed by power-of-two size
+ * class. An item of {@code n} bytes goes into class {@code floor(log2 n)} and a
+ * request for {@code m} bytes is served from class {@code ceil(log2 m)} or the
+ * next one up, so a borrowed item is always big enough and less than eight
+ * times bigger than asked for: with {@code k = ceil(log2 m)}, class
+ * {@code k + 1} holds items just under {@code 2^(k + 2)} bytes, and {@code m}
+ * can be just over {@code 2^(k - 1)}; for a power-of-two request it is under
+ * four times. The pool holds at most {@code maxBytes}; beyond that the
+ * largest pooled items are discarded first. Thread safe.
+ */
+public class SizeClassPool<T> {
+    public interface Sizer<T> {
+        int sizeOf(T item);
+    }
+
+    public interface Discarder<T> {
+        void discard(T item);
+    }
+
+    private static final int CLASSES = 32;
+
+    private final Sizer<T> sizer;
+    private final Discarder<T> discarder;
+    private final ArrayDeque<T>[] classes;
+    private long maxBytes;
+    private long pooledBytes;
+    private int pooledCount;
+    private long hits;
+    private long misses;
+    private long discarded;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SizeClassPool(long maxBytes, Sizer<T> sizer, Discarder<T> discarder) {
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.discarder = discarder;
+        this.classes = new ArrayDeque[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            classes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /** Returns a pooled item of at least {@code minBytes}, or null if the caller has to allocate. */
+    public synchronized T acquire(int minBytes) {
+        int first = ceilClass(minBytes);
+        for (int c = first; c <= Math.min(first + 1, CLASSES - 1); c++) {
+            T item = classes[c].pollLast();
+            if (item != null) {
+                pooledBytes -= sizer.sizeOf(item);
+                pooledCount--;
+                hits++;
+                return item;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /** Hands an item back; it is discarded instead if it can never fit the budget. */
+    public synchronized void release(T item) {
+        int size = sizer.sizeOf(item);
+        if (size <= 0 || size > maxBytes) {
+            discard(item);
+            return;
+        }
+        classes[floorClass(size)].addLast(item);
+        pooledBytes += size;
+        pooledCount++;
+        trimTo(maxBytes);
+    }
+
+    /** Discards pooled items, largest first, until at most {@code bytes} are held. */
+    public synchronized void trimTo(long bytes) {
+        for (int c = CLASSES - 1; c >= 0 && pooledBytes > bytes; c--) {
+            while (pooledBytes > bytes && !classes[c].isEmpty()) {
+                T item = classes[c].pollFirst();
+                pooledBytes -= sizer.sizeOf(item);
+                pooledCount--;
+                discard(item);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        trimTo(0);
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trimTo(maxBytes);
+    }
+
+    private void discard(T item) {
+        discarded++;
+        if (discarder != null) {
+            discarder.discard(item);
+        }
+    }
+
+    static int floorClass(int bytes) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(1, bytes));
+    }
+
+    static int ceilClass(int bytes) {
+        return bytes <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(bytes - 1);
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    public synchronized int getPooledCount() {
+        return pooledCount;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getDiscarded() {
+        return discarded;
+    }
+
+    public synchronized float getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0f : (float) hits / total;
+    }
+
+    /** One line: occupancy against the budget, and the hit rate. */
+    public synchronized void appendStats(StringBuilder out, String name) {
+        out.append(String.format(Locale.US, "%-8s %d items %.1f/%.1f MB hit %.0f%% (%d/%d)%n",
+                name, pooledCount, pooledBytes / 1048576.0, maxBytes / 1048576.0,
+                getHitRate() * 100, hits, hits + misses));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.mobicom_project;
+
+/**
+ * Picks stream sizes from the candidates a camera reports. Sizes are passed
+ * as parallel width/height arrays in sensor orientation so the selection can
+ * be tested without the Android size classes; every method returns an index
+ * into those arrays.
+ */
+public final class SizeSelector {
+    /** Sizes within this relative distance of the target aspect ratio count as a match. */
+    static final float ASPECT_TOLERANCE = 0.02f;
+    /** Largest size camera2 guarantees for a preview stream. */
+    static final int MAX_PREVIEW_WIDTH = 1920;
+    static final int MAX_PREVIEW_HEIGHT = 1080;
+
+    /**
+     * How many pixels recognition is allowed to look at per frame. A camera2
+     * stream keeps its configured size under digital zoom, so the budget
+     * applies to the whole frame.
+     */
+    public enum Policy {
+        FAST(1280 * 960),
+        ACCURATE(2592 * 1944);
+
+        final int pixelBudget;
+
+        Policy(int pixelBudget) {
+            this.pixelBudget = pixelBudget;
+        }
+    }
+
+    private SizeSelector() {
+    }
+
+    /**
+     * Preview size: the smallest size with the target aspect ratio that still
+     * covers the view. If none covers it, the largest matching size is used.
+     */
+    public static int selectPreview(int[] widths, int[] heights, int viewWidth, int viewHeight, float aspect) {
+        int best = -1;
+        int largest = -1;
+        for (int pass = 0; pass < 2 && best < 0 && largest < 0; pass++) {
+            boolean matchAspect = pass == 0;
+            for (int i = 0; i < widths.length; i++) {
+                if (widths[i] > MAX_PREVIEW_WIDTH || heights[i] > MAX_PREVIEW_HEIGHT) continue;
+                if (matchAspect && !matchesAspect(widths[i], heights[i], aspect)) continue;
+                if (widths[i] >= viewWidth && heights[i] >= viewHeight) {
+                    if (best < 0 || area(widths, heights, i) < area(widths, heights, best)) best = i;
+                } else if (largest < 0 || area(widths, heights, i) > area(widths, heights, largest)) {
+                    largest = i;
+                }
+            }
+        }
+        if (best >= 0) return best;
+        return largest >= 0 ? largest : smallest(widths, heights);
+    }
+
+    /**
+     * Analysis or still size: the largest size with the target aspect ratio
+     * that fits the policy's pixel budget. If every matching size is over
+     * budget, the smallest matching size is used.
+     */
+    public static int selectForOcr(int[] widths, int[] heights, float aspect, Policy policy) {
+        int best = -1;
+        int smallestMatch = -1;
+        for (int pass = 0; pass < 2 && best < 0 && smallestMatch < 0; pass++) {
+            boolean matchAspect = pass == 0;
+            for (int i = 0; i < widths.length; i++) {
+                if (matchAspect && !matchesAspect(widths[i], heights[i], aspect)) continue;
+                long area = area(widths, heights, i);
+                if (area <= policy.pixelBudget && (best < 0 || area > area(widths, heights, best))) {
+                    best = i;
+                }
+                if (smallestMatch < 0 || area < area(widths, heights, smallestMatch)) {
+                    smallestMatch = i;
+                }
+            }
+        }
+        return best >= 0 ? best : smallestMatch;
+    }
+
+    /**
+     * Power-of-two {@code inSampleSize} for decoding a stored image so the
+     * decoded bitmap fits the policy's pixel budget: the smallest factor that
+     * brings it under budget, or 1 if it already is.
+     */
+    public static int sampleSizeFor(int width, int height, Policy policy) {
+        int sampleSize = 1;
+        while ((long) (width / sampleSize) * (height / sampleSize) > policy.pixelBudget) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    static boolean matchesAspect(int width, int height, float aspect) {
+        if (aspect <= 0) return true;
+        float sizeAspect = (float) width / height;
+        return Math.abs(sizeAspect - aspect) / aspect <= ASPECT_TOLERANCE;
+    }
+
+    private static long area(int[] widths, int[] heights, int i) {
+        return (long) widths[i] * heights[i];
+    }
+
+    private static int smallest(int[] widths, int[] heights) {
+        int smallest = 0;
+        for (int i = 1; i < widths.length; i++) {
+            if (area(widths, heights, i) < area(widths, heights, smallest)) smallest = i;
+        }
+        return smallest;
+    }
+}
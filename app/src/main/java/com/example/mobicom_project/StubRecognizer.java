@@ -0,0 +1,62 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for ML Kit when replaying: takes a fixed time on its scheduler and
+ * reports {@code linesPerFrame} full-width lines stacked over the upright crop. The
+ * text carries the crop's mean luma so different scenes read differently.
+ */
+public class StubRecognizer implements FrameRecognizer {
+    private final Scheduler worker;
+    private final long latencyMillis;
+    private final int linesPerFrame;
+
+    public StubRecognizer(Scheduler worker, long latencyMillis, int linesPerFrame) {
+        this.worker = worker;
+        this.latencyMillis = latencyMillis;
+        this.linesPerFrame = linesPerFrame;
+    }
+
+    @Override
+    public void recognize(Frame frame, Box crop, int rotation, Callback callback) {
+        // read the frame now: the pipeline may close it once we call back
+        final int luma = meanLuma(frame, crop);
+        final Box upright = RoiMapper.rawToUpright(crop, rotation, frame.getWidth(), frame.getHeight(), new Box());
+        worker.post(() -> {
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    callback.onFailed(e);
+                    return;
+                }
+            }
+            List<OcrBlock> blocks = new ArrayList<>(linesPerFrame);
+            int lineHeight = Math.max(1, upright.height() / Math.max(1, linesPerFrame));
+            for (int i = 0; i < linesPerFrame; i++) {
+                int top = upright.top + i * lineHeight;
+                Box bounds = new Box(upright.left, top, upright.right, top + lineHeight);
+                blocks.add(new OcrBlock(bounds).addLine("line " + i + " luma " + luma, 1f, new Box().set(bounds)));
+            }
+            callback.onRecognized(blocks);
+        });
+    }
+
+    private static int meanLuma(Frame frame, Box crop) {
+        if (frame.getFormat() != Frame.Format.YUV_420_888 || crop.isEmpty()) return 0;
+        long sum = 0;
+        int count = 0;
+        int rowStride = frame.getRowStride(0);
+        int pixelStride = frame.getPixelStride(0);
+        for (int y = crop.top; y < crop.bottom; y += 8) {
+            for (int x = crop.left; x < crop.right; x += 8) {
+                sum += frame.getPlane(0).get(y * rowStride + x * pixelStride) & 0xFF;
+                count++;
+            }
+        }
+        return (int) (sum / count);
+    }
+}
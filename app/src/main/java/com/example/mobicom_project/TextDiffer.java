@@ -0,0 +1,112 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a displayed document of tracked blocks, one block per line group
+ * followed by {@code '\n'}, and turns each new frame into the smallest set of
+ * per-block edits: unchanged blocks are left alone, so the text view only
+ * re-lays out what actually changed. Blocks are aligned by id with a longest
+ * common subsequence, which keeps blocks that merely moved in reading order
+ * from being retyped.
+ */
+public class TextDiffer {
+    /** Receives edits in document order; offsets account for earlier edits. */
+    public interface Sink {
+        void replace(int start, int end, CharSequence text);
+
+        /** The block's text now spans {@code [start, end)}, excluding the separator. */
+        void onBlockChanged(int blockId, int start, int end);
+
+        void onBlockRemoved(int blockId);
+    }
+
+    private static final char SEPARATOR = '\n';
+
+    private final List<Integer> ids = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private int[] table = new int[0];
+
+    /** Applies the edits that turn the current document into {@code blocks}; returns the edit count. */
+    public int apply(List<OcrBlock> blocks, Sink sink) {
+        int n = ids.size();
+        int m = blocks.size();
+        int columns = m + 1;
+        if (table.length < (n + 1) * columns) {
+            table = new int[(n + 1) * columns];
+        }
+        // table[i][j] = LCS length of old[i..] and new[j..]
+        for (int i = n; i >= 0; i--) {
+            for (int j = m; j >= 0; j--) {
+                int value;
+                if (i == n || j == m) {
+                    value = 0;
+                } else if (ids.get(i) == blocks.get(j).id) {
+                    value = table[(i + 1) * columns + j + 1] + 1;
+                } else {
+                    value = Math.max(table[(i + 1) * columns + j], table[i * columns + j + 1]);
+                }
+                table[i * columns + j] = value;
+            }
+        }
+
+        List<Integer> newIds = new ArrayList<>(m);
+        List<String> newTexts = new ArrayList<>(m);
+        int edits = 0;
+        int pos = 0;
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && ids.get(i) == blocks.get(j).id) {
+                String before = texts.get(i);
+                String after = blocks.get(j).getText();
+                if (!before.equals(after)) {
+                    sink.replace(pos, pos + before.length(), after);
+                    sink.onBlockChanged(blocks.get(j).id, pos, pos + after.length());
+                    edits++;
+                }
+                newIds.add(blocks.get(j).id);
+                newTexts.add(after);
+                pos += after.length() + 1;
+                i++;
+                j++;
+            } else if (j == m || (i < n && table[(i + 1) * columns + j] >= table[i * columns + j + 1])) {
+                sink.replace(pos, pos + texts.get(i).length() + 1, "");
+                sink.onBlockRemoved(ids.get(i));
+                edits++;
+                i++;
+            } else {
+                OcrBlock block = blocks.get(j);
+                String after = block.getText();
+                sink.replace(pos, pos, after + SEPARATOR);
+                sink.onBlockChanged(block.id, pos, pos + after.length());
+                newIds.add(block.id);
+                newTexts.add(after);
+                edits++;
+                pos += after.length() + 1;
+                j++;
+            }
+        }
+        ids.clear();
+        ids.addAll(newIds);
+        texts.clear();
+        texts.addAll(newTexts);
+        return edits;
+    }
+
+    /** The whole document as it should currently be displayed. */
+    public String render() {
+        StringBuilder builder = new StringBuilder();
+        for (String text : texts) {
+            builder.append(text).append(SEPARATOR);
+        }
+        return builder.toString();
+    }
+
+    /** Forgets the document; the next {@link #apply} inserts every block. */
+    public void clear() {
+        ids.clear();
+        texts.clear();
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.mobicom_project;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent full-text index over recognized pages, built for Korean: terms
+ * are character bigrams ({@link NgramTokenizer}), so no word segmentation is
+ * needed and a query matches anywhere inside a word.
+ * <p>
+ * Pages are appended to a {@link DocStore}, which doubles as the write-ahead
+ * log. Their grams go to an in-memory table that is written out as an
+ * immutable, memory-mapped {@link IndexSegment} every {@code flushDocs}
+ * pages; pages not yet in a segment are re-indexed from the store on open.
+ * Once there are more than {@code maxSegments} segments they are merged into
+ * one on the compaction scheduler, without blocking adds or searches. Heap
+ * use is the in-memory table plus 8 bytes per page.
+ * <p>
+ * A search intersects the postings of the query's grams, then confirms each
+ * candidate against its stored text, newest page first.
+ */
+public class TextIndex implements Closeable {
+    public static final class Hit {
+        public final int docId;
+        public final long timeMillis;
+        /** Where the text came from, e.g. the capture's file name. */
+        public final String source;
+        public final String text;
+
+        Hit(int docId, long timeMillis, String source, String text) {
+            this.docId = docId;
+            this.timeMillis = timeMillis;
+            this.source = source;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return "Hit#" + docId + " " + source;
+        }
+    }
+
+    static final int DEFAULT_FLUSH_DOCS = 256;
+    static final int DEFAULT_MAX_SEGMENTS = 8;
+    static final String DOCS_FILE = "docs.dat";
+
+    private final File directory;
+    private final Scheduler compactionScheduler;
+    private final DocStore docs;
+    private final int flushDocs;
+    private final int maxSegments;
+    private List<IndexSegment> segments;
+    /** Grams of the documents from {@link #memFirstDoc} on, which aren't in a segment yet. */
+    private final TreeMap<Integer, IntList> memtable = new TreeMap<>();
+    private int memFirstDoc;
+    private boolean compacting;
+
+    public TextIndex(File directory, Scheduler compactionScheduler) throws IOException {
+        this(directory, compactionScheduler, DEFAULT_FLUSH_DOCS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /** {@code compactionScheduler} may be null, then segments are only merged by {@link #compact()}. */
+    public TextIndex(File directory, Scheduler compactionScheduler, int flushDocs, int maxSegments) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.compactionScheduler = compactionScheduler;
+        this.flushDocs = flushDocs;
+        this.maxSegments = maxSegments;
+        docs = new DocStore(new File(directory, DOCS_FILE));
+        segments = loadSegments(directory, docs.size());
+        memFirstDoc = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).getEndDoc();
+        for (int id = memFirstDoc; id < docs.size(); id++) {
+            Hit doc = docs.read(id);
+            addToMemtable(id, doc == null ? "" : doc.text);
+        }
+    }
+
+    /**
+     * Opens the chain of segments covering documents from 0 on. Leftovers of an
+     * interrupted flush or compaction are deleted: temporary files, segments
+     * inside a merged one, and anything past a gap or past the stored documents.
+     */
+    private static List<IndexSegment> loadSegments(File directory, int docCount) throws IOException {
+        File[] files = directory.listFiles();
+        List<int[]> ranges = new ArrayList<>();
+        List<File> candidates = new ArrayList<>();
+        for (File file : files == null ? new File[0] : files) {
+            int[] range = IndexSegment.parseName(file.getName());
+            if (range != null) {
+                ranges.add(range);
+                candidates.add(file);
+            } else if (file.getName().endsWith(".tmp")) {
+                delete(file);
+            }
+        }
+        List<IndexSegment> chain = new ArrayList<>();
+        int next = 0;
+        boolean extended = true;
+        while (extended) {
+            extended = false;
+            // the widest segment starting where the chain ends
+            int best = -1;
+            for (int i = 0; i < ranges.size(); i++) {
+                int[] range = ranges.get(i);
+                if (range[0] == next && range[1] > next && range[1] <= docCount
+                        && (best < 0 || range[1] > ranges.get(best)[1])) {
+                    best = i;
+                }
+            }
+            if (best >= 0) {
+                try {
+                    chain.add(IndexSegment.open(candidates.get(best)));
+                    next = ranges.get(best)[1];
+                    ranges.remove(best);
+                    candidates.remove(best);
+                    extended = true;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    ranges.remove(best);
+                    delete(candidates.remove(best));
+                    extended = true;
+                }
+            }
+        }
+        for (File unused : candidates) {
+            delete(unused);
+        }
+        return chain;
+    }
+
+    /** Stores a page and indexes it; returns its id. */
+    public synchronized int add(long timeMillis, String source, String text) throws IOException {
+        int id = docs.append(timeMillis, source, text);
+        addToMemtable(id, text);
+        if (id + 1 - memFirstDoc >= flushDocs) {
+            flush();
+        }
+        return id;
+    }
+
+    private void addToMemtable(int id, String text) {
+        IntList grams = NgramTokenizer.documentGrams(NgramTokenizer.normalize(text));
+        for (int i = 0; i < grams.size(); i++) {
+            IntList postings = memtable.get(grams.get(i));
+            if (postings == null) {
+                postings = new IntList(4);
+                memtable.put(grams.get(i), postings);
+            }
+            postings.add(id);
+        }
+    }
+
+    /** Writes the in-memory table out as a segment. */
+    public synchronized void flush() throws IOException {
+        int endDoc = docs.size();
+        if (endDoc == memFirstDoc) return;
+        docs.sync();
+        IndexSegment.Writer writer = new IndexSegment.Writer(directory, memFirstDoc, endDoc);
+        IndexSegment segment;
+        try {
+            for (Map.Entry<Integer, IntList> entry : memtable.entrySet()) {
+                writer.add(entry.getKey(), entry.getValue());
+            }
+            segment = writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        List<IndexSegment> next = new ArrayList<>(segments);
+        next.add(segment);
+        segments = next;
+        memtable.clear();
+        memFirstDoc = endDoc;
+        if (segments.size() > maxSegments && compactionScheduler != null && !compacting) {
+            compactionScheduler.post(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    /**
+     * Merges all current segments into one. The merge reads the immutable
+     * segments without holding the lock; only the swap does.
+     */
+    public void compact() throws IOException {
+        List<IndexSegment> inputs;
+        synchronized (this) {
+            if (compacting || segments.size() < 2) return;
+            compacting = true;
+            inputs = segments;
+        }
+        try {
+            IndexSegment merged = merge(inputs);
+            synchronized (this) {
+                List<IndexSegment> next = new ArrayList<>();
+                next.add(merged);
+                // flushes may have added segments meanwhile
+                next.addAll(segments.subList(inputs.size(), segments.size()));
+                segments = next;
+            }
+            // searches still holding the old segments keep their mappings
+            for (IndexSegment input : inputs) {
+                delete(input.getFile());
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private IndexSegment merge(List<IndexSegment> inputs) throws IOException {
+        int firstDoc = inputs.get(0).getFirstDoc();
+        int endDoc = inputs.get(inputs.size() - 1).getEndDoc();
+        IndexSegment.Writer writer = new IndexSegment.Writer(directory, firstDoc, endDoc);
+        try {
+            int[] next = new int[inputs.size()];
+            IntList postings = new IntList();
+            while (true) {
+                int gram = 0;
+                boolean any = false;
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (next[i] < inputs.get(i).getGramCount()) {
+                        int candidate = inputs.get(i).gramAt(next[i]);
+                        if (!any || candidate < gram) {
+                            gram = candidate;
+                            any = true;
+                        }
+                    }
+                }
+                if (!any) break;
+                postings.clear();
+                // segments cover ascending, disjoint doc ranges, so this stays sorted
+                for (int i = 0; i < inputs.size(); i++) {
+                    IndexSegment input = inputs.get(i);
+                    if (next[i] < input.getGramCount() && input.gramAt(next[i]) == gram) {
+                        input.decode(next[i]++, postings);
+                    }
+                }
+                writer.add(gram, postings);
+            }
+            return writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Pages containing every word of {@code query} as a substring, ignoring
+     * case, newest first. Words may appear in any order.
+     */
+    public synchronized List<Hit> search(String query, int limit) throws IOException {
+        List<String> runs = NgramTokenizer.runs(NgramTokenizer.normalize(query));
+        if (runs.isEmpty() || limit <= 0) return Collections.emptyList();
+        IntList candidates = null;
+        IntList grams = new IntList();
+        for (String run : runs) {
+            grams.clear();
+            if (run.length() == 1) {
+                candidates = intersect(candidates, postingsInRange(run.charAt(0)));
+            } else {
+                for (int i = 0; i + 1 < run.length(); i++) {
+                    grams.add(NgramTokenizer.bigram(run.charAt(i), run.charAt(i + 1)));
+                }
+                grams.sortUnique();
+                for (int i = 0; i < grams.size() && (candidates == null || !candidates.isEmpty()); i++) {
+                    candidates = intersect(candidates, postings(grams.get(i)));
+                }
+            }
+            if (candidates.isEmpty()) return Collections.emptyList();
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (int i = candidates.size() - 1; i >= 0 && hits.size() < limit; i--) {
+            Hit hit = docs.read(candidates.get(i));
+            if (hit != null && containsAll(NgramTokenizer.normalize(hit.text), runs)) {
+                hits.add(hit);
+            }
+        }
+        return hits;
+    }
+
+    private static IntList intersect(IntList candidates, IntList docs) {
+        if (candidates == null) return docs;
+        candidates.retainSorted(docs);
+        return candidates;
+    }
+
+    private static boolean containsAll(String text, List<String> runs) {
+        for (String run : runs) {
+            if (!text.contains(run)) return false;
+        }
+        return true;
+    }
+
+    private IntList postings(int gram) {
+        IntList out = new IntList();
+        for (IndexSegment segment : segments) {
+            segment.postings(gram, out);
+        }
+        IntList recent = memtable.get(gram);
+        for (int i = 0; recent != null && i < recent.size(); i++) {
+            out.add(recent.get(i));
+        }
+        return out;
+    }
+
+    private IntList postingsInRange(char c) {
+        int lo = NgramTokenizer.rangeStart(c);
+        int hi = NgramTokenizer.rangeEnd(c);
+        IntList out = new IntList();
+        for (IndexSegment segment : segments) {
+            segment.postingsInRange(lo, hi, out);
+        }
+        for (IntList recent : memtable.subMap(lo, true, hi, true).values()) {
+            for (int i = 0; i < recent.size(); i++) {
+                out.add(recent.get(i));
+            }
+        }
+        out.sortUnique();
+        return out;
+    }
+
+    public synchronized Hit get(int docId) throws IOException {
+        return docs.read(docId);
+    }
+
+    public synchronized int size() {
+        return docs.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /** Pages that are only in memory, not yet in a segment. */
+    public synchronized int getPendingDocs() {
+        return docs.size() - memFirstDoc;
+    }
+
+    /** Unflushed pages are re-indexed from the document store on the next open. */
+    @Override
+    public synchronized void close() throws IOException {
+        docs.sync();
+        docs.close();
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
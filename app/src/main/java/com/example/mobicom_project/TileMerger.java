@@ -0,0 +1,185 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Combines per-tile recognition results into one result in full-image
+ * coordinates. A line that falls in the overlap of two tiles is usually read
+ * twice, once of them cut off at a tile edge; of lines that overlap by at
+ * least {@code minOverlap} (of the smaller box) the reading farthest from an
+ * inner tile edge is kept. A line longer than the overlap is cut by both
+ * tiles; fragments on the same baseline that overlap less than that are
+ * joined into one line in the middle of their overlap.
+ */
+public class TileMerger {
+    private static final class Candidate {
+        final OcrBlock block;
+        OcrBlock.Line line;
+        final int tile;
+        final int margin;
+
+        Candidate(OcrBlock block, OcrBlock.Line line, int tile, int margin) {
+            this.block = block;
+            this.line = line;
+            this.tile = tile;
+            this.margin = margin;
+        }
+    }
+
+    private final float minOverlap;
+
+    public TileMerger(float minOverlap) {
+        this.minOverlap = minOverlap;
+    }
+
+    /**
+     * {@code tileBlocks.get(i)} holds the blocks recognized in {@code tiles.get(i)},
+     * in that tile's coordinates. Returns blocks in reading order (top, then left).
+     */
+    public List<OcrBlock> merge(List<Box> tiles, List<List<OcrBlock>> tileBlocks) {
+        Box image = new Box(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        for (Box tile : tiles) {
+            image.set(Math.min(image.left, tile.left), Math.min(image.top, tile.top),
+                    Math.max(image.right, tile.right), Math.max(image.bottom, tile.bottom));
+        }
+
+        List<OcrBlock> remapped = new ArrayList<>();
+        List<Candidate> candidates = new ArrayList<>();
+        for (int t = 0; t < tiles.size(); t++) {
+            Box tile = tiles.get(t);
+            for (OcrBlock block : tileBlocks.get(t)) {
+                OcrBlock moved = new OcrBlock(offset(block.bounds, tile));
+                for (OcrBlock.Line line : block.lines) {
+                    Box bounds = offset(line.bounds != null ? line.bounds : block.bounds, tile);
+                    OcrBlock.Line movedLine = new OcrBlock.Line(line.text, line.confidence, bounds);
+                    candidates.add(new Candidate(moved, movedLine, t, margin(bounds, tile, image)));
+                }
+                remapped.add(moved);
+            }
+        }
+
+        // most trustworthy readings first
+        Collections.sort(candidates, (a, b) -> {
+            if (a.margin != b.margin) return Integer.compare(b.margin, a.margin);
+            if (a.line.text.length() != b.line.text.length()) return Integer.compare(b.line.text.length(), a.line.text.length());
+            return Float.compare(b.line.confidence, a.line.confidence);
+        });
+        List<Candidate> kept = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (isDuplicate(candidate, kept)) continue;
+            Candidate fragment = findFragment(candidate, kept);
+            if (fragment != null) {
+                fragment.line = join(fragment.line, candidate.line);
+            } else {
+                kept.add(candidate);
+            }
+        }
+        for (Candidate candidate : kept) {
+            candidate.block.lines.add(candidate.line);
+        }
+
+        List<OcrBlock> merged = new ArrayList<>(remapped.size());
+        for (OcrBlock block : remapped) {
+            if (block.lines.isEmpty()) continue;
+            // lines were added in trust order; restore top-to-bottom order
+            Collections.sort(block.lines, (a, b) -> Integer.compare(a.bounds.top, b.bounds.top));
+            OcrBlock sorted = new OcrBlock(union(block.lines), block.lines);
+            merged.add(sorted);
+        }
+        Collections.sort(merged, (a, b) -> a.bounds.top != b.bounds.top
+                ? Integer.compare(a.bounds.top, b.bounds.top)
+                : Integer.compare(a.bounds.left, b.bounds.left));
+        return merged;
+    }
+
+    private boolean isDuplicate(Candidate candidate, List<Candidate> kept) {
+        for (Candidate other : kept) {
+            if (other.tile != candidate.tile && overlapOfSmaller(candidate.line.bounds, other.line.bounds) >= minOverlap) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** A kept reading from another tile of the same line, which {@code candidate} continues across a seam. */
+    private Candidate findFragment(Candidate candidate, List<Candidate> kept) {
+        Box line = candidate.line.bounds;
+        for (Candidate other : kept) {
+            if (other.tile == candidate.tile) continue;
+            Box bounds = other.line.bounds;
+            int w = Math.min(line.right, bounds.right) - Math.max(line.left, bounds.left);
+            int h = Math.min(line.bottom, bounds.bottom) - Math.max(line.top, bounds.top);
+            if (w > 0 && h >= minOverlap * Math.min(line.height(), bounds.height())) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Joins two fragments of a line at the middle of their overlap. Character
+     * positions are estimated evenly over each box, and whole words are taken
+     * from whichever fragment has them on its side of the cut, so the words
+     * cut off at a tile edge are dropped.
+     */
+    static OcrBlock.Line join(OcrBlock.Line a, OcrBlock.Line b) {
+        OcrBlock.Line left = a.bounds.left <= b.bounds.left ? a : b;
+        OcrBlock.Line right = left == a ? b : a;
+        int cut = (right.bounds.left + Math.min(left.bounds.right, right.bounds.right)) / 2;
+        StringBuilder text = new StringBuilder(left.text.length() + right.text.length());
+        appendWords(left, cut, true, text);
+        appendWords(right, cut, false, text);
+        Box bounds = new Box(left.bounds.left, Math.min(a.bounds.top, b.bounds.top),
+                Math.max(a.bounds.right, b.bounds.right), Math.max(a.bounds.bottom, b.bounds.bottom));
+        return new OcrBlock.Line(text.toString(), Math.min(a.confidence, b.confidence), bounds);
+    }
+
+    /** Appends the words of {@code line} centred left of {@code cut}, or the others if {@code before} is false. */
+    private static void appendWords(OcrBlock.Line line, int cut, boolean before, StringBuilder out) {
+        String text = line.text;
+        float charWidth = (float) line.bounds.width() / Math.max(1, text.length());
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) end = text.length();
+            if (end > start && (line.bounds.left + (start + end) / 2f * charWidth < cut) == before) {
+                if (out.length() > 0) out.append(' ');
+                out.append(text, start, end);
+            }
+            start = end + 1;
+        }
+    }
+
+    /** Distance from {@code line} to the nearest edge of {@code tile} that is not an image edge. */
+    static int margin(Box line, Box tile, Box image) {
+        int margin = Integer.MAX_VALUE;
+        if (tile.left > image.left) margin = Math.min(margin, line.left - tile.left);
+        if (tile.top > image.top) margin = Math.min(margin, line.top - tile.top);
+        if (tile.right < image.right) margin = Math.min(margin, tile.right - line.right);
+        if (tile.bottom < image.bottom) margin = Math.min(margin, tile.bottom - line.bottom);
+        return margin;
+    }
+
+    static float overlapOfSmaller(Box a, Box b) {
+        long w = Math.min(a.right, b.right) - Math.max(a.left, b.left);
+        long h = Math.min(a.bottom, b.bottom) - Math.max(a.top, b.top);
+        if (w <= 0 || h <= 0) return 0f;
+        long smaller = Math.min((long) a.width() * a.height(), (long) b.width() * b.height());
+        return smaller <= 0 ? 0f : (float) (w * h) / smaller;
+    }
+
+    private static Box offset(Box box, Box tile) {
+        return new Box(box.left + tile.left, box.top + tile.top, box.right + tile.left, box.bottom + tile.top);
+    }
+
+    private static Box union(List<OcrBlock.Line> lines) {
+        Box union = new Box().set(lines.get(0).bounds);
+        for (OcrBlock.Line line : lines) {
+            union.set(Math.min(union.left, line.bounds.left), Math.min(union.top, line.bounds.top),
+                    Math.max(union.right, line.bounds.right), Math.max(union.bottom, line.bounds.bottom));
+        }
+        return union;
+    }
+}
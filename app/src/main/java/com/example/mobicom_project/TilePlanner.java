@@ -0,0 +1,45 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an image into a grid of overlapping tiles so each can be recognized
+ * near full resolution. Tiles are at most {@code tileSize} on a side, neighbours
+ * overlap by at least {@code overlap}, and the tiles are spread evenly so the
+ * last row and column are not slivers.
+ */
+public final class TilePlanner {
+    private TilePlanner() {
+    }
+
+    public static List<Box> plan(int width, int height, int tileSize, int overlap) {
+        if (overlap >= tileSize) {
+            throw new IllegalArgumentException("overlap " + overlap + " must be smaller than tile " + tileSize);
+        }
+        int[] xs = starts(width, tileSize, overlap);
+        int[] ys = starts(height, tileSize, overlap);
+        int tileW = Math.min(width, tileSize);
+        int tileH = Math.min(height, tileSize);
+        List<Box> tiles = new ArrayList<>(xs.length * ys.length);
+        for (int y : ys) {
+            for (int x : xs) {
+                tiles.add(new Box(x, y, x + tileW, y + tileH));
+            }
+        }
+        return tiles;
+    }
+
+    /** Evenly spaced tile origins along one axis. */
+    static int[] starts(int length, int tileSize, int overlap) {
+        if (length <= tileSize) {
+            return new int[]{0};
+        }
+        int count = (int) Math.ceil((double) (length - overlap) / (tileSize - overlap));
+        int[] starts = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = (int) ((long) (length - tileSize) * i / (count - 1));
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.mobicom_project;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+
+/**
+ * Starts the slow parts of opening the camera screen while {@link MainActivity}
+ * is still showing: resolves the camera id and its characteristics, loads the
+ * recognizer models into {@link RecognizerRegistry} and runs one inference on
+ * a blank image with each, so the first real frame doesn't pay for model
+ * initialization.
+ * {@link CameraActivity} picks up whatever is ready and does the rest itself.
+ * Process-wide; {@link #start} is a no-op after the first call.
+ */
+public final class WarmUp {
+    private static final String TAG = "WarmUp";
+    private static final WarmUp INSTANCE = new WarmUp();
+    /** Automatic script detection runs Latin on the first frame, then Korean unless the text is Latin. */
+    static final Script[] WARM_SCRIPTS = {Script.LATIN, Script.KOREAN};
+    private static final int DUMMY_SIZE = 64;
+
+    private ExecutorScheduler scheduler;
+    private volatile String cameraId;
+    private volatile CameraCharacteristics characteristics;
+    private volatile boolean recognizerReady;
+    private volatile long finishedNanos;
+
+    private WarmUp() {
+    }
+
+    public static WarmUp get() {
+        return INSTANCE;
+    }
+
+    public synchronized void start(Context context) {
+        if (scheduler != null) return;
+        final Context appContext = context.getApplicationContext();
+        final long startNanos = PerfMetrics.now();
+        scheduler = new ExecutorScheduler("WarmUpThread");
+        // camera first: it is cheap and CameraActivity needs it before anything else
+        scheduler.post(() -> resolveCamera(appContext));
+        scheduler.post(this::loadRecognizers);
+        scheduler.post(() -> {
+            finishedNanos = PerfMetrics.now();
+            Log.i(TAG, "start: done in " + (finishedNanos - startNanos) / 1_000_000 + " ms");
+            scheduler.shutdown();
+        });
+    }
+
+    private void resolveCamera(Context context) {
+        CameraManager cameraManager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
+        try {
+            String id = cameraManager.getCameraIdList()[0];
+            characteristics = cameraManager.getCameraCharacteristics(id);
+            cameraId = id;
+        } catch (CameraAccessException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void loadRecognizers() {
+        Bitmap blank = Bitmap.createBitmap(DUMMY_SIZE, DUMMY_SIZE, Bitmap.Config.ARGB_8888);
+        InputImage image = InputImage.fromBitmap(blank, 0);
+        try {
+            for (Script script : WARM_SCRIPTS) {
+                Tasks.await(RecognizerRegistry.getInstance().process(script, image));
+            }
+            recognizerReady = true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            blank.recycle();
+        }
+    }
+
+    /** The camera resolved by the warm-up, or null if it hasn't got that far. */
+    public String getCameraId() {
+        return cameraId;
+    }
+
+    /** Characteristics of {@link #getCameraId()}, or null. */
+    public CameraCharacteristics getCharacteristics() {
+        return cameraId == null ? null : characteristics;
+    }
+
+    /** The models are loaded and have run once, unless they were since dropped by onTrimMemory. */
+    public boolean isRecognizerReady() {
+        if (!recognizerReady) return false;
+        for (Script script : WARM_SCRIPTS) {
+            if (!RecognizerRegistry.getInstance().isLoaded(script)) return false;
+        }
+        return true;
+    }
+
+    public boolean isFinished() {
+        return finishedNanos != 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.mobicom_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copies a region of a YUV_420_888 frame into an NV21 array that can be handed
+ * to ML Kit. Plane buffers are addressed with absolute offsets, so only the
+ * row copies of the luma plane move a buffer position, and it is reset before
+ * returning.
+ */
+public final class YuvCropper {
+    private YuvCropper() {
+    }
+
+    public static int nv21Size(int width, int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    /**
+     * {@code crop} must lie inside the frame and have even coordinates.
+     * {@code out} must hold at least {@link #nv21Size} bytes for the crop.
+     */
+    public static void cropToNv21(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                                  ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                                  Box crop, byte[] out) {
+        int width = crop.width();
+        int height = crop.height();
+        int offset = 0;
+        for (int row = 0; row < height; row++) {
+            int rowStart = (crop.top + row) * yRowStride + crop.left * yPixelStride;
+            if (yPixelStride == 1) {
+                yPlane.position(rowStart);
+                yPlane.get(out, offset, width);
+                offset += width;
+            } else {
+                for (int col = 0; col < width; col++) {
+                    out[offset++] = yPlane.get(rowStart + col * yPixelStride);
+                }
+            }
+        }
+        yPlane.position(0);
+
+        int chromaLeft = crop.left / 2;
+        int chromaTop = crop.top / 2;
+        int chromaW = width / 2;
+        int chromaH = height / 2;
+        for (int row = 0; row < chromaH; row++) {
+            int rowStart = (chromaTop + row) * uvRowStride + chromaLeft * uvPixelStride;
+            for (int col = 0; col < chromaW; col++) {
+                int index = rowStart + col * uvPixelStride;
+                out[offset++] = vPlane.get(index);
+                out[offset++] = uPlane.get(index);
+            }
+        }
+    }
+
+    /**
+     * Same as the array version, writing into a (usually direct, pooled)
+     * buffer. {@code out} is filled from index 0 and left with position 0 and
+     * the limit at the end of the NV21 data.
+     */
+    public static void cropToNv21(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                                  ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                                  Box crop, ByteBuffer out) {
+        int width = crop.width();
+        int height = crop.height();
+        out.clear();
+        if (yPixelStride == 1) {
+            // bulk row copies; buffer to buffer is a memcpy when both are direct
+            ByteBuffer source = yPlane.duplicate();
+            for (int row = 0; row < height; row++) {
+                int rowStart = (crop.top + row) * yRowStride + crop.left;
+                source.limit(rowStart + width).position(rowStart);
+                out.put(source);
+            }
+        } else {
+            for (int row = 0; row < height; row++) {
+                int rowStart = (crop.top + row) * yRowStride + crop.left * yPixelStride;
+                for (int col = 0; col < width; col++) {
+                    out.put(yPlane.get(rowStart + col * yPixelStride));
+                }
+            }
+        }
+
+        int chromaLeft = crop.left / 2;
+        int chromaTop = crop.top / 2;
+        int chromaW = width / 2;
+        int chromaH = height / 2;
+        for (int row = 0; row < chromaH; row++) {
+            int rowStart = (chromaTop + row) * uvRowStride + chromaLeft * uvPixelStride;
+            for (int col = 0; col < chromaW; col++) {
+                int index = rowStart + col * uvPixelStride;
+                out.put(vPlane.get(index));
+                out.put(uPlane.get(index));
+            }
+        }
+        out.flip();
+    }
+}
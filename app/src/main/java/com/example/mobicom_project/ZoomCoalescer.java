@@ -0,0 +1,86 @@
+package com.example.mobicom_project;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest-value handoff between pinch events and the camera. Targets are
+ * published into a single atomic slot, overwriting any target that has not
+ * been submitted yet, and at most one submission is in flight until the
+ * camera reports a frame with it. Everything is lock-free, so pinch events on
+ * the UI thread never wait on the camera thread.
+ */
+public class ZoomCoalescer {
+    public interface Submitter {
+        /** Applies {@code zoom} to the repeating request; returns false if nothing was submitted. */
+        boolean submit(float zoom);
+    }
+
+    private static final int NONE = Float.floatToRawIntBits(Float.NaN);
+
+    private final Scheduler scheduler;
+    private final Submitter submitter;
+    private final AtomicInteger pending = new AtomicInteger(NONE);
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public ZoomCoalescer(Scheduler scheduler, Submitter submitter) {
+        this.scheduler = scheduler;
+        this.submitter = submitter;
+    }
+
+    public void setTarget(float zoom) {
+        if (pending.getAndSet(Float.floatToRawIntBits(zoom)) != NONE) {
+            coalesced.incrementAndGet();
+        }
+        drain();
+    }
+
+    /** Called for every completed frame of the repeating request. */
+    public void onFrameCompleted() {
+        inFlight.set(false);
+        drain();
+    }
+
+    private void drain() {
+        while (pending.get() != NONE && inFlight.compareAndSet(false, true)) {
+            int bits = pending.getAndSet(NONE);
+            if (bits == NONE) {
+                inFlight.set(false);
+                continue;
+            }
+            final float zoom = Float.intBitsToFloat(bits);
+            submitted.incrementAndGet();
+            scheduler.post(() -> {
+                if (!submitter.submit(zoom)) {
+                    onFrameCompleted();
+                }
+            });
+            return;
+        }
+    }
+
+    /**
+     * Drops any target not yet submitted and forgets the one in flight, for
+     * when the repeating request is stopped and no frame will report it.
+     */
+    public void clear() {
+        pending.set(NONE);
+        inFlight.set(false);
+    }
+
+    public boolean isInFlight() {
+        return inFlight.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /** Targets replaced before they reached the camera. */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
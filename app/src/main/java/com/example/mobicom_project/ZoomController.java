@@ -0,0 +1,159 @@
+package com.example.mobicom_project;
+
+import android.graphics.Rect;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Range;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * Applies pinch zoom to the preview. Sensor characteristics are read once at
+ * construction; pinch deltas are coalesced by a {@link ZoomCoalescer} so at
+ * most one repeating request is submitted per completed frame. On API 30+
+ * {@code CONTROL_ZOOM_RATIO} is used, which also lets the HAL switch to a
+ * longer lens; older devices get a {@code SCALER_CROP_REGION}.
+ * <p>
+ * The preview builder and session are only touched on the camera thread.
+ */
+public class ZoomController {
+    public interface FrameListener {
+        void onCaptureCompleted(@NonNull TotalCaptureResult result);
+    }
+
+    private final Handler cameraHandler;
+    private final Rect activeArray;
+    private final float minZoom;
+    private final float maxZoom;
+    private final boolean useZoomRatio;
+    private final ZoomCoalescer coalescer;
+    private final Box cropBox = new Box();
+    private final Rect cropRect = new Rect();
+    private volatile float targetZoom;
+    private volatile float appliedZoom;
+    private CameraCaptureSession session;
+    private CaptureRequest.Builder previewBuilder;
+    private volatile FrameListener frameListener;
+
+    public ZoomController(CameraCharacteristics characteristics, Scheduler cameraScheduler, Handler cameraHandler, float initialZoom) {
+        this.cameraHandler = cameraHandler;
+        activeArray = Objects.requireNonNull(characteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE));
+        Range<Float> ratioRange = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            ratioRange = characteristics.get(CameraCharacteristics.CONTROL_ZOOM_RATIO_RANGE);
+        }
+        useZoomRatio = ratioRange != null;
+        if (useZoomRatio) {
+            // below 1x would switch to an ultra-wide lens; keep the preview framing stable
+            minZoom = Math.max(1f, ratioRange.getLower());
+            maxZoom = ratioRange.getUpper();
+        } else {
+            Float maxDigitalZoom = characteristics.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM);
+            minZoom = 1f;
+            maxZoom = maxDigitalZoom != null ? maxDigitalZoom : 1f;
+        }
+        targetZoom = ZoomMath.clamp(initialZoom, minZoom, maxZoom);
+        appliedZoom = targetZoom;
+        coalescer = new ZoomCoalescer(cameraScheduler, this::submit);
+    }
+
+    /** Binds the session and the repeating preview builder; call on the camera thread. */
+    public void attach(CameraCaptureSession session, CaptureRequest.Builder previewBuilder) {
+        this.session = session;
+        this.previewBuilder = previewBuilder;
+    }
+
+    public void detach() {
+        session = null;
+        previewBuilder = null;
+    }
+
+    /**
+     * Detaches and drops any queued target, so nothing restarts the repeating
+     * request after it was stopped, e.g. to freeze a still. The target falls
+     * back to the applied zoom. Call on the camera thread; {@link #attach}
+     * resumes.
+     */
+    public void pause() {
+        detach();
+        coalescer.clear();
+        targetZoom = appliedZoom;
+    }
+
+    public void setFrameListener(FrameListener listener) {
+        frameListener = listener;
+    }
+
+    /** Multiplies the current target by a pinch scale factor. */
+    public void scaleBy(float factor) {
+        setZoom(targetZoom * factor);
+    }
+
+    public void setZoom(float zoom) {
+        targetZoom = ZoomMath.clamp(zoom, minZoom, maxZoom);
+        coalescer.setTarget(targetZoom);
+    }
+
+    public float getZoom() {
+        return appliedZoom;
+    }
+
+    public float getMaxZoom() {
+        return maxZoom;
+    }
+
+    /** Writes the applied zoom into a request, e.g. a still capture. */
+    public void applyTo(CaptureRequest.Builder builder) {
+        applyTo(builder, appliedZoom);
+    }
+
+    /** Callback that every repeating preview request has to use so zoom submissions are paced by frames. */
+    public CameraCaptureSession.CaptureCallback getCaptureCallback() {
+        return captureCallback;
+    }
+
+    public ZoomCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    private void applyTo(CaptureRequest.Builder builder, float zoom) {
+        if (useZoomRatio && Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            builder.set(CaptureRequest.CONTROL_ZOOM_RATIO, zoom);
+        } else {
+            ZoomMath.computeCrop(activeArray.width(), activeArray.height(), zoom, cropBox);
+            cropRect.set(cropBox.left, cropBox.top, cropBox.right, cropBox.bottom);
+            builder.set(CaptureRequest.SCALER_CROP_REGION, cropRect);
+        }
+    }
+
+    private boolean submit(float zoom) {
+        if (session == null || previewBuilder == null) return false;
+        applyTo(previewBuilder, zoom);
+        try {
+            session.setRepeatingRequest(previewBuilder.build(), captureCallback, cameraHandler);
+            appliedZoom = zoom;
+            return true;
+        } catch (CameraAccessException | IllegalStateException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private final CameraCaptureSession.CaptureCallback captureCallback = new CameraCaptureSession.CaptureCallback() {
+        @Override
+        public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+            coalescer.onFrameCompleted();
+            FrameListener listener = frameListener;
+            if (listener != null) {
+                listener.onCaptureCompleted(result);
+            }
+        }
+    };
+}
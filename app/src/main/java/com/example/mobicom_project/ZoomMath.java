@@ -0,0 +1,25 @@
+package com.example.mobicom_project;
+
+/** Digital zoom geometry, kept free of camera2 types so it can be tested on the JVM. */
+public final class ZoomMath {
+    private ZoomMath() {
+    }
+
+    public static float clamp(float zoom, float minZoom, float maxZoom) {
+        return Math.max(minZoom, Math.min(zoom, maxZoom));
+    }
+
+    /**
+     * Centered crop of an {@code activeW} x {@code activeH} active array for
+     * {@code zoom}, in active-array coordinates as expected by
+     * {@code SCALER_CROP_REGION}.
+     */
+    public static Box computeCrop(int activeW, int activeH, float zoom, Box out) {
+        float z = Math.max(1f, zoom);
+        int width = (int) (activeW / z);
+        int height = (int) (activeH / z);
+        int left = (activeW - width) / 2;
+        int top = (activeH - height) / 2;
+        return out.set(left, top, left + width, top + height);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.mobicom_project;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+
+/** Measures heap bytes allocated by the current thread, skipping the test where the JVM cannot tell. */
+final class AllocationCounter {
+    private final com.sun.management.ThreadMXBean threads;
+    private final long threadId = Thread.currentThread().getId();
+    private final long calibration;
+
+    AllocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long start = threads.getThreadAllocatedBytes(threadId);
+        calibration = threads.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    long allocatedBy(Runnable work) {
+        long before = threads.getThreadAllocatedBytes(threadId);
+        work.run();
+        return threads.getThreadAllocatedBytes(threadId) - before - calibration;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mobicom_project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchCheckpointTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void markDone_survivesReopening() throws IOException {
+        File file = new File(folder.getRoot(), "job.checkpoint");
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            checkpoint.markDone("content://media/1");
+            checkpoint.markDone("file:///a.jpg");
+            checkpoint.markDone("file:///a.jpg");
+            assertTrue(checkpoint.isDone("file:///a.jpg"));
+            checkpoint.flush();
+        }
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            assertEquals(2, checkpoint.size());
+            assertTrue(checkpoint.isDone("content://media/1"));
+            assertFalse(checkpoint.isDone("file:///b.jpg"));
+        }
+    }
+
+    @Test
+    public void truncatedLastLine_isNotDoneAndDroppedOnAppend() throws IOException {
+        File file = folder.newFile("job.checkpoint");
+        Files.write(file.toPath(), "img1\nimg10\nimg1".getBytes(StandardCharsets.UTF_8));
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            assertEquals(2, checkpoint.size());
+            assertFalse(checkpoint.isDone("img100"));
+            checkpoint.markDone("img2");
+            checkpoint.flush();
+        }
+        assertEquals("img1\nimg10\nimg2\n", read(file));
+    }
+
+    @Test
+    public void markDone_reachesFileOnlyOnFlush() throws IOException {
+        File file = new File(folder.getRoot(), "job.checkpoint");
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            checkpoint.markDone("img1");
+            checkpoint.flush();
+            checkpoint.markDone("img2");
+            assertEquals("img1\n", read(file));
+        }
+        // never flushed, so its result may not have been written either
+        assertEquals("img1\n", read(file));
+    }
+
+    @Test
+    public void resultWriter_writesOneEscapedJsonObjectPerLine() throws IOException {
+        File file = folder.newFile("job.jsonl");
+        Files.write(file.toPath(), "{\"key\":\"cut".getBytes(StandardCharsets.UTF_8));
+        List<OcrBlock> blocks = new ArrayList<>(Arrays.asList(
+                new OcrBlock(new Box(1, 2, 30, 40)).addLine("say \"hi\"", 1f, null).addLine("a\\b", 1f, null),
+                new OcrBlock(new Box(5, 6, 7, 8)).addLine("tab\there", 1f, null)));
+        try (BatchResultWriter writer = new BatchResultWriter(file)) {
+            writer.onResult("file:///x.jpg", blocks);
+            writer.onFailed("content://y", new IOException("Not an image"));
+        }
+        assertEquals("{\"key\":\"file:///x.jpg\",\"text\":\"say \\\"hi\\\"\\na\\\\b\\ntab\\there\","
+                        + "\"blocks\":[{\"box\":[1,2,30,40],\"text\":\"say \\\"hi\\\"\\na\\\\b\"},"
+                        + "{\"box\":[5,6,7,8],\"text\":\"tab\\there\"}]}\n"
+                        + "{\"key\":\"content://y\",\"error\":\"java.io.IOException: Not an image\"}\n",
+                read(file));
+    }
+
+    @Test
+    public void quote_escapesControlCharacters() {
+        StringBuilder out = new StringBuilder();
+        BatchResultWriter.quote("\u0001\r", out);
+        assertEquals("\"\\u0001\\r\"", out.toString());
+    }
+}
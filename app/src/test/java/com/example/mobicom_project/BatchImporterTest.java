@@ -0,0 +1,232 @@
+package com.example.mobicom_project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BatchImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Loads keys as strings, fails on keys starting with "bad" and tracks how many are loaded at once. */
+    static class FakeLoader implements BatchImporter.Loader<String> {
+        final AtomicInteger loaded = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+        final AtomicInteger live = new AtomicInteger();
+        volatile int maxLive;
+
+        @Override
+        public String load(String key) throws IOException {
+            if (key.startsWith("bad")) throw new IOException("corrupt " + key);
+            loaded.incrementAndGet();
+            int now = live.incrementAndGet();
+            synchronized (this) {
+                maxLive = Math.max(maxLive, now);
+            }
+            return key;
+        }
+
+        @Override
+        public void release(String item) {
+            live.decrementAndGet();
+            released.incrementAndGet();
+        }
+    }
+
+    static class CollectingSink implements BatchImporter.Sink {
+        final List<String> results = Collections.synchronizedList(new ArrayList<>());
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        int flushes;
+
+        @Override
+        public void onResult(String key, List<OcrBlock> blocks) {
+            results.add(key + "=" + blocks.get(0).getText());
+        }
+
+        @Override
+        public void onFailed(String key, Exception error) {
+            failures.add(key);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    private static List<OcrBlock> recognize(String item) throws InterruptedException {
+        Thread.sleep(1);
+        List<OcrBlock> blocks = new ArrayList<>();
+        blocks.add(new OcrBlock(new Box(0, 0, 10, 10)).addLine(item.toUpperCase(), 1f, new Box(0, 0, 10, 10)));
+        return blocks;
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add("img" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void run_recognizesEverythingWithBoundedMemory() throws Exception {
+        FakeLoader loader = new FakeLoader();
+        CollectingSink sink = new CollectingSink();
+        List<String> keys = keys(200);
+        keys.add(7, "bad0");
+        AtomicInteger lastProgress = new AtomicInteger();
+        BatchReport report;
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(folder.newFile("run.checkpoint"))) {
+            BatchImporter<String> importer = new BatchImporter<>(loader, BatchImporterTest::recognize, sink, checkpoint, 3, 2);
+            importer.setProgress((finished, pending) -> lastProgress.accumulateAndGet(finished, Math::max));
+            report = importer.run(keys);
+        }
+
+        assertEquals(201, report.total);
+        assertEquals(200, report.succeeded);
+        assertEquals(1, report.failed);
+        assertTrue(report.isComplete());
+        assertEquals(201, lastProgress.get());
+        assertEquals(200, sink.results.size());
+        assertTrue(sink.results.contains("img42=IMG42"));
+        assertEquals(Collections.singletonList("bad0"), sink.failures);
+        assertEquals(200, loader.released.get());
+        assertTrue("at most one decoded image per thread, saw " + loader.maxLive, loader.maxLive <= 3);
+        assertTrue(sink.flushes >= 201 / BatchImporter.DEFAULT_CHECKPOINT_EVERY);
+        assertTrue(report.getImagesPerSecond() > 0);
+    }
+
+    @Test
+    public void run_resumesFromCheckpoint() throws Exception {
+        File file = folder.newFile("resume.checkpoint");
+        List<String> keys = keys(50);
+        FakeLoader loader = new FakeLoader();
+        CollectingSink first = new CollectingSink();
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            BatchImporter<String> importer = new BatchImporter<>(loader, BatchImporterTest::recognize, first, checkpoint, 1, 0);
+            importer.setCheckpointEvery(5);
+            importer.setProgress((finished, pending) -> {
+                if (finished == 20) importer.cancel();
+            });
+            BatchReport report = importer.run(keys);
+            assertTrue(report.cancelled);
+            assertFalse(report.isComplete());
+        }
+
+        CollectingSink second = new CollectingSink();
+        BatchReport report;
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            assertEquals(first.results.size(), checkpoint.size());
+            report = new BatchImporter<>(loader, BatchImporterTest::recognize, second, checkpoint, 2, 2).run(keys);
+        }
+        assertEquals(first.results.size(), report.skipped);
+        assertTrue(report.isComplete());
+        assertEquals(50, first.results.size() + second.results.size());
+        for (String result : second.results) {
+            assertFalse(result, first.results.contains(result));
+        }
+    }
+
+    @Test
+    public void run_stopsWhenResultsCannotBeWritten() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        BatchImporter.Sink diskFull = new BatchImporter.Sink() {
+            @Override
+            public void onResult(String key, List<OcrBlock> blocks) throws IOException {
+                if (sink.results.size() == 3) throw new IOException("disk full");
+                sink.onResult(key, blocks);
+            }
+
+            @Override
+            public void onFailed(String key, Exception error) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        File file = folder.newFile("full.checkpoint");
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            BatchImporter<String> importer = new BatchImporter<>(new FakeLoader(), BatchImporterTest::recognize, diskFull, checkpoint, 1, 0);
+            importer.setCheckpointEvery(2);
+            importer.run(keys(20));
+            fail("expected the write error");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        String recorded = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        // img2's result was never flushed, so it isn't listed either
+        assertEquals("img0\nimg1\n", recorded);
+    }
+
+    @Test
+    public void run_leavesRecognitionFailuresForNextRun() throws Exception {
+        File file = folder.newFile("retry.checkpoint");
+        List<String> keys = keys(10);
+        keys.add("bad0");
+        CollectingSink first = new CollectingSink();
+        BatchReport report;
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            report = new BatchImporter<>(new FakeLoader(), item -> {
+                if (item.equals("img3")) throw new IllegalStateException("model not downloaded");
+                return recognize(item);
+            }, first, checkpoint, 2, 2).run(keys);
+        }
+        assertEquals(9, report.succeeded);
+        assertEquals(1, report.failed);
+        assertEquals(1, report.retry);
+        assertFalse(report.isComplete());
+        assertEquals(Collections.singletonList("bad0"), first.failures);
+
+        CollectingSink second = new CollectingSink();
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            report = new BatchImporter<>(new FakeLoader(), BatchImporterTest::recognize, second, checkpoint, 2, 2).run(keys);
+        }
+        assertTrue(report.isComplete());
+        assertEquals(Collections.singletonList("img3=IMG3"), second.results);
+        assertTrue(second.failures.isEmpty());
+    }
+
+    @Test
+    public void run_failsItemOnceRecognitionKeepsFailing() throws Exception {
+        File file = folder.newFile("attempts.checkpoint");
+        List<String> keys = keys(4);
+        BatchImporter.Recognizer<String> broken = item -> {
+            if (item.equals("img1")) throw new IllegalStateException("unsupported image");
+            return recognize(item);
+        };
+        BatchReport report = null;
+        CollectingSink sink = null;
+        for (int run = 1; run <= BatchImporter.DEFAULT_MAX_ATTEMPTS; run++) {
+            sink = new CollectingSink();
+            try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+                report = new BatchImporter<>(new FakeLoader(), broken, sink, checkpoint, 2, 2).run(keys);
+            }
+            if (run < BatchImporter.DEFAULT_MAX_ATTEMPTS) {
+                assertEquals(1, report.retry);
+                assertFalse(report.isComplete());
+            }
+        }
+        assertEquals(0, report.retry);
+        assertEquals(1, report.failed);
+        assertTrue(report.isComplete());
+        assertEquals(Collections.singletonList("img1"), sink.failures);
+
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(file)) {
+            assertTrue(checkpoint.isDone("img1"));
+            assertEquals(BatchImporter.DEFAULT_MAX_ATTEMPTS - 1, checkpoint.getAttempts("img1"));
+        }
+    }
+}
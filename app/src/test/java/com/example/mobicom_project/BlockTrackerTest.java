@@ -0,0 +1,101 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockTrackerTest {
+    private static OcrBlock block(int left, int top, String text, float confidence) {
+        Box bounds = new Box(left, top, left + 200, top + 40);
+        return new OcrBlock(bounds).addLine(text, confidence, new Box().set(bounds));
+    }
+
+    private static List<OcrBlock> frame(OcrBlock... blocks) {
+        return new ArrayList<>(Arrays.asList(blocks));
+    }
+
+    @Test
+    public void iou_ofOverlappingBoxes() {
+        assertEquals(1f, BlockTracker.iou(new Box(0, 0, 10, 10), new Box(0, 0, 10, 10)), 1e-6);
+        assertEquals(1f / 3, BlockTracker.iou(new Box(0, 0, 10, 10), new Box(5, 0, 15, 10)), 1e-6);
+        assertEquals(0f, BlockTracker.iou(new Box(0, 0, 10, 10), new Box(10, 0, 20, 10)), 1e-6);
+    }
+
+    @Test
+    public void update_keepsIdsOfBlocksThatMoveSlightly() {
+        BlockTracker tracker = new BlockTracker(0.5f, 0.6f);
+        List<OcrBlock> first = tracker.update(frame(block(0, 0, "title", 0.9f), block(0, 100, "body", 0.9f)));
+        int title = first.get(0).id;
+        int body = first.get(1).id;
+        assertNotEquals(title, body);
+
+        List<OcrBlock> second = tracker.update(frame(block(4, 102, "body", 0.9f), block(3, 2, "title", 0.9f)));
+        assertEquals(body, second.get(0).id);
+        assertEquals(title, second.get(1).id);
+    }
+
+    @Test
+    public void update_givesNewIdsToNewBlocks() {
+        BlockTracker tracker = new BlockTracker(0.5f, 0.6f);
+        int first = tracker.update(frame(block(0, 0, "a", 0.9f))).get(0).id;
+        int moved = tracker.update(frame(block(500, 500, "a", 0.9f))).get(0).id;
+        assertNotEquals(first, moved);
+    }
+
+    @Test
+    public void update_keepsConfidentReadingOfFlickeringLine() {
+        BlockTracker tracker = new BlockTracker(0.5f, 0.6f);
+        tracker.update(frame(block(0, 0, "Hello", 0.95f)));
+        OcrBlock noisy = tracker.update(frame(block(2, 0, "He1lo", 0.3f))).get(0);
+        assertEquals("Hello", noisy.getText());
+        assertEquals(1, tracker.getMergedLines());
+
+        OcrBlock changed = tracker.update(frame(block(2, 0, "Goodbye", 0.9f))).get(0);
+        assertEquals("Goodbye", changed.getText());
+    }
+
+    @Test
+    public void reset_forgetsPreviousFrame() {
+        BlockTracker tracker = new BlockTracker(0.5f, 0.6f);
+        int first = tracker.update(frame(block(0, 0, "a", 0.9f))).get(0).id;
+        tracker.reset();
+        assertNotEquals(first, tracker.update(frame(block(0, 0, "a", 0.9f))).get(0).id);
+    }
+
+    @Test
+    public void update_matchesBestOverlapFirst() {
+        BlockTracker tracker = new BlockTracker(0.3f, 0.6f);
+        List<OcrBlock> before = tracker.update(frame(new OcrBlock(new Box(0, 0, 100, 100)), new OcrBlock(new Box(50, 0, 150, 100))));
+        // both new blocks overlap the right-hand block most; the closer one gets it
+        List<OcrBlock> after = tracker.update(frame(new OcrBlock(new Box(60, 0, 160, 100)), new OcrBlock(new Box(45, 0, 145, 100))));
+        assertEquals(before.get(1).id, after.get(1).id);
+        assertNotEquals(before.get(0).id, after.get(0).id);
+        assertNotEquals(before.get(1).id, after.get(0).id);
+    }
+
+    @Test
+    public void update_tracksDensePages() {
+        BlockTracker tracker = new BlockTracker(0.5f, 0.6f);
+        List<OcrBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            blocks.add(block(i % 20 * 210, i / 20 * 50, "b" + i, 0.9f));
+        }
+        int[] ids = new int[blocks.size()];
+        List<OcrBlock> first = tracker.update(blocks);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = first.get(i).id;
+        }
+        List<OcrBlock> shifted = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            shifted.add(block(i % 20 * 210 + 3, i / 20 * 50 + 2, "b" + i, 0.9f));
+        }
+        List<OcrBlock> second = tracker.update(shifted);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], second.get(i).id);
+        }
+    }
+}
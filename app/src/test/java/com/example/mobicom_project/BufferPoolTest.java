@@ -0,0 +1,34 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+    @Test
+    public void acquire_allocatesWholeClassAndLimitsToRequest() {
+        BufferPool pool = new BufferPool(1 << 20);
+        ByteBuffer buffer = pool.acquire(3000);
+        assertTrue(buffer.isDirect());
+        assertEquals(4096, buffer.capacity());
+        assertEquals(0, buffer.position());
+        assertEquals(3000, buffer.limit());
+    }
+
+    @Test
+    public void release_makesBufferReusableForItsClass() {
+        BufferPool pool = new BufferPool(1 << 20);
+        ByteBuffer buffer = pool.acquire(3000);
+        buffer.position(100);
+        pool.release(buffer);
+
+        ByteBuffer again = pool.acquire(4000);
+        assertSame(buffer, again);
+        assertEquals(0, again.position());
+        assertEquals(4000, again.limit());
+        assertEquals(1, pool.getPool().getHits());
+        assertEquals(1, pool.getPool().getMisses());
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.mobicom_project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CameraLifecycleTest {
+    private final ManualScheduler camera = new ManualScheduler();
+    private final List<String> calls = new ArrayList<>();
+    private final PerfMetrics metrics = new PerfMetrics();
+    private CameraLifecycle lifecycle;
+
+    @Before
+    public void setUp() {
+        lifecycle = new CameraLifecycle(camera, new CameraLifecycle.Device() {
+            @Override
+            public void open() {
+                calls.add("open");
+            }
+
+            @Override
+            public void createSession() {
+                calls.add("createSession");
+            }
+
+            @Override
+            public void closeSession() {
+                calls.add("closeSession");
+            }
+
+            @Override
+            public void close() {
+                calls.add("close");
+            }
+        }, metrics);
+    }
+
+    /** Resumes with the surface up and answers the device callbacks, as a normal start does. */
+    private void startStreaming() {
+        lifecycle.resume();
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        lifecycle.onOpened();
+        assertTrue(lifecycle.onSessionConfigured());
+    }
+
+    @Test
+    public void opensBeforeSurfaceAndConfiguresOnceBothAreReady() {
+        lifecycle.resume();
+        camera.runAll();
+        assertEquals(Arrays.asList("open"), calls);
+
+        lifecycle.onOpened();
+        assertEquals(CameraLifecycle.State.OPEN, lifecycle.getState());
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        assertEquals(Arrays.asList("open", "createSession"), calls);
+        assertTrue(lifecycle.onSessionConfigured());
+        assertEquals(CameraLifecycle.State.STREAMING, lifecycle.getState());
+    }
+
+    @Test
+    public void pauseClosesAndResumeReopensInOneGo() {
+        startStreaming();
+        calls.clear();
+        lifecycle.pause();
+        camera.runAll();
+        assertEquals(Arrays.asList("close"), calls);
+        assertEquals(CameraLifecycle.State.CLOSED, lifecycle.getState());
+
+        // the surface survives the pause, so the session follows the device straight away
+        lifecycle.resume();
+        camera.runAll();
+        lifecycle.onOpened();
+        assertEquals(Arrays.asList("close", "open", "createSession"), calls);
+        assertTrue(lifecycle.onSessionConfigured());
+        assertEquals(2, lifecycle.getOpenCount());
+    }
+
+    @Test
+    public void pauseWhileOpening_closesOnceOpened() {
+        lifecycle.resume();
+        camera.runAll();
+        lifecycle.pause();
+        camera.runAll();
+        assertEquals(Arrays.asList("open"), calls);
+
+        lifecycle.onOpened();
+        assertEquals(Arrays.asList("open", "close"), calls);
+        assertEquals(CameraLifecycle.State.CLOSED, lifecycle.getState());
+    }
+
+    @Test
+    public void destroyWhileOpening_finishesOnceClosed() {
+        List<String> destroyed = new ArrayList<>();
+        lifecycle.resume();
+        camera.runAll();
+        lifecycle.pause();
+        lifecycle.destroy(() -> destroyed.add("destroyed"));
+        camera.runAll();
+        assertTrue(destroyed.isEmpty());
+
+        lifecycle.onOpened();
+        assertEquals(Arrays.asList("open", "close"), calls);
+        assertEquals(Arrays.asList("destroyed"), destroyed);
+    }
+
+    @Test
+    public void destroyWhenClosed_finishesAtOnceAndStaysClosed() {
+        List<String> destroyed = new ArrayList<>();
+        startStreaming();
+        lifecycle.pause();
+        lifecycle.destroy(() -> destroyed.add("destroyed"));
+        camera.runAll();
+        assertEquals(Arrays.asList("destroyed"), destroyed);
+
+        lifecycle.resume();
+        camera.runAll();
+        assertEquals(Arrays.asList("open", "createSession", "close"), calls);
+    }
+
+    @Test
+    public void sessionConfiguredAfterPause_isRejected() {
+        lifecycle.resume();
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        lifecycle.onOpened();
+        lifecycle.pause();
+        camera.runAll();
+        assertFalse(lifecycle.onSessionConfigured());
+        assertEquals(Arrays.asList("open", "createSession", "close"), calls);
+    }
+
+    @Test
+    public void surfaceDestroyed_closesSessionBeforeRelease() {
+        startStreaming();
+        calls.clear();
+        lifecycle.onSurfaceDestroyed(() -> calls.add("release"));
+        camera.runAll();
+        assertEquals(Arrays.asList("closeSession", "release"), calls);
+        assertEquals(CameraLifecycle.State.OPEN, lifecycle.getState());
+
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        assertEquals(Arrays.asList("closeSession", "release", "createSession"), calls);
+    }
+
+    @Test
+    public void lostDevice_staysClosedUntilNextResume() {
+        startStreaming();
+        calls.clear();
+        lifecycle.onClosed();
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        assertTrue(calls.isEmpty());
+
+        lifecycle.pause();
+        lifecycle.resume();
+        camera.runAll();
+        assertEquals(Arrays.asList("open"), calls);
+    }
+
+    @Test
+    public void failedSession_isRetriedOnNewSurfaceOnly() {
+        lifecycle.resume();
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        lifecycle.onOpened();
+        lifecycle.onSessionFailed();
+        lifecycle.resume();
+        camera.runAll();
+        assertEquals(Arrays.asList("open", "createSession"), calls);
+
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        assertEquals(Arrays.asList("open", "createSession", "createSession"), calls);
+    }
+
+    @Test
+    public void firstPreviewFrameAfterResume_isTimedOnce() {
+        lifecycle.onPreviewFrame();
+        assertEquals(0, metrics.histogram(PerfMetrics.Span.RESUME_TO_PREVIEW).getCount());
+        lifecycle.resume();
+        camera.runAll();
+        // frames drawn before the new session streams don't count
+        lifecycle.onPreviewFrame();
+        assertEquals(0, metrics.histogram(PerfMetrics.Span.RESUME_TO_PREVIEW).getCount());
+
+        lifecycle.onSurfaceAvailable();
+        camera.runAll();
+        lifecycle.onOpened();
+        lifecycle.onSessionConfigured();
+        lifecycle.onPreviewFrame();
+        lifecycle.onPreviewFrame();
+        assertEquals(1, metrics.histogram(PerfMetrics.Span.RESUME_TO_PREVIEW).getCount());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mobicom_project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CaptureStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Runs posted tasks only when asked to, so queue states can be inspected. */
+    private static class ManualScheduler implements Scheduler {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void post(Runnable task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public boolean isCurrentThread() {
+            return true;
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static ByteBuffer directBuffer(byte[] content) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+        buffer.put(content);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    public void store_writesBufferContentAndReleasesAfterWrite() throws IOException {
+        ManualScheduler io = new ManualScheduler();
+        CaptureStore store = new CaptureStore(io, 2);
+        byte[] content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        File target = new File(folder.getRoot(), "capture.jpg");
+        AtomicInteger released = new AtomicInteger();
+        AtomicLong storedBytes = new AtomicLong();
+
+        ByteBuffer buffer = directBuffer(content);
+        assertTrue(store.store(buffer, target, released::incrementAndGet, new CaptureStore.Callback() {
+            @Override
+            public void onStored(File file, long bytes, long latencyNanos) {
+                assertEquals(1, released.get());
+                storedBytes.set(bytes);
+            }
+
+            @Override
+            public void onFailed(File file, IOException e) {
+                fail();
+            }
+        }));
+        assertEquals(0, released.get());
+        assertEquals(1, store.getPendingWrites());
+
+        io.runAll();
+        assertEquals(1, released.get());
+        assertEquals(content.length, storedBytes.get());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // the caller's buffer position is untouched
+        assertEquals(0, buffer.position());
+        assertEquals(0, store.getPendingWrites());
+        assertEquals(1, store.getStoredCount());
+        assertEquals(content.length, store.getStoredBytes());
+        assertTrue(store.getAverageLatencyNanos() > 0);
+        assertTrue(store.getThroughputBytesPerSecond() > 0);
+    }
+
+    @Test
+    public void store_rejectsWhenQueueIsFull() {
+        ManualScheduler io = new ManualScheduler();
+        CaptureStore store = new CaptureStore(io, 1);
+        AtomicInteger released = new AtomicInteger();
+        assertTrue(store.store(directBuffer(new byte[8]), new File(folder.getRoot(), "a.jpg"), released::incrementAndGet, null));
+        assertFalse(store.store(directBuffer(new byte[8]), new File(folder.getRoot(), "b.jpg"), released::incrementAndGet, null));
+        assertEquals(1, store.getRejectedCount());
+
+        io.runAll();
+        assertEquals(1, released.get());
+        assertTrue(store.store(directBuffer(new byte[8]), new File(folder.getRoot(), "b.jpg"), released::incrementAndGet, null));
+    }
+
+    @Test
+    public void store_reportsFailureAndStillReleases() {
+        ManualScheduler io = new ManualScheduler();
+        CaptureStore store = new CaptureStore(io, 1);
+        AtomicInteger released = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        File target = new File(new File(folder.getRoot(), "missing"), "a.jpg");
+        store.store(directBuffer(new byte[8]), target, released::incrementAndGet, new CaptureStore.Callback() {
+            @Override
+            public void onStored(File file, long bytes, long latencyNanos) {
+                fail();
+            }
+
+            @Override
+            public void onFailed(File file, IOException e) {
+                failed.incrementAndGet();
+            }
+        });
+        io.runAll();
+        assertEquals(1, released.get());
+        assertEquals(1, failed.get());
+        assertEquals(1, store.getFailedCount());
+        assertEquals(0, store.getPendingWrites());
+    }
+}
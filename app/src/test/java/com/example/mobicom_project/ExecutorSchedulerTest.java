@@ -0,0 +1,80 @@
+package com.example.mobicom_project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ExecutorSchedulerTest {
+    private ExecutorScheduler camera;
+    private ExecutorScheduler io;
+
+    @Before
+    public void setUp() {
+        camera = new ExecutorScheduler("camera");
+        io = new ExecutorScheduler("io");
+    }
+
+    @After
+    public void tearDown() {
+        camera.shutdown();
+        io.shutdown();
+    }
+
+    @Test
+    public void post_runsOffCallerThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        AtomicBoolean onScheduler = new AtomicBoolean();
+        camera.post(() -> {
+            threadName.set(Thread.currentThread().getName());
+            onScheduler.set(camera.isCurrentThread());
+            done.countDown();
+        });
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals("camera", threadName.get());
+        assertTrue(onScheduler.get());
+        assertFalse(camera.isCurrentThread());
+    }
+
+    @Test
+    public void post_keepsSubmissionOrder() throws InterruptedException {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            io.post(() -> order.add(index));
+        }
+        io.post(done::countDown);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void handOff_cameraToIo() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean cameraStage = new AtomicBoolean();
+        AtomicBoolean ioStage = new AtomicBoolean();
+        camera.post(() -> {
+            cameraStage.set(camera.isCurrentThread() && !io.isCurrentThread());
+            io.post(() -> {
+                ioStage.set(io.isCurrentThread() && !camera.isCurrentThread());
+                done.countDown();
+            });
+        });
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(cameraStage.get());
+        assertTrue(ioStage.get());
+    }
+}
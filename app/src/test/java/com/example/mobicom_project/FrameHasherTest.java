@@ -0,0 +1,91 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameHasherTest {
+    private static final int W = 320;
+    private static final int H = 240;
+
+    /** Dark text-like bars on a light page. */
+    private static ByteBuffer page(int shift, int noise, long seed) {
+        Random random = new Random(seed);
+        ByteBuffer plane = ByteBuffer.allocate(W * H);
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                boolean ink = ((y / 12) % 2 == 0) && (((x + shift) / 7) % 3 != 0);
+                int value = ink ? 40 : 210;
+                value += noise == 0 ? 0 : random.nextInt(2 * noise + 1) - noise;
+                plane.put(y * W + x, (byte) Math.max(0, Math.min(255, value)));
+            }
+        }
+        return plane;
+    }
+
+    private static ByteBuffer gradient(boolean leftToRight) {
+        ByteBuffer plane = ByteBuffer.allocate(W * H);
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int value = leftToRight ? x * 255 / W : 255 - x * 255 / W;
+                plane.put(y * W + x, (byte) value);
+            }
+        }
+        return plane;
+    }
+
+    @Test
+    public void sameFrame_sameHash() {
+        FrameHasher hasher = new FrameHasher();
+        Box full = new Box(0, 0, W, H);
+        assertEquals(hasher.hashLuma(page(0, 0, 1), W, 1, full), hasher.hashLuma(page(0, 0, 1), W, 1, full));
+    }
+
+    @Test
+    public void sensorNoise_staysClose() {
+        FrameHasher hasher = new FrameHasher();
+        Box full = new Box(0, 0, W, H);
+        long a = hasher.hashLuma(page(0, 6, 1), W, 1, full);
+        long b = hasher.hashLuma(page(0, 6, 2), W, 1, full);
+        assertTrue(FrameHasher.distance(a, b) <= 6);
+    }
+
+    @Test
+    public void differentScene_isFarApart() {
+        FrameHasher hasher = new FrameHasher();
+        Box full = new Box(0, 0, W, H);
+        long a = hasher.hashLuma(gradient(true), W, 1, full);
+        long b = hasher.hashLuma(gradient(false), W, 1, full);
+        assertTrue(FrameHasher.distance(a, b) > 32);
+    }
+
+    @Test
+    public void argbAndLuma_agreeOnGrayFrames() {
+        ByteBuffer plane = page(3, 0, 1);
+        int[] argb = new int[W * H];
+        for (int i = 0; i < argb.length; i++) {
+            int v = plane.get(i) & 0xFF;
+            argb[i] = 0xFF000000 | (v << 16) | (v << 8) | v;
+        }
+        FrameHasher hasher = new FrameHasher();
+        Box crop = new Box(40, 20, 280, 200);
+        long luma = hasher.hashLuma(plane, W, 1, crop);
+        long rgb = hasher.hashArgb(argb, W, crop);
+        assertTrue(FrameHasher.distance(luma, rgb) <= 2);
+    }
+
+    @Test
+    public void pixelStride_isHonoured() {
+        ByteBuffer plane = page(0, 0, 1);
+        ByteBuffer strided = ByteBuffer.allocate(W * H * 2);
+        for (int i = 0; i < W * H; i++) {
+            strided.put(i * 2, plane.get(i));
+        }
+        FrameHasher hasher = new FrameHasher();
+        Box full = new Box(0, 0, W, H);
+        assertEquals(hasher.hashLuma(plane, W, 1, full), hasher.hashLuma(strided, W * 2, 2, full));
+    }
+}
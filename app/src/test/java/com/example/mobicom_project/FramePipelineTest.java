@@ -0,0 +1,186 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class FramePipelineTest {
+    private static final int W = 64;
+    private static final int H = 48;
+
+    private final ManualScheduler worker = new ManualScheduler();
+    private final ManualScheduler ui = new ManualScheduler();
+    private final OverlayLayout overlay = new OverlayLayout(0);
+
+    private static Frame frame(int luma, AtomicInteger closed) {
+        byte[] data = ReplayFrameSourceTest.nv21(W, H, 0);
+        // a gradient so the dHash isn't flat, shifted by luma
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                data[y * W + x] = (byte) ((x * 3 + luma) & 0xFF);
+            }
+        }
+        return Frame.nv21(data, W, H, 0, closed::incrementAndGet);
+    }
+
+    private FramePipeline pipeline(RecognitionCache<List<OcrBlock>> cache) {
+        overlay.setViewSize(W, H);
+        return new FramePipeline(new FrameThrottler(0f), new StubRecognizer(worker, 0, 3), cache, overlay, ui);
+    }
+
+    @Test
+    public void onFrame_dropsFramesWhileOneIsInFlight() {
+        FramePipeline pipeline = pipeline(null);
+        AtomicInteger closed = new AtomicInteger();
+        pipeline.onFrame(frame(0, closed));
+        pipeline.onFrame(frame(1, closed));
+        pipeline.onFrame(frame(2, closed));
+        assertEquals(2, closed.get());
+
+        worker.runAll();
+        ui.runAll();
+        assertEquals(3, closed.get());
+        ReplayReport report = pipeline.getReport();
+        assertEquals(3, report.received);
+        assertEquals(2, report.dropped);
+        assertEquals(1, report.recognized);
+        assertEquals(1, report.completed);
+        assertEquals(3, overlay.size());
+    }
+
+    @Test
+    public void onFrame_reusesResultForSameScene() {
+        FramePipeline pipeline = pipeline(new RecognitionCache<>(4, 2));
+        AtomicInteger closed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            pipeline.onFrame(frame(0, closed));
+            worker.runAll();
+            ui.runAll();
+        }
+        ReplayReport report = pipeline.getReport();
+        assertEquals(1, report.recognized);
+        assertEquals(2, report.cacheHits);
+        assertEquals(3, report.completed);
+        assertEquals(3, closed.get());
+    }
+
+    @Test
+    public void onFrame_recognizesOnlyRegion() {
+        FramePipeline pipeline = pipeline(null);
+        pipeline.setRegion(new Box(16, 8, 48, 40));
+        pipeline.onFrame(frame(0, new AtomicInteger()));
+        worker.runAll();
+        ui.runAll();
+        assertEquals(16, overlay.left(0));
+        assertEquals(48, overlay.right(0));
+    }
+
+    @Test
+    public void isIdle_afterEndAndLastResult() {
+        FramePipeline pipeline = pipeline(null);
+        pipeline.onFrame(frame(0, new AtomicInteger()));
+        pipeline.onEnd();
+        assertFalse(pipeline.isIdle());
+        worker.runAll();
+        assertFalse(pipeline.isIdle());
+        ui.runAll();
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void onFrame_mapsUprightRegionToRawCrop() {
+        FramePipeline pipeline = pipeline(null);
+        overlay.setViewSize(H, W);
+        pipeline.setRotation(90);
+        // the upright frame is H x W and its top strip is the raw frame's left strip
+        pipeline.setRegion(new Box(0, 0, H, 18));
+        pipeline.onFrame(frame(0, new AtomicInteger()));
+        worker.runAll();
+        ui.runAll();
+        assertEquals(0, overlay.left(0));
+        assertEquals(H, overlay.right(0));
+        assertEquals(0, overlay.top(0));
+        assertEquals(18, overlay.bottom(2));
+    }
+
+    /**
+     * 20 frames 10 ms apart through a recognizer that takes 25 ms, timed on a
+     * manual clock: frames at 0, 30, ... 180 ms are recognized, the rest
+     * arrive while one is in flight.
+     */
+    @Test
+    public void replay_reportsThroughputAndLatency() throws Exception {
+        final long frameInterval = TimeUnit.MILLISECONDS.toNanos(10);
+        final long recognitionTime = TimeUnit.MILLISECONDS.toNanos(25);
+        File dir = Files.createTempDirectory("replay").toFile();
+        try {
+            for (int i = 0; i < 20; i++) {
+                Files.write(new File(dir, String.format("%04d_%dx%d.nv21", i, W, H)).toPath(),
+                        ReplayFrameSourceTest.nv21(W, H, i * 10));
+            }
+            AtomicLong clock = new AtomicLong();
+            overlay.setViewSize(W, H);
+            FramePipeline pipeline = new FramePipeline(new FrameThrottler(0f, clock::get), new StubRecognizer(worker, 0, 2),
+                    null, FramePipeline.drawInto(overlay), ui, clock::get);
+            ManualScheduler inline = new ManualScheduler() {
+                @Override
+                public void post(Runnable task) {
+                    task.run();
+                }
+            };
+            new ReplayFrameSource(dir, 0, inline).start(new FrameSource.Listener() {
+                int index;
+                long due = -1;
+
+                @Override
+                public void onFrame(Frame frame) {
+                    advanceTo(index++ * frameInterval);
+                    pipeline.onFrame(frame);
+                    if (due < 0 && !worker.tasks.isEmpty()) {
+                        due = clock.get() + recognitionTime;
+                    }
+                }
+
+                @Override
+                public void onEnd() {
+                    advanceTo(Long.MAX_VALUE);
+                    pipeline.onEnd();
+                }
+
+                /** Finishes the recognition in flight if it is due by {@code time}. */
+                private void advanceTo(long time) {
+                    if (due >= 0 && due <= time) {
+                        clock.set(due);
+                        worker.runAll();
+                        ui.runAll();
+                        due = -1;
+                    }
+                    if (time != Long.MAX_VALUE) {
+                        clock.set(time);
+                    }
+                }
+            });
+
+            assertTrue(pipeline.isIdle());
+            ReplayReport report = pipeline.getReport();
+            assertEquals(20, report.received);
+            assertEquals(13, report.dropped);
+            assertEquals(7, report.recognized);
+            assertEquals(7, report.completed);
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(205), report.elapsedNanos);
+            assertEquals(recognitionTime, report.latencyMaxNanos);
+            assertEquals(7 / 0.205, report.getThroughput(), 0.01);
+            assertTrue(report.toString().contains("throughput="));
+        } finally {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+}
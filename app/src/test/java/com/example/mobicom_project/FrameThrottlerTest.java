@@ -0,0 +1,51 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FrameThrottlerTest {
+    private long now = 0;
+
+    private FrameThrottler throttler(float fps) {
+        return new FrameThrottler(fps, () -> now);
+    }
+
+    @Test
+    public void onlyOneFrameInFlight() {
+        FrameThrottler throttler = throttler(0);
+        assertTrue(throttler.tryAcquire());
+        assertFalse(throttler.tryAcquire());
+        assertFalse(throttler.tryAcquire());
+        throttler.release();
+        assertTrue(throttler.tryAcquire());
+        assertEquals(2, throttler.getAdmittedFrames());
+        assertEquals(2, throttler.getDroppedFrames());
+    }
+
+    @Test
+    public void framesInsideIntervalAreDropped() {
+        FrameThrottler throttler = throttler(10);
+        assertTrue(throttler.tryAcquire());
+        throttler.release();
+        now += TimeUnit.MILLISECONDS.toNanos(50);
+        assertFalse(throttler.tryAcquire());
+        now += TimeUnit.MILLISECONDS.toNanos(50);
+        assertTrue(throttler.tryAcquire());
+        assertEquals(1, throttler.getDroppedFrames());
+    }
+
+    @Test
+    public void rateCanBeChanged() {
+        FrameThrottler throttler = throttler(1);
+        assertTrue(throttler.tryAcquire());
+        throttler.release();
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        assertFalse(throttler.tryAcquire());
+        throttler.setAnalysisRate(5);
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        assertTrue(throttler.tryAcquire());
+    }
+}
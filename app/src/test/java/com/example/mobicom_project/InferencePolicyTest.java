@@ -0,0 +1,76 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InferencePolicyTest {
+    private static final float THRESHOLD = 10f;
+
+    @Test
+    public void decide_runsOnStillFocusedScene() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 2, 5);
+        policy.setFocus(InferencePolicy.Focus.FOCUSED);
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(1f));
+    }
+
+    @Test
+    public void decide_skipsWhileMovingAndUntilSettled() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 2, 5);
+        assertEquals(InferencePolicy.Decision.SKIP_MOTION, policy.decide(30f));
+        assertEquals(InferencePolicy.Decision.SKIP_MOTION, policy.decide(2f));
+        assertEquals(InferencePolicy.Decision.SKIP_MOTION, policy.decide(2f));
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(2f));
+        assertEquals(3, policy.getCount(InferencePolicy.Decision.SKIP_MOTION));
+    }
+
+    @Test
+    public void decide_skipsWhileFocusScanning() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 0, 5);
+        policy.setFocus(InferencePolicy.Focus.SCANNING);
+        assertEquals(InferencePolicy.Decision.SKIP_FOCUS, policy.decide(0f));
+        policy.setFocus(InferencePolicy.Focus.FOCUSED);
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(0f));
+    }
+
+    @Test
+    public void decide_runsEventuallyWhenFocusNeverLocks() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 0, 3);
+        policy.setFocus(InferencePolicy.Focus.UNFOCUSED);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(InferencePolicy.Decision.SKIP_FOCUS, policy.decide(0f));
+        }
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(0f));
+        assertEquals(InferencePolicy.Decision.SKIP_FOCUS, policy.decide(0f));
+    }
+
+    @Test
+    public void decide_unknownFocusDoesNotBlock() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 0, 3);
+        assertEquals(InferencePolicy.Focus.UNKNOWN, policy.getFocus());
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(0f));
+    }
+
+    @Test
+    public void decide_stopsAtCriticalThermalStatus() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 0, 3);
+        policy.setThermalStatus(InferencePolicy.THERMAL_CRITICAL);
+        assertEquals(InferencePolicy.Decision.SKIP_THERMAL, policy.decide(0f));
+        policy.setThermalStatus(InferencePolicy.THERMAL_SEVERE);
+        assertEquals(InferencePolicy.Decision.RUN, policy.decide(0f));
+    }
+
+    @Test
+    public void rateFor_backsOffWithThermalStatus() {
+        InferencePolicy policy = new InferencePolicy(THRESHOLD, 0, 3);
+        assertEquals(4f, policy.rateFor(4f), 0f);
+        policy.setThermalStatus(InferencePolicy.THERMAL_LIGHT);
+        assertEquals(4f, policy.rateFor(4f), 0f);
+        policy.setThermalStatus(InferencePolicy.THERMAL_MODERATE);
+        assertEquals(2f, policy.rateFor(4f), 0f);
+        policy.setThermalStatus(InferencePolicy.THERMAL_SEVERE);
+        assertEquals(1f, policy.rateFor(4f), 0f);
+        policy.setThermalStatus(InferencePolicy.THERMAL_CRITICAL);
+        assertEquals(InferencePolicy.MIN_RATE_FPS, policy.rateFor(1f), 0f);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    private static long ms(double millis) {
+        return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void percentiles_areWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(ms(i / 10.0));
+        }
+        assertEquals(1000, histogram.getCount());
+        assertWithin(ms(50), histogram.percentileNanos(50));
+        assertWithin(ms(95), histogram.percentileNanos(95));
+        assertWithin(ms(99), histogram.percentileNanos(99));
+        assertEquals(ms(100), histogram.getMaxNanos());
+        assertEquals(ms(100), histogram.percentileNanos(100));
+    }
+
+    @Test
+    public void emptyHistogram_reportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileNanos(50));
+        assertEquals(0, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void outOfRangeValues_areCounted() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(2, histogram.getCount());
+        assertEquals(TimeUnit.MINUTES.toNanos(5), histogram.percentileNanos(99));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void bucketOf_isMonotonic() {
+        int previous = 0;
+        for (long nanos = 0; nanos < TimeUnit.SECONDS.toNanos(2); nanos += 7919) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            assertTrue(bucket >= previous);
+            previous = bucket;
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.2);
+    }
+}
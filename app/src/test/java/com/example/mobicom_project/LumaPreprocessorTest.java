@@ -0,0 +1,265 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LumaPreprocessorTest {
+    private static final LumaPreprocessor.Config NO_DESKEW = new LumaPreprocessor.Config(0, 31, 12, 0f);
+
+    /**
+     * Lines of dark "words" on paper lit from the left, falling to the right
+     * by {@code degrees}; transposed when {@code vertical}.
+     */
+    private static byte[] page(int w, int h, float degrees, boolean vertical) {
+        byte[] pixels = new byte[w * h];
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        int along = vertical ? h : w;
+        int across = vertical ? w : h;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int a = vertical ? y : x;
+                int c = vertical ? x : y;
+                double da = a - along / 2.0;
+                double dc = c - across / 2.0;
+                double u = da * cos + dc * sin + along;
+                double v = -da * sin + dc * cos + across;
+                boolean inside = Math.abs(da) < along * 0.4 && Math.abs(dc) < across * 0.4;
+                boolean ink = inside && v % 24 < 7 && u % 40 < 30;
+                int paper = 60 + 180 * x / w;
+                pixels[y * w + x] = (byte) (ink ? paper / 3 : paper);
+            }
+        }
+        return pixels;
+    }
+
+    private static ByteBuffer plane(byte[] pixels, int w, int h, int rowStride) {
+        ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * h);
+        for (int y = 0; y < h; y++) {
+            plane.position(y * rowStride);
+            plane.put(pixels, y * w, w);
+        }
+        plane.clear();
+        return plane;
+    }
+
+    @Test
+    public void outputSize_keepsAspectAndStaysEven() {
+        LumaPreprocessor.Config config = new LumaPreprocessor.Config(1280, 0, 0, 0f);
+        assertEquals(1280, LumaPreprocessor.outputWidth(config, 1920, 1080));
+        assertEquals(720, LumaPreprocessor.outputHeight(config, 1920, 1080));
+        assertEquals(640, LumaPreprocessor.outputWidth(config, 641, 481));
+        assertEquals(480, LumaPreprocessor.outputHeight(config, 641, 481));
+        LumaPreprocessor.Config unscaled = new LumaPreprocessor.Config(0, 0, 0, 0f);
+        assertEquals(4000, LumaPreprocessor.outputWidth(unscaled, 4000, 3000));
+    }
+
+    @Test
+    public void downscale_averagesCoveredPixels() {
+        int stride = 7;
+        byte[] pixels = {
+                10, 20, 30, 40,
+                30, 40, 50, 61,
+                0, 0, (byte) 200, (byte) 200,
+                0, 4, (byte) 200, (byte) 255,
+        };
+        byte[] out = new byte[4];
+        new LumaPreprocessor().downscale(plane(pixels, 4, 4, stride), stride, 1, new Box(0, 0, 4, 4), out, 2, 2);
+        // (10+20+30+40)/4 = 25, (30+40+50+61)/4 = 45.25, 1, 213.75 rounded
+        assertArrayEquals(new byte[]{25, 45, 1, (byte) 214}, out);
+    }
+
+    @Test
+    public void downscale_readsCropWithPixelStride() {
+        int w = 6;
+        int h = 4;
+        ByteBuffer plane = ByteBuffer.allocate(w * 2 * h);
+        for (int i = 0; i < w * h; i++) {
+            plane.put(i * 2, (byte) i);
+        }
+        byte[] out = new byte[4];
+        new LumaPreprocessor().downscale(plane, w * 2, 2, new Box(2, 2, 4, 4), out, 2, 2);
+        assertArrayEquals(new byte[]{14, 15, 20, 21}, out);
+    }
+
+    @Test
+    public void threshold_separatesInkUnderUnevenLight() {
+        int w = 200;
+        int h = 120;
+        byte[] pixels = page(w, h, 0f, false);
+        // ink on the bright side is lighter than paper on the dark side, so no global threshold works
+        int brightestInk = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            int value = pixels[i] & 0xFF;
+            if (value < 60 + 180 * (i % w) / w) brightestInk = Math.max(brightestInk, value);
+        }
+        assertTrue(brightestInk > (pixels[0] & 0xFF));
+        byte[] out = new byte[w * h];
+        new LumaPreprocessor().threshold(pixels, out, w, h, 31, 12);
+        int wrong = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            int x = i % w;
+            boolean ink = (pixels[i] & 0xFF) < 60 + 180 * x / w;
+            if ((out[i] == 0) != ink) wrong++;
+        }
+        assertTrue("misclassified " + wrong, wrong < pixels.length / 100);
+    }
+
+    @Test
+    public void threshold_inPlaceMatchesCopy() {
+        int w = 90;
+        int h = 70;
+        byte[] pixels = page(w, h, 2f, false);
+        byte[] copy = new byte[w * h];
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        preprocessor.threshold(pixels, copy, w, h, 15, 10);
+        preprocessor.threshold(pixels, pixels, w, h, 15, 10);
+        assertArrayEquals(copy, pixels);
+    }
+
+    @Test
+    public void estimateSkew_findsLineAngle() {
+        int w = 480;
+        int h = 360;
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        byte[] binary = new byte[w * h];
+        for (float degrees : new float[]{0f, 3f, -5.4f, 7.5f}) {
+            preprocessor.threshold(page(w, h, degrees, false), binary, w, h, 31, 12);
+            assertEquals(degrees, preprocessor.estimateSkew(binary, w, h, false, 8f), 0.3f);
+        }
+    }
+
+    @Test
+    public void estimateSkew_findsVerticalLineAngle() {
+        int w = 360;
+        int h = 480;
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        byte[] binary = new byte[w * h];
+        preprocessor.threshold(page(w, h, 4f, true), binary, w, h, 31, 12);
+        assertEquals(4f, preprocessor.estimateSkew(binary, w, h, true, 8f), 0.3f);
+    }
+
+    @Test
+    public void estimateSkew_blankFrameIsLevel() {
+        byte[] blank = new byte[100 * 80];
+        Arrays.fill(blank, (byte) 255);
+        assertEquals(0f, new LumaPreprocessor().estimateSkew(blank, 100, 80, false, 8f), 0f);
+    }
+
+    @Test
+    public void shear_zeroDegreesIsIdentity() {
+        int w = 64;
+        int h = 48;
+        byte[] pixels = page(w, h, 3f, false);
+        byte[] out = new byte[w * h];
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        preprocessor.shear(pixels, out, w, h, 0f, false);
+        assertArrayEquals(pixels, out);
+        preprocessor.shear(pixels, out, w, h, 0f, true);
+        assertArrayEquals(pixels, out);
+    }
+
+    @Test
+    public void shear_levelsVerticalLines() {
+        int w = 360;
+        int h = 480;
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        byte[] binary = new byte[w * h];
+        byte[] level = new byte[w * h];
+        preprocessor.threshold(page(w, h, -6f, true), binary, w, h, 31, 12);
+        float skew = preprocessor.estimateSkew(binary, w, h, true, 8f);
+        preprocessor.shear(binary, level, w, h, skew, true);
+        assertEquals(0f, preprocessor.estimateSkew(level, w, h, true, 8f), 0.3f);
+    }
+
+    @Test
+    public void unshear_findsPixelsBeforeShear() {
+        int w = 200;
+        int h = 100;
+        float degrees = 6f;
+        for (boolean vertical : new boolean[]{false, true}) {
+            // ink at the far edge, where the shear moves pixels the most
+            int inkX = 190;
+            int inkY = 90;
+            byte[] page = new byte[w * h];
+            Arrays.fill(page, (byte) 255);
+            page[inkY * w + inkX] = 0;
+            byte[] sheared = new byte[w * h];
+            new LumaPreprocessor().shear(page, sheared, w, h, degrees, vertical);
+            int found = -1;
+            for (int i = 0; i < sheared.length; i++) {
+                if (sheared[i] == 0) found = i;
+            }
+            assertTrue(found >= 0);
+            Box box = new Box(found % w, found / w, found % w + 1, found / w + 1);
+            Box unsheared = LumaPreprocessor.unshear(box, w, h, degrees, vertical, new Box());
+            assertTrue(vertical + " " + unsheared, unsheared.left <= inkX && inkX < unsheared.right);
+            assertTrue(vertical + " " + unsheared, unsheared.top <= inkY && inkY < unsheared.bottom);
+            assertTrue(unsheared.width() <= 2 && unsheared.height() <= 2);
+        }
+    }
+
+    @Test
+    public void process_levelsSkewedPageIntoNv21() {
+        int w = 640;
+        int h = 480;
+        int stride = 672;
+        ByteBuffer plane = plane(page(w, h, 4f, false), w, h, stride);
+        LumaPreprocessor.Config config = new LumaPreprocessor.Config(320, 15, 12, 8f);
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        ByteBuffer out = ByteBuffer.allocateDirect(YuvCropper.nv21Size(320, 240));
+        preprocessor.process(config, plane, stride, 1, new Box(0, 0, w, h), false, out);
+
+        assertEquals(4f, preprocessor.getLastSkewDegrees(), 0.4f);
+        assertEquals(0, out.position());
+        assertEquals(YuvCropper.nv21Size(320, 240), out.limit());
+        byte[] luma = new byte[320 * 240];
+        out.get(luma);
+        for (byte b : luma) {
+            assertTrue(b == 0 || b == (byte) 255);
+        }
+        while (out.hasRemaining()) {
+            assertEquals((byte) 128, out.get());
+        }
+        // what is left of the skew is below what the search resolves
+        assertEquals(0f, preprocessor.estimateSkew(luma, 320, 240, false, 8f), 0.5f);
+    }
+
+    @Test
+    public void process_withoutScalingOrDeskewOnlyThresholds() {
+        int w = 120;
+        int h = 90;
+        byte[] pixels = page(w, h, 0f, false);
+        byte[] expected = new byte[w * h];
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        preprocessor.threshold(pixels, expected, w, h, 31, 12);
+        ByteBuffer out = ByteBuffer.allocate(YuvCropper.nv21Size(w, h));
+        preprocessor.process(NO_DESKEW, plane(pixels, w, h, w), w, 1, new Box(0, 0, w, h), false, out);
+        byte[] luma = new byte[w * h];
+        out.get(luma);
+        assertArrayEquals(expected, luma);
+        assertEquals(0f, preprocessor.getLastSkewDegrees(), 0f);
+    }
+
+    @Test
+    public void process_doesNotAllocate() {
+        int w = 320;
+        int h = 240;
+        ByteBuffer plane = plane(page(w, h, 3f, false), w, h, w);
+        ByteBuffer out = ByteBuffer.allocateDirect(YuvCropper.nv21Size(160, 120));
+        LumaPreprocessor.Config config = new LumaPreprocessor.Config(160, 15, 12, 8f);
+        LumaPreprocessor preprocessor = new LumaPreprocessor();
+        Box crop = new Box(0, 0, w, h);
+        Runnable step = () -> preprocessor.process(config, plane, w, 1, crop, false, out);
+        for (int i = 0; i < 200; i++) step.run();
+        assertEquals(0, new AllocationCounter().allocatedBy(() -> {
+            for (int i = 0; i < 50; i++) step.run();
+        }));
+        assertEquals(0, plane.position());
+    }
+}
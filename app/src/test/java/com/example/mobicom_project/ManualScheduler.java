@@ -0,0 +1,25 @@
+package com.example.mobicom_project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Runs posted tasks only when asked to, so queue states can be inspected. */
+class ManualScheduler implements Scheduler {
+    final List<Runnable> tasks = new ArrayList<>();
+
+    @Override
+    public void post(Runnable task) {
+        tasks.add(task);
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return true;
+    }
+
+    void runAll() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+}
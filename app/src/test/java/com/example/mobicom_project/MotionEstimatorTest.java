@@ -0,0 +1,65 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MotionEstimatorTest {
+    private static final int W = 320;
+    private static final int H = 240;
+
+    /** Vertical stripes shifted right by {@code shift} pixels. */
+    private static ByteBuffer stripes(int shift, int rowStride) {
+        ByteBuffer plane = ByteBuffer.allocate(rowStride * H);
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                plane.put(y * rowStride + x, (byte) (((x + shift) / 7) % 2 == 0 ? 30 : 220));
+            }
+        }
+        return plane;
+    }
+
+    @Test
+    public void update_firstFrameScoresZero() {
+        assertEquals(0f, new MotionEstimator().update(stripes(0, W), W, 1, W, H), 0f);
+    }
+
+    @Test
+    public void update_staticSceneScoresZero() {
+        MotionEstimator estimator = new MotionEstimator();
+        estimator.update(stripes(0, W), W, 1, W, H);
+        assertEquals(0f, estimator.update(stripes(0, W), W, 1, W, H), 0f);
+    }
+
+    @Test
+    public void update_panScoresHigh() {
+        MotionEstimator estimator = new MotionEstimator();
+        estimator.update(stripes(0, W + 16), W + 16, 1, W, H);
+        assertTrue(estimator.update(stripes(5, W + 16), W + 16, 1, W, H) > 40f);
+    }
+
+    @Test
+    public void reset_forgetsPreviousFrame() {
+        MotionEstimator estimator = new MotionEstimator();
+        estimator.update(stripes(0, W), W, 1, W, H);
+        estimator.reset();
+        assertEquals(0f, estimator.update(stripes(5, W), W, 1, W, H), 0f);
+    }
+
+    @Test
+    public void update_doesNotAllocate() {
+        MotionEstimator estimator = new MotionEstimator();
+        ByteBuffer a = stripes(0, W);
+        ByteBuffer b = stripes(3, W);
+        Runnable step = () -> {
+            estimator.update(a, W, 1, W, H);
+            estimator.update(b, W, 1, W, H);
+        };
+        for (int i = 0; i < 1000; i++) step.run();
+        assertEquals(0, new AllocationCounter().allocatedBy(() -> {
+            for (int i = 0; i < 1000; i++) step.run();
+        }));
+    }
+}
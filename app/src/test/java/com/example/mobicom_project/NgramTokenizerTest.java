@@ -0,0 +1,56 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class NgramTokenizerTest {
+    @Test
+    public void normalize_foldsWidthAndCase() {
+        assertEquals("abc 123", NgramTokenizer.normalize("ＡＢＣ １２３"));
+        // decomposed jamo compose into the syllable
+        assertEquals("\uD55C", NgramTokenizer.normalize("\u1112\u1161\u11AB"));
+    }
+
+    @Test
+    public void runs_splitOnSpacesAndPunctuation() {
+        assertEquals(Arrays.asList("서울특별시", "강남구", "tel", "02", "1234"),
+                NgramTokenizer.runs("서울특별시, 강남구 (tel. 02-1234)"));
+        assertTrue(NgramTokenizer.runs(" ..! ").isEmpty());
+    }
+
+    @Test
+    public void grams_bigramsPlusLastUnigram() {
+        IntList grams = new IntList();
+        NgramTokenizer.grams("강남구", grams);
+        assertArrayEquals(new int[]{
+                NgramTokenizer.bigram('강', '남'), NgramTokenizer.bigram('남', '구'), NgramTokenizer.unigram('구')
+        }, grams.toArray());
+    }
+
+    @Test
+    public void documentGrams_areSortedAndUnique() {
+        IntList grams = NgramTokenizer.documentGrams("abab ab");
+        assertArrayEquals(sortedCopy(NgramTokenizer.bigram('a', 'b'), NgramTokenizer.bigram('b', 'a'), NgramTokenizer.unigram('b')),
+                grams.toArray());
+    }
+
+    @Test
+    public void everyGramStartingWithACharacterIsInItsRange() {
+        char c = '남';
+        int lo = NgramTokenizer.rangeStart(c);
+        int hi = NgramTokenizer.rangeEnd(c);
+        for (int gram : new int[]{NgramTokenizer.unigram(c), NgramTokenizer.bigram(c, 'a'), NgramTokenizer.bigram(c, '힣')}) {
+            assertTrue(gram >= lo && gram <= hi);
+        }
+        assertFalse(NgramTokenizer.bigram('낚', '힣') >= lo && NgramTokenizer.bigram('낚', '힣') <= hi);
+    }
+
+    private static int[] sortedCopy(int... values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.mobicom_project;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class OverlayLayoutTest {
+    @Test
+    public void add_mapsImageToViewWithPaddingAndOffset() {
+        OverlayLayout layout = new OverlayLayout(20);
+        layout.setViewSize(360, 480);
+        layout.beginFrame(960, 1280, 96, 128);
+        layout.add(0, 0, 96, 128, 3);
+        assertEquals(1, layout.size());
+        assertEquals(36 - 20, layout.left(0));
+        assertEquals(48 - 20, layout.top(0));
+        assertEquals(72 + 20, layout.right(0));
+        assertEquals(96 + 20, layout.bottom(0));
+        assertEquals(3, layout.colorIndex(0));
+    }
+
+    @Test
+    public void beginFrame_resetsBoxesAndTracksSizeChanges() {
+        OverlayLayout layout = new OverlayLayout(0);
+        layout.setViewSize(100, 100);
+        layout.beginFrame(200, 200, 0, 0);
+        for (int i = 0; i < 40; i++) {
+            layout.add(i, i, i + 10, i + 10, i);
+        }
+        assertEquals(40, layout.size());
+        assertEquals(19, layout.left(39));
+
+        layout.beginFrame(100, 100, 0, 0);
+        assertEquals(0, layout.size());
+        layout.add(10, 10, 20, 20, 0);
+        assertEquals(10, layout.left(0));
+
+        layout.setViewSize(50, 50);
+        layout.beginFrame(100, 100, 0, 0);
+        layout.add(10, 10, 20, 20, 0);
+        assertEquals(5, layout.left(0));
+    }
+
+    @Test
+    public void steadyStateFrames_doNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        OverlayLayout layout = new OverlayLayout(20);
+        layout.setViewSize(1080, 1440);
+        // warm up: reach the steady-state box count and let the JIT settle
+        for (int i = 0; i < 20_000; i++) {
+            drawFrame(layout, i);
+        }
+
+        long calibrationStart = threads.getThreadAllocatedBytes(threadId);
+        long calibration = threads.getThreadAllocatedBytes(threadId) - calibrationStart;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            drawFrame(layout, i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - calibration;
+        assertEquals(0, allocated);
+    }
+
+    private static void drawFrame(OverlayLayout layout, int frame) {
+        layout.beginFrame(1280, 960, frame % 7, frame % 5);
+        for (int block = 0; block < 48; block++) {
+            layout.add(block * 10, block * 8, block * 10 + 200, block * 8 + 40, block);
+        }
+    }
+}
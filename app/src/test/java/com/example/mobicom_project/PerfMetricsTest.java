@@ -0,0 +1,61 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerfMetricsTest {
+    @Test
+    public void recordSince_ignoresSpansThatNeverStarted() {
+        PerfMetrics metrics = new PerfMetrics();
+        metrics.recordSince(PerfMetrics.Span.OCR, 0);
+        assertEquals(0, metrics.histogram(PerfMetrics.Span.OCR).getCount());
+        metrics.recordSince(PerfMetrics.Span.OCR, PerfMetrics.now());
+        assertEquals(1, metrics.histogram(PerfMetrics.Span.OCR).getCount());
+    }
+
+    @Test
+    public void disabled_recordsNothing() {
+        PerfMetrics metrics = new PerfMetrics();
+        metrics.setEnabled(false);
+        metrics.recordSince(PerfMetrics.Span.OCR, PerfMetrics.now());
+        metrics.increment(PerfMetrics.Counter.CACHE_HITS);
+        assertEquals(0, metrics.histogram(PerfMetrics.Span.OCR).getCount());
+        assertEquals(0, metrics.count(PerfMetrics.Counter.CACHE_HITS));
+    }
+
+    @Test
+    public void report_listsEverySpanAndCounter() {
+        PerfMetrics metrics = new PerfMetrics();
+        metrics.increment(PerfMetrics.Counter.FRAMES_DROPPED);
+        StringBuilder report = new StringBuilder();
+        metrics.appendReport(report);
+        for (PerfMetrics.Span span : PerfMetrics.Span.values()) {
+            assertTrue(report.toString().contains(span.name()));
+        }
+        assertTrue(report.toString().contains("FRAMES_DROPPED 1"));
+    }
+
+    @Test
+    public void recording_doesNotAllocate() {
+        AllocationCounter allocations = new AllocationCounter();
+        PerfMetrics metrics = new PerfMetrics();
+        for (int i = 0; i < 20_000; i++) {
+            recordFrame(metrics);
+        }
+        long allocated = allocations.allocatedBy(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                recordFrame(metrics);
+            }
+        });
+        assertEquals(0, allocated);
+    }
+
+    private static void recordFrame(PerfMetrics metrics) {
+        long start = PerfMetrics.now();
+        metrics.increment(PerfMetrics.Counter.FRAMES_ANALYZED);
+        metrics.recordSince(PerfMetrics.Span.FRAME_TO_OCR_START, start);
+        metrics.recordSince(PerfMetrics.Span.OCR, start);
+        metrics.recordSince(PerfMetrics.Span.FRAME_TO_DRAW, start);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PreviewTransformTest {
+    private static final int W = 1080;
+    private static final int H = 1440;
+
+    private static float[] mapped(int rotation, float x, float y) {
+        float[] matrix = PreviewTransform.compute(W, H, rotation, new float[9]);
+        float[] out = new float[2];
+        PreviewTransform.map(matrix, x, y, out);
+        return out;
+    }
+
+    private static void assertPoint(float x, float y, float[] actual) {
+        assertEquals(x, actual[0], 1e-3f);
+        assertEquals(y, actual[1], 1e-3f);
+    }
+
+    @Test
+    public void naturalOrientation_isIdentity() {
+        float[] matrix = PreviewTransform.compute(W, H, 0, new float[9]);
+        assertArrayEquals(new float[]{1, 0, 0, 0, 1, 0, 0, 0, 1}, matrix, 0f);
+    }
+
+    @Test
+    public void quarterTurns_mapViewCornersOntoCorners() {
+        // the frame's top-left is drawn at the bottom-left once the display turns 90 degrees
+        assertPoint(0, H, mapped(90, 0, 0));
+        assertPoint(0, 0, mapped(90, W, 0));
+        assertPoint(W, H, mapped(90, 0, H));
+        assertPoint(0, 0, mapped(270, 0, H));
+        assertPoint(W, H, mapped(180, 0, 0));
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            assertPoint(W / 2f, H / 2f, mapped(rotation, W / 2f, H / 2f));
+        }
+    }
+
+    @Test
+    public void oppositeQuarterTurns_undoEachOther() {
+        float[] quarter = PreviewTransform.compute(W, H, 90, new float[9]);
+        float[] back = PreviewTransform.compute(W, H, 270, new float[9]);
+        float[] point = new float[2];
+        PreviewTransform.map(quarter, 200, 300, point);
+        PreviewTransform.map(back, point[0], point[1], point);
+        assertPoint(200, 300, point);
+    }
+
+    @Test
+    public void resize_recomputesScale() {
+        float[] portrait = PreviewTransform.compute(W, H, 90, new float[9]);
+        float[] square = PreviewTransform.compute(H, H, 90, new float[9]);
+        assertEquals((float) W / H, portrait[1], 1e-6f);
+        assertEquals(1f, square[1], 1e-6f);
+    }
+}
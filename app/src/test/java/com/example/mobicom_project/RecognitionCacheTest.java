@@ -0,0 +1,65 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecognitionCacheTest {
+    private static final Box FULL = new Box(0, 0, 1280, 960);
+
+    @Test
+    public void get_matchesWithinDistance() {
+        RecognitionCache<String> cache = new RecognitionCache<>(4, 3);
+        cache.put(0b1111L, FULL, "page");
+        assertEquals("page", cache.get(0b1110L, FULL));
+        assertEquals("page", cache.get(0b1000L, FULL));
+        assertNull(cache.get(0b1110000L, FULL));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void get_requiresSameCrop() {
+        RecognitionCache<String> cache = new RecognitionCache<>(4, 3);
+        cache.put(42L, FULL, "page");
+        assertNull(cache.get(42L, new Box(0, 0, 640, 480)));
+        assertEquals("page", cache.get(42L, new Box(0, 0, 1280, 960)));
+    }
+
+    @Test
+    public void get_prefersClosestEntry() {
+        RecognitionCache<String> cache = new RecognitionCache<>(4, 4);
+        cache.put(0b0000L, FULL, "far");
+        cache.put(0b0111L, FULL, "near");
+        assertEquals("near", cache.get(0b0011L, FULL));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        RecognitionCache<String> cache = new RecognitionCache<>(2, 0);
+        cache.put(1L, FULL, "a");
+        cache.put(2L, FULL, "b");
+        assertEquals("a", cache.get(1L, FULL));
+        cache.put(3L, FULL, "c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(2L, FULL));
+        assertEquals("a", cache.get(1L, FULL));
+        assertEquals("c", cache.get(3L, FULL));
+    }
+
+    @Test
+    public void put_keepsEntriesWhoseKeysWouldCollide() {
+        // hash * 31 + crop.hashCode() is equal for these two, the entries must not be
+        Box other = new Box(0, 0, 1280, 991);
+        long hash = 1000L;
+        long otherHash = hash + (FULL.hashCode() - other.hashCode()) / 31;
+        assertEquals(hash * 31 + FULL.hashCode(), otherHash * 31 + other.hashCode());
+        RecognitionCache<String> cache = new RecognitionCache<>(4, 0);
+        cache.put(hash, FULL, "first");
+        cache.put(otherHash, other, "second");
+        assertEquals(2, cache.size());
+        assertEquals("first", cache.get(hash, FULL));
+        assertEquals("second", cache.get(otherHash, other));
+    }
+}
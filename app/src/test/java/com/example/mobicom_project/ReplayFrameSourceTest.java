@@ -0,0 +1,156 @@
+package com.example.mobicom_project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReplayFrameSourceTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Collects frames and closes them, like a well-behaved listener. */
+    static class Collector implements FrameSource.Listener {
+        final List<Frame> frames = new ArrayList<>();
+        /** First byte of each frame, read before closing it returns the data to the pool. */
+        final List<Integer> firstBytes = new ArrayList<>();
+        boolean ended;
+
+        @Override
+        public void onFrame(Frame frame) {
+            frames.add(frame);
+            firstBytes.add(frame.getPlane(0).get(0) & 0xFF);
+            frame.close();
+        }
+
+        @Override
+        public void onEnd() {
+            ended = true;
+        }
+    }
+
+    static byte[] nv21(int width, int height, int luma) {
+        byte[] data = new byte[YuvCropper.nv21Size(width, height)];
+        for (int i = 0; i < width * height; i++) data[i] = (byte) luma;
+        return data;
+    }
+
+    /** Just enough of a JPEG header for the size to be read. */
+    static byte[] jpegHeader(int width, int height) {
+        return new byte[]{
+                (byte) 0xFF, (byte) 0xD8,
+                (byte) 0xFF, (byte) 0xE0, 0, 4, 0, 0,
+                (byte) 0xFF, (byte) 0xC0, 0, 11, 8,
+                (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                1, 1, 0x11, 0};
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    @Test
+    public void jpegSize_readsStartOfFrame() {
+        assertArrayEquals(new int[]{1280, 960}, ReplayFrameSource.jpegSize(jpegHeader(1280, 960)));
+        assertNull(ReplayFrameSource.jpegSize(new byte[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    public void replay_streamsFilesInNameOrder() throws IOException {
+        write("0002_8x4.nv21", nv21(8, 4, 200));
+        write("0001_8x4.nv21", nv21(8, 4, 100));
+        write("0003.jpg", jpegHeader(64, 48));
+        write("notes.txt", new byte[]{1});
+        ManualScheduler scheduler = new ManualScheduler();
+        ReplayFrameSource source = new ReplayFrameSource(folder.getRoot(), 0, scheduler);
+        Collector collector = new Collector();
+        source.start(collector);
+        assertTrue(collector.frames.isEmpty());
+        scheduler.runAll();
+
+        assertTrue(collector.ended);
+        assertEquals(3, collector.frames.size());
+        Frame first = collector.frames.get(0);
+        assertEquals(Frame.Format.YUV_420_888, first.getFormat());
+        assertEquals(8, first.getWidth());
+        assertEquals(100, (int) collector.firstBytes.get(0));
+        assertEquals(200, (int) collector.firstBytes.get(1));
+        Frame jpeg = collector.frames.get(2);
+        assertEquals(Frame.Format.JPEG, jpeg.getFormat());
+        assertEquals(64, jpeg.getWidth());
+        assertEquals(48, jpeg.getHeight());
+        assertEquals(3, source.getEmittedFrames());
+    }
+
+    @Test
+    public void replay_skipsUnreadableFiles() throws IOException {
+        write("0001_8x4.nv21", new byte[3]);
+        write("0002.jpg", new byte[]{1, 2, 3, 4});
+        write("0003_8x4.nv21", nv21(8, 4, 1));
+        ManualScheduler scheduler = new ManualScheduler();
+        ReplayFrameSource source = new ReplayFrameSource(folder.getRoot(), 0, scheduler);
+        Collector collector = new Collector();
+        source.start(collector);
+        scheduler.runAll();
+        assertEquals(1, collector.frames.size());
+        assertEquals(2, source.getSkippedFiles());
+    }
+
+    @Test
+    public void replay_pacesFramesAtRate() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            write("000" + i + "_8x4.nv21", nv21(8, 4, i));
+        }
+        ManualScheduler scheduler = new ManualScheduler();
+        ReplayFrameSource source = new ReplayFrameSource(folder.getRoot(), 50, scheduler);
+        Collector collector = new Collector();
+        source.start(collector);
+        long start = System.nanoTime();
+        scheduler.runAll();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(3, collector.frames.size());
+        // frames at 0, 20 and 40 ms
+        assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 38);
+    }
+
+    @Test
+    public void stop_endsReplayEarly() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            write("000" + i + "_8x4.nv21", nv21(8, 4, i));
+        }
+        ManualScheduler scheduler = new ManualScheduler();
+        ReplayFrameSource source = new ReplayFrameSource(folder.getRoot(), 0, scheduler);
+        Collector collector = new Collector() {
+            @Override
+            public void onFrame(Frame frame) {
+                super.onFrame(frame);
+                if (frames.size() == 2) source.stop();
+            }
+        };
+        source.start(collector);
+        scheduler.runAll();
+        assertEquals(2, collector.frames.size());
+        assertTrue(collector.ended);
+        assertFalse(source.isRunning());
+    }
+
+    @Test
+    public void nv21Frame_exposesInterleavedChroma() {
+        byte[] data = nv21(4, 2, 0);
+        data[8] = 10; // V
+        data[9] = 20; // U
+        Frame frame = Frame.nv21(data, 4, 2, 0, null);
+        assertEquals(20, frame.getPlane(1).get(0));
+        assertEquals(10, frame.getPlane(2).get(0));
+        assertEquals(2, frame.getPixelStride(1));
+    }
+}
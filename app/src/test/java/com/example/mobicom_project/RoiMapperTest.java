@@ -0,0 +1,54 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoiMapperTest {
+    private static final int RAW_W = 1280;
+    private static final int RAW_H = 960;
+
+    @Test
+    public void rotation_roundTrips() {
+        Box upright = new Box(100, 200, 300, 500);
+        Box raw = new Box();
+        Box back = new Box();
+        for (int rotation = 0; rotation < 360; rotation += 90) {
+            RoiMapper.uprightToRaw(upright, rotation, RAW_W, RAW_H, raw);
+            RoiMapper.rawToUpright(raw, rotation, RAW_W, RAW_H, back);
+            assertEquals("rotation " + rotation, upright, back);
+            assertEquals(upright.width() * upright.height(), raw.width() * raw.height());
+        }
+    }
+
+    @Test
+    public void uprightToRaw_portraitBackCamera() {
+        // sensor is landscape, display is portrait: upright frame is 960x1280
+        Box topLeftOfUpright = new Box(0, 0, 100, 50);
+        Box raw = RoiMapper.uprightToRaw(topLeftOfUpright, 90, RAW_W, RAW_H, new Box());
+        // the top-left of the upright frame is the bottom-left of the sensor
+        assertEquals(new Box(0, RAW_H - 100, 50, RAW_H), raw);
+    }
+
+    @Test
+    public void viewToUpright_scalesAndClamps() {
+        Box view = new Box(-10, 100, 500, 400);
+        Box upright = RoiMapper.viewToUpright(view, 360, 480, 960, 1280, new Box());
+        assertEquals(new Box(0, 266, 960, 1067), upright);
+    }
+
+    @Test
+    public void uprightToView_addsCropOffset() {
+        Box inCrop = new Box(0, 0, 96, 128);
+        Box view = RoiMapper.uprightToView(inCrop, 96, 128, 960, 1280, 360, 480, 0, new Box());
+        assertEquals(new Box(36, 48, 72, 96), view);
+        Box padded = RoiMapper.uprightToView(inCrop, 0, 0, 960, 1280, 360, 480, 20, new Box());
+        assertEquals(new Box(-20, -20, 56, 68), padded);
+    }
+
+    @Test
+    public void alignToEven_growsToEvenBounds() {
+        Box raw = RoiMapper.alignToEven(new Box(3, 5, 8, 1279), RAW_W, RAW_H);
+        assertEquals(new Box(2, 4, 8, 960), raw);
+    }
+}
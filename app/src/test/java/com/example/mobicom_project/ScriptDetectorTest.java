@@ -0,0 +1,54 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScriptDetectorTest {
+    @Test
+    public void classify_englishText() {
+        String text = "Terms and conditions apply.\nValid until 31.12.2024 at participating stores";
+        assertEquals(Script.LATIN, ScriptDetector.classify(text, 1f));
+    }
+
+    @Test
+    public void classify_hangulReadByLatinModel() {
+        // what the Latin model typically makes of a Korean receipt
+        String text = "OI TH 2| E\nL| 7 HI 0}\nOF |2 XI";
+        assertEquals(Script.KOREAN, ScriptDetector.classify(text, 0f));
+    }
+
+    @Test
+    public void classify_emptyResultFallsBackToKorean() {
+        assertEquals(Script.KOREAN, ScriptDetector.classify("", 0f));
+        assertEquals(Script.KOREAN, ScriptDetector.classify(" \n ", 1f));
+    }
+
+    @Test
+    public void classify_requiresIdentifiedLanguage() {
+        assertEquals(Script.KOREAN, ScriptDetector.classify("hello world again", 0.2f));
+    }
+
+    @Test
+    public void isWordLike() {
+        assertTrue(ScriptDetector.isWordLike("(hello),", 0, 8));
+        assertTrue(ScriptDetector.isWordLike("12,500", 0, 6));
+        assertFalse(ScriptDetector.isWordLike("TH", 0, 2));
+        assertFalse(ScriptDetector.isWordLike("2|", 0, 2));
+        assertFalse(ScriptDetector.isWordLike("한글", 0, 2));
+    }
+
+    @Test
+    public void detection_isReusedUntilRecheck() {
+        ScriptDetector detector = new ScriptDetector(3);
+        assertTrue(detector.needsDetection());
+        assertEquals(Script.LATIN, detector.detect("plain english words", 1f));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(detector.needsDetection());
+            assertEquals(Script.LATIN, detector.nextFrame());
+        }
+        assertTrue(detector.needsDetection());
+        detector.reset();
+        assertTrue(detector.needsDetection());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SizeClassPoolTest {
+    private final List<byte[]> discarded = new ArrayList<>();
+
+    private SizeClassPool<byte[]> pool(long maxBytes) {
+        return new SizeClassPool<>(maxBytes, item -> item.length, discarded::add);
+    }
+
+    @Test
+    public void sizeClasses() {
+        assertEquals(0, SizeClassPool.floorClass(1));
+        assertEquals(10, SizeClassPool.floorClass(1024));
+        assertEquals(10, SizeClassPool.floorClass(2047));
+        assertEquals(10, SizeClassPool.ceilClass(1024));
+        assertEquals(11, SizeClassPool.ceilClass(1025));
+        assertEquals(0, SizeClassPool.ceilClass(0));
+    }
+
+    @Test
+    public void acquire_reusesBigEnoughItems() {
+        SizeClassPool<byte[]> pool = pool(1 << 20);
+        assertNull(pool.acquire(1000));
+        byte[] item = new byte[1500];
+        pool.release(item);
+        assertEquals(1, pool.getPooledCount());
+        assertEquals(1500, pool.getPooledBytes());
+
+        // 1500 is filed under 1024..2047, which can't be trusted for 1200 bytes
+        assertNull(pool.acquire(1200));
+        assertSame(item, pool.acquire(900));
+        assertEquals(0, pool.getPooledBytes());
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+    }
+
+    @Test
+    public void acquire_doesNotHandOutItemsFarTooBig() {
+        SizeClassPool<byte[]> pool = pool(1 << 20);
+        pool.release(new byte[8192]);
+        assertNull(pool.acquire(1000));
+        assertNotNull(pool.acquire(3000));
+    }
+
+    @Test
+    public void release_evictsLargestBeyondBudget() {
+        SizeClassPool<byte[]> pool = pool(10_000);
+        byte[] small = new byte[1000];
+        byte[] big = new byte[8000];
+        pool.release(small);
+        pool.release(big);
+        pool.release(new byte[2000]);
+
+        assertEquals(1, discarded.size());
+        assertSame(big, discarded.get(0));
+        assertEquals(3000, pool.getPooledBytes());
+        assertEquals(1, pool.getDiscarded());
+    }
+
+    @Test
+    public void release_discardsItemsOverBudget() {
+        SizeClassPool<byte[]> pool = pool(100);
+        pool.release(new byte[200]);
+        assertEquals(0, pool.getPooledCount());
+        assertEquals(1, discarded.size());
+    }
+
+    @Test
+    public void trimAndClear() {
+        SizeClassPool<byte[]> pool = pool(1 << 20);
+        pool.release(new byte[4096]);
+        pool.release(new byte[512]);
+        pool.release(new byte[256]);
+        pool.trimTo(1000);
+        assertEquals(768, pool.getPooledBytes());
+        pool.setMaxBytes(300);
+        assertEquals(256, pool.getPooledBytes());
+        pool.clear();
+        assertEquals(0, pool.getPooledCount());
+        assertEquals(3, discarded.size());
+    }
+
+    @Test
+    public void stats() {
+        SizeClassPool<byte[]> pool = pool(2 * 1048576);
+        assertEquals(0f, pool.getHitRate(), 0f);
+        pool.release(new byte[1048576]);
+        pool.acquire(1048576);
+        pool.acquire(10);
+        pool.acquire(10);
+        pool.release(new byte[1048576]);
+        assertEquals(1f / 3, pool.getHitRate(), 1e-6f);
+
+        StringBuilder out = new StringBuilder();
+        pool.appendStats(out, "buffers");
+        String line = out.toString();
+        assertTrue(line, line.startsWith("buffers  1 items 1.0/2.0 MB hit 33% (1/3)"));
+    }
+}
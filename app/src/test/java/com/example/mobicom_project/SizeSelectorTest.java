@@ -0,0 +1,55 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SizeSelectorTest {
+    // a typical back camera, largest first
+    private static final int[] WIDTHS = {4032, 4000, 3024, 2592, 1920, 1600, 1440, 1280, 1024, 800, 640, 320};
+    private static final int[] HEIGHTS = {3024, 2250, 3024, 1944, 1080, 1200, 1080, 960, 768, 600, 480, 240};
+    private static final float FOUR_THREE = 4f / 3f;
+
+    private static String size(int index) {
+        return WIDTHS[index] + "x" + HEIGHTS[index];
+    }
+
+    @Test
+    public void preview_smallestMatchingSizeCoveringView() {
+        assertEquals("1440x1080", size(SizeSelector.selectPreview(WIDTHS, HEIGHTS, 1300, 975, FOUR_THREE)));
+        assertEquals("800x600", size(SizeSelector.selectPreview(WIDTHS, HEIGHTS, 720, 540, FOUR_THREE)));
+    }
+
+    @Test
+    public void preview_neverExceedsPreviewLimit() {
+        assertEquals("1440x1080", size(SizeSelector.selectPreview(WIDTHS, HEIGHTS, 4000, 3000, FOUR_THREE)));
+    }
+
+    @Test
+    public void preview_fallsBackWhenAspectIsMissing() {
+        int[] widths = {1920, 1280};
+        int[] heights = {1080, 720};
+        assertEquals(1, SizeSelector.selectPreview(widths, heights, 960, 720, FOUR_THREE));
+    }
+
+    @Test
+    public void ocr_policiesUseDifferentBudgets() {
+        assertEquals("1280x960", size(SizeSelector.selectForOcr(WIDTHS, HEIGHTS, FOUR_THREE, SizeSelector.Policy.FAST)));
+        assertEquals("2592x1944", size(SizeSelector.selectForOcr(WIDTHS, HEIGHTS, FOUR_THREE, SizeSelector.Policy.ACCURATE)));
+    }
+
+    @Test
+    public void ocr_usesSmallestWhenEverythingIsOverBudget() {
+        int[] widths = {4032, 3264};
+        int[] heights = {3024, 2448};
+        assertEquals(1, SizeSelector.selectForOcr(widths, heights, FOUR_THREE, SizeSelector.Policy.FAST));
+    }
+
+    @Test
+    public void sampleSize_fitsBudget() {
+        assertEquals(1, SizeSelector.sampleSizeFor(2592, 1944, SizeSelector.Policy.ACCURATE));
+        assertEquals(2, SizeSelector.sampleSizeFor(4032, 3024, SizeSelector.Policy.ACCURATE));
+        assertEquals(4, SizeSelector.sampleSizeFor(4032, 3024, SizeSelector.Policy.FAST));
+        assertEquals(8, SizeSelector.sampleSizeFor(12000, 9000, SizeSelector.Policy.ACCURATE));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TextDifferTest {
+    /** Applies edits to a StringBuilder and remembers where each block ended up. */
+    private static class RecordingSink implements TextDiffer.Sink {
+        final StringBuilder document = new StringBuilder();
+        final Map<Integer, int[]> ranges = new HashMap<>();
+        int removed;
+
+        @Override
+        public void replace(int start, int end, CharSequence text) {
+            document.replace(start, end, text.toString());
+        }
+
+        @Override
+        public void onBlockChanged(int blockId, int start, int end) {
+            ranges.put(blockId, new int[]{start, end});
+        }
+
+        @Override
+        public void onBlockRemoved(int blockId) {
+            removed++;
+        }
+    }
+
+    private static OcrBlock block(int id, String text) {
+        OcrBlock block = new OcrBlock(new Box(0, 0, 1, 1)).addLine(text, 1f, null);
+        block.id = id;
+        return block;
+    }
+
+    private static List<OcrBlock> blocks(Object... idAndText) {
+        List<OcrBlock> list = new ArrayList<>();
+        for (int i = 0; i < idAndText.length; i += 2) {
+            list.add(block((Integer) idAndText[i], (String) idAndText[i + 1]));
+        }
+        return list;
+    }
+
+    @Test
+    public void apply_insertsEverythingOnFirstFrame() {
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        assertEquals(2, differ.apply(blocks(1, "one", 2, "two"), sink));
+        assertEquals("one\ntwo\n", sink.document.toString());
+        assertArrayEquals(new int[]{4, 7}, sink.ranges.get(2));
+    }
+
+    @Test
+    public void apply_unchangedFrameProducesNoEdits() {
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        differ.apply(blocks(1, "one", 2, "two"), sink);
+        assertEquals(0, differ.apply(blocks(1, "one", 2, "two"), sink));
+    }
+
+    @Test
+    public void apply_editsOnlyChangedBlock() {
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        differ.apply(blocks(1, "one", 2, "two", 3, "three"), sink);
+        sink.ranges.clear();
+        assertEquals(1, differ.apply(blocks(1, "one", 2, "TWO!", 3, "three"), sink));
+        assertEquals("one\nTWO!\nthree\n", sink.document.toString());
+        assertEquals(1, sink.ranges.size());
+        assertArrayEquals(new int[]{4, 8}, sink.ranges.get(2));
+    }
+
+    @Test
+    public void apply_removesAndInsertsBlocks() {
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        differ.apply(blocks(1, "one", 2, "two", 3, "three"), sink);
+        assertEquals(2, differ.apply(blocks(1, "one", 3, "three", 4, "four"), sink));
+        assertEquals("one\nthree\nfour\n", sink.document.toString());
+        assertEquals(1, sink.removed);
+    }
+
+    @Test
+    public void apply_randomFramesMatchFullRender() {
+        Random random = new Random(7);
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        for (int frame = 0; frame < 500; frame++) {
+            List<OcrBlock> blocks = new ArrayList<>();
+            int count = random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                int id = random.nextInt(10);
+                String text = random.nextInt(4) == 0 ? "" : "b" + id + "v" + random.nextInt(3);
+                blocks.add(block(id, text));
+            }
+            differ.apply(blocks, sink);
+            StringBuilder expected = new StringBuilder();
+            for (OcrBlock block : blocks) {
+                expected.append(block.getText()).append('\n');
+            }
+            assertEquals(expected.toString(), sink.document.toString());
+            assertEquals(expected.toString(), differ.render());
+        }
+    }
+
+    @Test
+    public void clear_reinsertsOnNextApply() {
+        TextDiffer differ = new TextDiffer();
+        RecordingSink sink = new RecordingSink();
+        differ.apply(blocks(1, "one"), sink);
+        differ.clear();
+        sink.document.setLength(0);
+        assertEquals(1, differ.apply(blocks(1, "one"), sink));
+        assertEquals("one\n", sink.document.toString());
+    }
+}
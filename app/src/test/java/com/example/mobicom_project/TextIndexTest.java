@@ -0,0 +1,170 @@
+package com.example.mobicom_project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TextIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Integer> ids(List<TextIndex.Hit> hits) {
+        List<Integer> ids = new ArrayList<>();
+        for (TextIndex.Hit hit : hits) {
+            ids.add(hit.docId);
+        }
+        return ids;
+    }
+
+    private static List<Integer> list(Integer... ids) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer id : ids) list.add(id);
+        return list;
+    }
+
+    @Test
+    public void search_matchesInsideWordsAcrossSpacing() throws IOException {
+        try (TextIndex index = new TextIndex(folder.getRoot(), null)) {
+            index.add(1000, "a.jpg", "서울특별시 강남구 테헤란로 152");
+            index.add(2000, "b.jpg", "부산광역시 해운대구");
+            index.add(3000, "c.jpg", "Gangnam STATION 강남역");
+
+            assertEquals(list(2, 0), ids(index.search("강남", 10)));
+            assertEquals(list(0), ids(index.search("강남 테헤란", 10)));
+            assertTrue(index.search("남구테", 10).isEmpty());
+            assertEquals(list(2), ids(index.search("gangnam station", 10)));
+            assertEquals(list(1, 0), ids(index.search("구", 10)));
+            assertEquals(list(0), ids(index.search("로", 10)));
+            assertEquals(list(2), ids(index.search("강남", 1)));
+            assertTrue(index.search("  ..", 10).isEmpty());
+
+            TextIndex.Hit hit = index.search("해운대", 10).get(0);
+            assertEquals("b.jpg", hit.source);
+            assertEquals(2000, hit.timeMillis);
+            assertEquals("부산광역시 해운대구", hit.text);
+        }
+    }
+
+    @Test
+    public void flushAndReopen_keepEverything() throws IOException {
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 4, 100)) {
+            for (int i = 0; i < 10; i++) {
+                index.add(i, "p" + i, "페이지 " + i + (i % 2 == 0 ? " 짝수" : " 홀수"));
+            }
+            assertEquals(2, index.getSegmentCount());
+            assertEquals(2, index.getPendingDocs());
+            assertEquals(list(8, 6, 4, 2, 0), ids(index.search("짝수", 10)));
+        }
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 4, 100)) {
+            assertEquals(10, index.size());
+            assertEquals(2, index.getSegmentCount());
+            assertEquals(2, index.getPendingDocs());
+            assertEquals(list(9, 7, 5, 3, 1), ids(index.search("홀수", 10)));
+            assertEquals(list(7), ids(index.search("페이지 7", 10)));
+            assertEquals(10, index.add(10, "p10", "짝수"));
+        }
+    }
+
+    @Test
+    public void compaction_mergesSegmentsInTheBackground() throws IOException {
+        ManualScheduler scheduler = new ManualScheduler();
+        try (TextIndex index = new TextIndex(folder.getRoot(), scheduler, 2, 3)) {
+            for (int i = 0; i < 8; i++) {
+                index.add(i, "p" + i, "문서 번호 " + i);
+            }
+            assertEquals(4, index.getSegmentCount());
+            assertEquals(1, scheduler.tasks.size());
+            scheduler.runAll();
+            assertEquals(1, index.getSegmentCount());
+            assertEquals(list(7, 6, 5, 4, 3, 2, 1, 0), ids(index.search("문서", 10)));
+            assertEquals(list(5), ids(index.search("번호 5", 10)));
+        }
+        File[] segments = folder.getRoot().listFiles((dir, name) -> name.endsWith(".ngr"));
+        assertEquals(1, segments.length);
+        assertEquals(IndexSegment.fileName(0, 8), segments[0].getName());
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 2, 3)) {
+            assertEquals(1, index.getSegmentCount());
+            assertEquals(8, ids(index.search("문서", 10)).size());
+        }
+    }
+
+    @Test
+    public void open_recoversFromTornWritesAndLeftovers() throws IOException {
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 2, 100)) {
+            for (int i = 0; i < 5; i++) {
+                index.add(i, "p" + i, "기록 " + i);
+            }
+        }
+        File docs = new File(folder.getRoot(), TextIndex.DOCS_FILE);
+        long intact = docs.length();
+        // a record cut short, an interrupted flush and a segment left over from a merge
+        try (RandomAccessFile raf = new RandomAccessFile(docs, "rw")) {
+            raf.seek(intact);
+            raf.writeInt(500);
+            raf.writeInt(0);
+            raf.write(new byte[20]);
+        }
+        assertTrue(new File(folder.getRoot(), "seg-4-6.ngr.tmp").createNewFile());
+        assertTrue(new File(folder.getRoot(), IndexSegment.fileName(2, 4)).exists());
+
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 2, 100)) {
+            assertEquals(5, index.size());
+            assertEquals(intact, docs.length());
+            assertFalse(new File(folder.getRoot(), "seg-4-6.ngr.tmp").exists());
+            assertEquals(list(4, 3, 2, 1, 0), ids(index.search("기록", 10)));
+            assertEquals(5, index.add(5, "p5", "기록 5"));
+        }
+
+        // a corrupted last record is dropped along with the segment that covered it
+        try (RandomAccessFile raf = new RandomAccessFile(docs, "rw")) {
+            raf.seek(docs.length() - 1);
+            raf.write('X');
+        }
+        try (TextIndex index = new TextIndex(folder.getRoot(), null, 2, 100)) {
+            assertEquals(5, index.size());
+            assertEquals(list(4, 3, 2, 1, 0), ids(index.search("기록", 10)));
+            assertFalse(new File(folder.getRoot(), IndexSegment.fileName(4, 6)).exists());
+        }
+    }
+
+    @Test
+    public void search_agreesWithBruteForce() throws IOException {
+        Random random = new Random(21);
+        char[] alphabet = "가나다라마바사아 ".toCharArray();
+        List<String> pages = new ArrayList<>();
+        ManualScheduler scheduler = new ManualScheduler();
+        try (TextIndex index = new TextIndex(folder.getRoot(), scheduler, 16, 4)) {
+            for (int i = 0; i < 600; i++) {
+                StringBuilder page = new StringBuilder();
+                int length = 5 + random.nextInt(40);
+                for (int j = 0; j < length; j++) {
+                    page.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+                pages.add(page.toString());
+                index.add(i, "p" + i, page.toString());
+                if (i % 97 == 0) scheduler.runAll();
+            }
+            for (int q = 0; q < 200; q++) {
+                StringBuilder query = new StringBuilder();
+                int length = 1 + random.nextInt(4);
+                for (int j = 0; j < length; j++) {
+                    query.append(alphabet[random.nextInt(alphabet.length - 1)]);
+                }
+                List<Integer> expected = new ArrayList<>();
+                for (int i = pages.size() - 1; i >= 0; i--) {
+                    if (pages.get(i).contains(query)) expected.add(i);
+                }
+                assertEquals(query.toString(), expected, ids(index.search(query.toString(), Integer.MAX_VALUE)));
+            }
+        }
+    }
+}
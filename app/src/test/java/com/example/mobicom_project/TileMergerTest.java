@@ -0,0 +1,93 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TileMergerTest {
+    // two tiles side by side over a 1800 x 1000 image, overlapping in x 800..1000
+    private static final List<Box> TILES = Arrays.asList(new Box(0, 0, 1000, 1000), new Box(800, 0, 1800, 1000));
+
+    private static OcrBlock block(String text, int left, int top, int right, int bottom) {
+        Box bounds = new Box(left, top, right, bottom);
+        return new OcrBlock(bounds).addLine(text, 0.9f, new Box().set(bounds));
+    }
+
+    private static List<List<OcrBlock>> results(List<OcrBlock> first, List<OcrBlock> second) {
+        return Arrays.asList(first, second);
+    }
+
+    @Test
+    public void merge_remapsToImageCoordinates() {
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(
+                Collections.singletonList(block("left", 100, 100, 300, 140)),
+                Collections.singletonList(block("right", 500, 300, 700, 340))));
+        assertEquals(2, merged.size());
+        assertEquals(new Box(100, 100, 300, 140), merged.get(0).bounds);
+        assertEquals(new Box(1300, 300, 1500, 340), merged.get(1).bounds);
+        assertEquals("right", merged.get(1).getText());
+    }
+
+    @Test
+    public void merge_keepsOneReadingOfLineInOverlap() {
+        // the first tile cuts the line off at its right edge; the second sees all of it
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(
+                Collections.singletonList(block("Hello wo", 850, 500, 1000, 540)),
+                Collections.singletonList(block("Hello world", 50, 500, 250, 540))));
+        assertEquals(1, merged.size());
+        assertEquals("Hello world", merged.get(0).getText());
+        assertEquals(new Box(850, 500, 1050, 540), merged.get(0).bounds);
+    }
+
+    @Test
+    public void merge_joinsLineCrossingSeam() {
+        // longer than the overlap: each tile cuts a word off at its inner edge
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(
+                Collections.singletonList(block("The quick brown fo", 300, 500, 1000, 540)),
+                Collections.singletonList(block("own fox jumps", 0, 502, 500, 542))));
+        assertEquals(1, merged.size());
+        assertEquals("The quick brown fox jumps", merged.get(0).getText());
+        assertEquals(new Box(300, 500, 1300, 542), merged.get(0).bounds);
+    }
+
+    @Test
+    public void merge_keepsLinesOnOtherBaselinesApart() {
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(
+                Collections.singletonList(block("upper line", 300, 500, 1000, 540)),
+                Collections.singletonList(block("lower line", 0, 530, 500, 570))));
+        assertEquals(2, merged.size());
+    }
+
+    @Test
+    public void merge_keepsSeparateLinesOfSameTile() {
+        List<OcrBlock> first = new ArrayList<>();
+        OcrBlock paragraph = new OcrBlock(new Box(100, 100, 500, 200))
+                .addLine("one", 0.9f, new Box(100, 100, 500, 140))
+                .addLine("two", 0.9f, new Box(100, 150, 500, 190));
+        first.add(paragraph);
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(first, new ArrayList<>()));
+        assertEquals(1, merged.size());
+        assertEquals("one\ntwo", merged.get(0).getText());
+    }
+
+    @Test
+    public void merge_ordersBlocksTopToBottom() {
+        List<OcrBlock> merged = new TileMerger(0.5f).merge(TILES, results(
+                Collections.singletonList(block("lower", 100, 600, 300, 640)),
+                Collections.singletonList(block("upper", 500, 100, 700, 140))));
+        assertEquals("upper", merged.get(0).getText());
+        assertEquals("lower", merged.get(1).getText());
+    }
+
+    @Test
+    public void margin_ignoresImageEdges() {
+        Box image = new Box(0, 0, 1800, 1000);
+        assertEquals(700, TileMerger.margin(new Box(0, 0, 300, 40), TILES.get(0), image));
+        assertEquals(0, TileMerger.margin(new Box(850, 0, 1000, 40), TILES.get(0), image));
+    }
+}
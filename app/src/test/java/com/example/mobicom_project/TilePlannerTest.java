@@ -0,0 +1,44 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TilePlannerTest {
+    @Test
+    public void plan_smallImageIsOneTile() {
+        List<Box> tiles = TilePlanner.plan(800, 600, 1024, 128);
+        assertEquals(1, tiles.size());
+        assertEquals(new Box(0, 0, 800, 600), tiles.get(0));
+    }
+
+    @Test
+    public void plan_coversImageWithOverlap() {
+        int width = 2592;
+        int height = 1944;
+        List<Box> tiles = TilePlanner.plan(width, height, 1024, 128);
+        assertEquals(3 * 3, tiles.size());
+        Box last = tiles.get(tiles.size() - 1);
+        assertEquals(width, last.right);
+        assertEquals(height, last.bottom);
+        for (int i = 0; i < 2; i++) {
+            Box left = tiles.get(i);
+            Box right = tiles.get(i + 1);
+            assertEquals(1024, left.width());
+            assertTrue(left.right - right.left >= 128);
+        }
+    }
+
+    @Test
+    public void starts_areEvenlySpread() {
+        assertArrayEquals(new int[]{0, 488, 976}, TilePlanner.starts(2000, 1024, 128));
+        assertArrayEquals(new int[]{0, 976}, TilePlanner.starts(2000, 1024, 48));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void plan_rejectsOverlapAsLargeAsTile() {
+        TilePlanner.plan(2000, 2000, 100, 100);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class YuvCropperTest {
+    private static final int W = 8;
+    private static final int H = 6;
+    private static final int Y_STRIDE = 10;
+
+    /** Interleaved chroma as most devices deliver it: U and V share one buffer, pixel stride 2. */
+    private static ByteBuffer[] interleavedPlanes() {
+        ByteBuffer y = ByteBuffer.allocateDirect(Y_STRIDE * H);
+        for (int row = 0; row < H; row++) {
+            for (int col = 0; col < W; col++) {
+                y.put(row * Y_STRIDE + col, (byte) (row * 16 + col));
+            }
+        }
+        int uvStride = W;
+        ByteBuffer uv = ByteBuffer.allocateDirect(uvStride * H / 2 + 1);
+        for (int row = 0; row < H / 2; row++) {
+            for (int col = 0; col < W / 2; col++) {
+                uv.put(row * uvStride + col * 2, (byte) (100 + row * 10 + col));
+                uv.put(row * uvStride + col * 2 + 1, (byte) (-100 + row * 10 + col));
+            }
+        }
+        ByteBuffer u = uv.duplicate();
+        uv.position(1);
+        ByteBuffer v = uv.slice();
+        return new ByteBuffer[]{y, u, v};
+    }
+
+    @Test
+    public void cropToNv21_copiesLumaAndSwapsChroma() {
+        ByteBuffer[] planes = interleavedPlanes();
+        Box crop = new Box(2, 2, 6, 6);
+        byte[] out = new byte[YuvCropper.nv21Size(crop.width(), crop.height())];
+        YuvCropper.cropToNv21(planes[0], Y_STRIDE, 1, planes[1], planes[2], W, 2, crop, out);
+
+        int offset = 0;
+        for (int row = 2; row < 6; row++) {
+            for (int col = 2; col < 6; col++) {
+                assertEquals((byte) (row * 16 + col), out[offset++]);
+            }
+        }
+        for (int row = 1; row < 3; row++) {
+            for (int col = 1; col < 3; col++) {
+                assertEquals("V", (byte) (-100 + row * 10 + col), out[offset++]);
+                assertEquals("U", (byte) (100 + row * 10 + col), out[offset++]);
+            }
+        }
+        assertEquals(out.length, offset);
+        assertEquals(0, planes[0].position());
+    }
+
+    @Test
+    public void cropToNv21_bufferMatchesArray() {
+        ByteBuffer[] planes = interleavedPlanes();
+        Box crop = new Box(0, 2, 8, 6);
+        byte[] expected = new byte[YuvCropper.nv21Size(crop.width(), crop.height())];
+        YuvCropper.cropToNv21(planes[0], Y_STRIDE, 1, planes[1], planes[2], W, 2, crop, expected);
+
+        ByteBuffer out = ByteBuffer.allocateDirect(expected.length + 16);
+        out.position(5);
+        YuvCropper.cropToNv21(planes[0], Y_STRIDE, 1, planes[1], planes[2], W, 2, crop, out);
+
+        assertEquals(0, out.position());
+        assertEquals(expected.length, out.limit());
+        byte[] actual = new byte[expected.length];
+        out.get(actual);
+        assertArrayEquals(expected, actual);
+        assertEquals(0, planes[0].position());
+    }
+}
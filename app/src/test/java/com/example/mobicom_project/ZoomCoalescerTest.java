@@ -0,0 +1,127 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ZoomCoalescerTest {
+    @Test
+    public void pinchBurst_submitsFirstAndLatestOnly() {
+        ManualScheduler camera = new ManualScheduler();
+        List<Float> submitted = new ArrayList<>();
+        ZoomCoalescer coalescer = new ZoomCoalescer(camera, zoom -> submitted.add(zoom));
+
+        coalescer.setTarget(1.1f);
+        coalescer.setTarget(1.2f);
+        coalescer.setTarget(1.3f);
+        coalescer.setTarget(1.4f);
+        camera.runAll();
+        assertEquals(1, submitted.size());
+        assertEquals(1.1f, submitted.get(0), 0f);
+        assertTrue(coalescer.isInFlight());
+
+        // the next frame releases the slot and the newest target goes out
+        coalescer.onFrameCompleted();
+        camera.runAll();
+        assertEquals(2, submitted.size());
+        assertEquals(1.4f, submitted.get(1), 0f);
+        assertEquals(2, coalescer.getCoalescedCount());
+
+        coalescer.onFrameCompleted();
+        camera.runAll();
+        assertEquals(2, submitted.size());
+        assertFalse(coalescer.isInFlight());
+    }
+
+    @Test
+    public void failedSubmit_releasesSlot() {
+        ManualScheduler camera = new ManualScheduler();
+        List<Float> attempts = new ArrayList<>();
+        ZoomCoalescer coalescer = new ZoomCoalescer(camera, zoom -> {
+            attempts.add(zoom);
+            return false;
+        });
+        coalescer.setTarget(2f);
+        camera.runAll();
+        assertFalse(coalescer.isInFlight());
+        coalescer.setTarget(3f);
+        camera.runAll();
+        assertEquals(2, attempts.size());
+    }
+
+    @Test
+    public void clear_dropsQueuedTargetAndFreesSlot() {
+        ManualScheduler camera = new ManualScheduler();
+        List<Float> submitted = new ArrayList<>();
+        ZoomCoalescer coalescer = new ZoomCoalescer(camera, zoom -> submitted.add(zoom));
+        coalescer.setTarget(1.5f);
+        camera.runAll();
+        coalescer.setTarget(2f);
+
+        // the repeating request is stopped: the queued target must not go out on a late frame
+        coalescer.clear();
+        coalescer.onFrameCompleted();
+        camera.runAll();
+        assertEquals(1, submitted.size());
+        assertFalse(coalescer.isInFlight());
+
+        coalescer.setTarget(3f);
+        camera.runAll();
+        assertEquals(3f, submitted.get(1), 0f);
+    }
+
+    @Test
+    public void concurrentTargets_neverOverlapSubmissions() throws InterruptedException {
+        ExecutorScheduler camera = new ExecutorScheduler("camera");
+        final int[] active = {0};
+        final int[] maxActive = {0};
+        final float[] last = {0};
+        ZoomCoalescer[] holder = new ZoomCoalescer[1];
+        ZoomCoalescer coalescer = new ZoomCoalescer(camera, zoom -> {
+            synchronized (active) {
+                active[0]++;
+                maxActive[0] = Math.max(maxActive[0], active[0]);
+                last[0] = zoom;
+            }
+            // simulate the frame completing later on another thread
+            new Thread(() -> {
+                synchronized (active) {
+                    active[0]--;
+                }
+                holder[0].onFrameCompleted();
+            }).start();
+            return true;
+        });
+        holder[0] = coalescer;
+
+        Thread[] pinchers = new Thread[4];
+        for (int t = 0; t < pinchers.length; t++) {
+            pinchers[t] = new Thread(() -> {
+                for (int i = 1; i <= 500; i++) {
+                    coalescer.setTarget(i);
+                }
+            });
+            pinchers[t].start();
+        }
+        for (Thread thread : pinchers) {
+            thread.join();
+        }
+        coalescer.setTarget(1000f);
+        CountDownLatch settled = new CountDownLatch(1);
+        for (int i = 0; i < 200 && settled.getCount() > 0; i++) {
+            synchronized (active) {
+                if (last[0] == 1000f && active[0] == 0) settled.countDown();
+            }
+            Thread.sleep(5);
+        }
+        camera.shutdown();
+        assertTrue(settled.await(0, TimeUnit.MILLISECONDS));
+        assertEquals(1, maxActive[0]);
+        assertTrue(coalescer.getSubmittedCount() < 2001);
+    }
+}
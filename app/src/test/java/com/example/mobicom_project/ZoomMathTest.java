@@ -0,0 +1,34 @@
+package com.example.mobicom_project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ZoomMathTest {
+    @Test
+    public void computeCrop_oneXIsFullArray() {
+        assertEquals(new Box(0, 0, 4032, 3024), ZoomMath.computeCrop(4032, 3024, 1f, new Box()));
+    }
+
+    @Test
+    public void computeCrop_isCentered() {
+        Box crop = ZoomMath.computeCrop(4032, 3024, 2f, new Box());
+        assertEquals(new Box(1008, 756, 3024, 2268), crop);
+        crop = ZoomMath.computeCrop(4000, 3000, 3f, new Box());
+        assertEquals(1333, crop.width());
+        assertEquals(1000, crop.height());
+        assertEquals(4000 - crop.right, crop.left, 1);
+    }
+
+    @Test
+    public void computeCrop_belowOneIsClampedToFullArray() {
+        assertEquals(new Box(0, 0, 4032, 3024), ZoomMath.computeCrop(4032, 3024, 0.5f, new Box()));
+    }
+
+    @Test
+    public void clamp() {
+        assertEquals(1f, ZoomMath.clamp(0.3f, 1f, 8f), 0f);
+        assertEquals(8f, ZoomMath.clamp(12f, 1f, 8f), 0f);
+        assertEquals(2.5f, ZoomMath.clamp(2.5f, 1f, 8f), 0f);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Persisting a JPEG-sized direct buffer through {@link CaptureStore}, run inline. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CaptureStoreBenchmark {
+    private static final class InlineScheduler implements Scheduler {
+        @Override
+        public void post(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public boolean isCurrentThread() {
+            return true;
+        }
+    }
+
+    private static final CaptureStore.Callback IGNORE = new CaptureStore.Callback() {
+        @Override
+        public void onStored(File file, long bytes, long latencyNanos) {
+        }
+
+        @Override
+        public void onFailed(File file, IOException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    @Param({"500000", "3000000"})
+    public int jpegBytes;
+
+    private ByteBuffer jpeg;
+    private File directory;
+    private File target;
+    private final CaptureStore store = new CaptureStore(new InlineScheduler(), 1);
+    private final Runnable release = () -> { };
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] bytes = new byte[jpegBytes];
+        new Random(9).nextBytes(bytes);
+        jpeg = ByteBuffer.allocateDirect(jpegBytes);
+        jpeg.put(bytes).flip();
+        directory = Files.createTempDirectory("capture-bench").toFile();
+        target = new File(directory, "capture.jpg");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        target.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public long store() {
+        store.store(jpeg, target, release, IGNORE);
+        return store.getStoredBytes();
+    }
+}
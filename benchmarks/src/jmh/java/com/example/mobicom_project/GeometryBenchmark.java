@@ -0,0 +1,79 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Box rescaling for the overlay and the zoom / region-of-interest crop math. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+    private static final int IMAGE_W = 1280;
+    private static final int IMAGE_H = 960;
+
+    @State(Scope.Thread)
+    public static class Boxes {
+        @Param({"8", "64"})
+        public int count;
+
+        int[] coords;
+        final OverlayLayout layout = new OverlayLayout(4);
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(1);
+            coords = new int[count * 4];
+            for (int i = 0; i < count; i++) {
+                int left = random.nextInt(IMAGE_W - 100);
+                int top = random.nextInt(IMAGE_H - 40);
+                coords[i * 4] = left;
+                coords[i * 4 + 1] = top;
+                coords[i * 4 + 2] = left + 20 + random.nextInt(80);
+                coords[i * 4 + 3] = top + 10 + random.nextInt(30);
+            }
+            layout.setViewSize(1080, 1440);
+        }
+    }
+
+    private final Box roi = new Box(200, 300, 880, 700);
+    private final Box upright = new Box();
+    private final Box raw = new Box();
+    private final Box crop = new Box();
+    private float zoom;
+
+    /** What {@code OverlayView} does per recognized frame. */
+    @Benchmark
+    public int rescaleBoxes(Boxes boxes) {
+        OverlayLayout layout = boxes.layout;
+        int[] coords = boxes.coords;
+        layout.beginFrame(IMAGE_H, IMAGE_W, 0, 0);
+        for (int i = 0; i < boxes.count; i++) {
+            layout.add(coords[i * 4], coords[i * 4 + 1], coords[i * 4 + 2], coords[i * 4 + 3], i);
+        }
+        return layout.right(boxes.count - 1);
+    }
+
+    @Benchmark
+    public Box zoomCrop() {
+        zoom = zoom >= 8f ? 1f : zoom + 0.25f;
+        return ZoomMath.computeCrop(4032, 3024, zoom, crop);
+    }
+
+    /** View ROI to the raw, rotated sensor crop handed to the YUV cropper. */
+    @Benchmark
+    public void roiToRaw(Blackhole blackhole) {
+        RoiMapper.viewToUpright(roi, 1080, 1440, IMAGE_H, IMAGE_W, upright);
+        RoiMapper.uprightToRaw(upright, 90, IMAGE_W, IMAGE_H, raw);
+        blackhole.consume(RoiMapper.alignToEven(raw, IMAGE_W, IMAGE_H));
+    }
+}
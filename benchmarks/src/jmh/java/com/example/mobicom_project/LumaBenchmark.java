@@ -0,0 +1,82 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame work on YUV_420_888 planes: the downsampled luma hash used by the
+ * result cache and the NV21 crop handed to ML Kit. Planes are direct buffers
+ * laid out like a camera ImageReader's (row padding, interleaved chroma).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LumaBenchmark {
+    @Param({"640x480", "1280x960", "1920x1440"})
+    public String size;
+
+    private int width;
+    private int height;
+    private int rowStride;
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private Box full;
+    private Box roi;
+    private byte[] nv21;
+    private final FrameHasher hasher = new FrameHasher();
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+        rowStride = width + 64;
+        Random random = new Random(3);
+        yPlane = filled(rowStride * height, random);
+        // semi-planar chroma: U and V views into one interleaved buffer
+        ByteBuffer chroma = filled(rowStride * height / 2, random);
+        uPlane = chroma.duplicate();
+        vPlane = chroma.duplicate();
+        vPlane.position(1);
+        vPlane = vPlane.slice();
+        full = new Box(0, 0, width, height);
+        roi = RoiMapper.alignToEven(new Box(width / 4 + 1, height / 3, width * 3 / 4, height * 2 / 3), width, height);
+        nv21 = new byte[YuvCropper.nv21Size(width, height)];
+    }
+
+    private static ByteBuffer filled(int capacity, Random random) {
+        byte[] bytes = new byte[capacity];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    @Benchmark
+    public long hashLuma() {
+        return hasher.hashLuma(yPlane, rowStride, 1, full);
+    }
+
+    @Benchmark
+    public byte[] cropFullToNv21() {
+        YuvCropper.cropToNv21(yPlane, rowStride, 1, uPlane, vPlane, rowStride, 2, full, nv21);
+        return nv21;
+    }
+
+    @Benchmark
+    public byte[] cropRoiToNv21() {
+        YuvCropper.cropToNv21(yPlane, rowStride, 1, uPlane, vPlane, rowStride, 2, roi, nv21);
+        return nv21;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LumaPreprocessor} stages on a camera-sized Y plane of a page with
+ * skewed text lines under uneven light, downscaled to the default 1280 px.
+ * {@code process} is the whole stage as run per live frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PreprocessBenchmark {
+    @Param({"1280x960", "1920x1440"})
+    public String size;
+
+    private final LumaPreprocessor preprocessor = new LumaPreprocessor();
+    private final LumaPreprocessor.Config config = LumaPreprocessor.Config.DEFAULT;
+    private int rowStride;
+    private ByteBuffer yPlane;
+    private Box full;
+    private int outW;
+    private int outH;
+    private byte[] gray;
+    private byte[] binary;
+    private byte[] scratch;
+    private ByteBuffer nv21;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        int width = Integer.parseInt(parts[0]);
+        int height = Integer.parseInt(parts[1]);
+        rowStride = width + 64;
+        yPlane = ByteBuffer.allocateDirect(rowStride * height);
+        double sin = Math.sin(Math.toRadians(3));
+        double cos = Math.cos(Math.toRadians(3));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double u = (x - width / 2.0) * cos + (y - height / 2.0) * sin + width;
+                double v = -(x - width / 2.0) * sin + (y - height / 2.0) * cos + height;
+                int paper = 60 + 180 * x / width;
+                boolean ink = v % 36 < 10 && u % 60 < 45;
+                yPlane.put(y * rowStride + x, (byte) (ink ? paper / 3 : paper));
+            }
+        }
+        full = new Box(0, 0, width, height);
+        outW = LumaPreprocessor.outputWidth(config, width, height);
+        outH = LumaPreprocessor.outputHeight(config, width, height);
+        gray = new byte[outW * outH];
+        binary = new byte[outW * outH];
+        scratch = new byte[outW * outH];
+        nv21 = ByteBuffer.allocateDirect(YuvCropper.nv21Size(outW, outH));
+        preprocessor.downscale(yPlane, rowStride, 1, full, gray, outW, outH);
+        preprocessor.threshold(gray, binary, outW, outH, config.thresholdWindow, config.thresholdPercent);
+    }
+
+    @Benchmark
+    public byte[] downscale() {
+        preprocessor.downscale(yPlane, rowStride, 1, full, gray, outW, outH);
+        return gray;
+    }
+
+    @Benchmark
+    public byte[] threshold() {
+        preprocessor.threshold(gray, scratch, outW, outH, config.thresholdWindow, config.thresholdPercent);
+        return scratch;
+    }
+
+    @Benchmark
+    public float estimateSkew() {
+        return preprocessor.estimateSkew(binary, outW, outH, false, config.maxSkewDegrees);
+    }
+
+    @Benchmark
+    public byte[] shear() {
+        preprocessor.shear(gray, scratch, outW, outH, 3f, false);
+        return scratch;
+    }
+
+    @Benchmark
+    public ByteBuffer process() {
+        preprocessor.process(config, yPlane, rowStride, 1, full, false, nv21);
+        return nv21;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block tracking and text diffing per recognized frame, against rebuilding the
+ * whole document the way the text view used to be refreshed. Frames alternate
+ * between two readings of the same page that differ in a few lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextDiffBenchmark {
+    /** Stands in for the Editable: applies edits to a StringBuilder. */
+    private static final class BuilderSink implements TextDiffer.Sink {
+        final StringBuilder document = new StringBuilder();
+        int spans;
+
+        @Override
+        public void replace(int start, int end, CharSequence text) {
+            document.replace(start, end, text.toString());
+        }
+
+        @Override
+        public void onBlockChanged(int blockId, int start, int end) {
+            spans++;
+        }
+
+        @Override
+        public void onBlockRemoved(int blockId) {
+            spans--;
+        }
+    }
+
+    @Param({"10", "40"})
+    public int blocks;
+
+    private String[][][] texts;
+    private float[][][] confidences;
+    private int frame;
+    private final BlockTracker tracker = new BlockTracker(0.5f, 0.5f);
+    private final TextDiffer differ = new TextDiffer();
+    private final BuilderSink sink = new BuilderSink();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        int lines = 3;
+        texts = new String[2][blocks][lines];
+        confidences = new float[2][blocks][lines];
+        for (int b = 0; b < blocks; b++) {
+            for (int l = 0; l < lines; l++) {
+                String line = "block " + b + " line " + l + " lorem ipsum dolor";
+                texts[0][b][l] = line;
+                texts[1][b][l] = random.nextInt(8) == 0 ? line.replace('o', '0') : line;
+                confidences[0][b][l] = 0.9f;
+                confidences[1][b][l] = random.nextInt(4) == 0 ? 0.3f : 0.9f;
+            }
+        }
+    }
+
+    private List<OcrBlock> nextFrame() {
+        int f = frame++ & 1;
+        List<OcrBlock> frameBlocks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            int top = b * 60 + f;
+            OcrBlock block = new OcrBlock(new Box(20, top, 620, top + 50));
+            for (int l = 0; l < texts[f][b].length; l++) {
+                block.addLine(texts[f][b][l], confidences[f][b][l], new Box(20, top + l * 16, 620, top + l * 16 + 14));
+            }
+            frameBlocks.add(block);
+        }
+        return frameBlocks;
+    }
+
+    @Benchmark
+    public int trackAndDiff() {
+        return differ.apply(tracker.update(nextFrame()), sink);
+    }
+
+    /** Baseline: a fresh document per frame, like the old SpannableStringBuilder. */
+    @Benchmark
+    public int rebuildDocument() {
+        List<OcrBlock> frameBlocks = nextFrame();
+        StringBuilder document = new StringBuilder();
+        int spans = 0;
+        for (OcrBlock block : frameBlocks) {
+            document.append(block.getText()).append('\n');
+            spans++;
+        }
+        return document.length() + spans;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mobicom_project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries against a {@link TextIndex} of synthetic Korean pages, compacted
+ * into one segment like a long-lived index, against scanning every stored
+ * page. Pages are sentences of words drawn from a Zipf-like vocabulary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextIndexBenchmark {
+    @Param({"20000"})
+    public int pages;
+
+    private File directory;
+    private TextIndex index;
+    private String[] vocabulary;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(21);
+        vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int j = 0; j < length; j++) {
+                word.append(syllable(random));
+            }
+            vocabulary[i] = word.toString();
+        }
+        directory = Files.createTempDirectory("text-index").toFile();
+        index = new TextIndex(directory, null);
+        StringBuilder page = new StringBuilder();
+        for (int p = 0; p < pages; p++) {
+            page.setLength(0);
+            for (int w = 0; w < 120; w++) {
+                page.append(word(random)).append(w % 12 == 11 ? ".\n" : " ");
+            }
+            index.add(p, "page" + p + ".jpg", page.toString());
+        }
+        index.flush();
+        index.compact();
+
+        queries = new String[64];
+        for (int q = 0; q < queries.length; q++) {
+            switch (q % 3) {
+                case 0:
+                    // a frequent word
+                    queries[q] = vocabulary[random.nextInt(20)];
+                    break;
+                case 1:
+                    // a rare word
+                    queries[q] = vocabulary[1000 + random.nextInt(4000)];
+                    break;
+                default:
+                    queries[q] = vocabulary[random.nextInt(200)] + " " + vocabulary[random.nextInt(200)];
+            }
+        }
+    }
+
+    /** A Hangul syllable, with a final consonant half the time. */
+    private static char syllable(Random random) {
+        int initial = random.nextInt(19);
+        int medial = random.nextInt(21);
+        int fin = random.nextBoolean() ? 0 : 1 + random.nextInt(27);
+        return (char) (0xAC00 + (initial * 21 + medial) * 28 + fin);
+    }
+
+    /** Zipf-like: low indices are much more common. */
+    private String word(Random random) {
+        double u = random.nextDouble();
+        return vocabulary[(int) (vocabulary.length * u * u * u)];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Benchmark
+    public int search() throws IOException {
+        List<TextIndex.Hit> hits = index.search(queries[next++ & (queries.length - 1)], 20);
+        return hits.size();
+    }
+
+    /** Baseline: read and match every page, newest first, until 20 hits. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int scan() throws IOException {
+        List<String> words = NgramTokenizer.runs(NgramTokenizer.normalize(queries[next++ & (queries.length - 1)]));
+        int hits = 0;
+        for (int id = index.size() - 1; id >= 0 && hits < 20; id--) {
+            String text = NgramTokenizer.normalize(index.get(id).text);
+            boolean all = true;
+            for (String word : words) {
+                all &= text.contains(word);
+            }
+            if (all) hits++;
+        }
+        return hits;
+    }
+}